@@ -0,0 +1,119 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core;
+
+import sk.uniza.fri.hlavna2.simulation.core.utils.RunningStatistic;
+
+/**
+ * Result of the solve limited by wall clock budget. Contains statistics of all completed replications and confidence
+ * interval of the observed output
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class BudgetedResult {
+
+    private final Statistics statistics;
+    private final RunningStatistic output;
+    private final long replications;
+    private final double confidence;
+    private final boolean precisionReached;
+    private final boolean budgetExhausted;
+    private final long elapsedMillis;
+
+    BudgetedResult(Statistics statistics, RunningStatistic output, long replications, double confidence,
+            boolean precisionReached, boolean budgetExhausted, long elapsedMillis) {
+        this.statistics = statistics;
+        this.output = output;
+        this.replications = replications;
+        this.confidence = confidence;
+        this.precisionReached = precisionReached;
+        this.budgetExhausted = budgetExhausted;
+        this.elapsedMillis = elapsedMillis;
+    }
+
+    /**
+     * Get statistics merged from completed replications
+     *
+     * @return Copy of the statistics
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Get values of the output of completed replications. If engine simulates several replications in one run, there
+     * is one value per run
+     *
+     * @return Statistic of the output
+     */
+    public RunningStatistic getOutput() {
+        return output;
+    }
+
+    public double getMean() {
+        return output.getMean();
+    }
+
+    /**
+     * Get half width of the confidence interval of the output at the requested confidence
+     *
+     * @return Half width of the interval
+     */
+    public double getHalfWidth() {
+        return output.getHalfWidth(confidence);
+    }
+
+    /**
+     * Check whether requested relative precision was reached
+     *
+     * @return True if solve ended because of reached precision
+     */
+    public boolean isPrecisionReached() {
+        return precisionReached;
+    }
+
+    /**
+     * Check whether solve ended because of the budget, either by interrupting replication or because next replication
+     * was not expected to finish in time
+     *
+     * @return True if budget was exhausted
+     */
+    public boolean isBudgetExhausted() {
+        return budgetExhausted;
+    }
+
+    /**
+     * Get number of completed replications, including all replications of the runs of engine simulating several
+     * replications in one run
+     *
+     * @return Number of completed replications
+     */
+    public long getReplications() {
+        return replications;
+    }
+
+    public long getElapsedMillis() {
+        return elapsedMillis;
+    }
+}
@@ -26,9 +26,19 @@ package sk.uniza.fri.hlavna2.simulation.core;
 import java.util.HashMap;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import java.util.logging.Level;
+import java.util.logging.Logger;
 import sk.uniza.fri.hlavna2.simulation.core.exception.ReplicationsStoppedException;
 import sk.uniza.fri.hlavna2.simulation.core.listeners.SimulationProgressListener;
+import sk.uniza.fri.hlavna2.simulation.core.profiling.ReplicationRecord;
+import sk.uniza.fri.hlavna2.simulation.core.results.ReplicationCache;
 import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorageImpl;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RunningStatistic;
 
 /**
  * Basic replication engine for simulation
@@ -37,12 +47,22 @@ import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorageImpl;
  */
 public class ReplicationEngine {
 
+    private static final int MIN_REPLICATIONS = 10;
     private final Statistics statistics;
     private final SimulationParameters parameters;
     private final SimulationEngine command;
     private final RandomStorageImpl randomStorage;
     private final List<SimulationProgressListener> listeners;
     private boolean isStopped;
+    private boolean needsReset;
+    private boolean substreamsChecked;
+    private int nextReplication;
+    private ReplicationCache cache;
+    private String modelVersion;
+    private String parametersKey;
+    private Supplier<Statistics> statisticsFactory;
+    private volatile boolean profiling;
+    private volatile boolean expired;
 
     private ReplicationEngine(SimulationEngine command, Statistics statistics, SimulationParameters parameters) {
         this.statistics = statistics;
@@ -76,18 +96,24 @@ public class ReplicationEngine {
      *
      * If simulation is stopped before calling of this method, this method will throw exception
      *
+     * If engine simulates several replications in one run, listeners are notified once per run with number of
+     * replications finished so far and number of replications is rounded up to multiple of replications per run.
+     *
      * @param replications Number of iterations to solve in this iteration
      */
     public void solve(int replications) {
         if (isStopped) {
             throw new ReplicationsStoppedException();
         }
+        prepareCache();
+        int perRun = command.replicationsPerRun();
         int i;
-        for (i = 0; i < replications; i++) {
+        for (i = 0; i < replications; i += perRun) {
             if (!isStopped) {
-                command.simulate(parameters, statistics, randomStorage);
-                statistics.setIterationsRunned(i);
-                invokeReplicationEnded(i);
+                runReplication(nextReplication, statistics);
+                nextReplication += perRun;
+                statistics.setIterationsRunned(i + perRun);
+                invokeReplicationEnded(i + perRun);
             } else {
                 break;
             }
@@ -97,6 +123,232 @@ public class ReplicationEngine {
         invokeSimulationEnded();
     }
 
+    /**
+     * Solve replications until wall clock budget is exhausted or output reaches requested relative precision. Every
+     * replication is simulated into fresh statistics, which are merged into the result only when replication completes.
+     * Replication still running when budget expires is interrupted by {@link SimulationEngine#interrupt()} and
+     * discarded. Next replication is not started if it is not expected to finish in the remaining budget, expectation
+     * is based on the average duration of completed replications. Precision is checked after at least
+     * {@value #MIN_REPLICATIONS} replications.
+     *
+     * If engine simulates several replications in one run, output is observed once per run, so the confidence interval
+     * and the minimal count are based on runs, while the result counts all replications of the completed runs.
+     *
+     * If simulation is stopped before calling of this method, this method will throw exception
+     *
+     * @param budgetMillis Wall clock budget in milliseconds
+     * @param statisticsFactory Creates empty statistics for single replication
+     * @param output Output of the replication observed for the confidence interval
+     * @param relativePrecision Requested ratio of half width of the confidence interval to the mean
+     * @param confidence Confidence level, e.g. 0.95
+     * @return Statistics of completed replications with confidence interval of the output
+     */
+    public BudgetedResult solveWithin(long budgetMillis, Supplier<Statistics> statisticsFactory, ToDoubleFunction<Statistics> output,
+            double relativePrecision, double confidence) {
+        if (isStopped) {
+            throw new ReplicationsStoppedException();
+        }
+        prepareCache();
+        long start = System.nanoTime();
+        long deadline = start + TimeUnit.MILLISECONDS.toNanos(budgetMillis);
+        expired = false;
+        ScheduledExecutorService watchdog = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "replication-watchdog");
+            thread.setDaemon(true);
+            return thread;
+        });
+        watchdog.schedule(() -> {
+            expired = true;
+            command.interrupt();
+        }, budgetMillis, TimeUnit.MILLISECONDS);
+        RunningStatistic outputs = new RunningStatistic();
+        int perRun = command.replicationsPerRun();
+        int completed = 0;
+        long duration = 0;
+        boolean precise = false;
+        boolean exhausted = false;
+        try {
+            while (!isStopped) {
+                long now = System.nanoTime();
+                if (expired || (completed > 0 && now + duration / (completed / perRun) > deadline)) {
+                    exhausted = true;
+                    break;
+                }
+                Statistics partial = statisticsFactory.get();
+                runReplication(nextReplication, partial);
+                if (expired) {
+                    exhausted = true;
+                    break;
+                }
+                nextReplication += perRun;
+                completed += perRun;
+                duration += System.nanoTime() - now;
+                statistics.merge(partial);
+                statistics.setIterationsRunned(completed);
+                outputs.add(output.applyAsDouble(partial));
+                invokeReplicationEnded(completed);
+                if (outputs.getCount() >= MIN_REPLICATIONS
+                        && outputs.getHalfWidth(confidence) <= relativePrecision * Math.abs(outputs.getMean())) {
+                    precise = true;
+                    break;
+                }
+            }
+        } finally {
+            watchdog.shutdownNow();
+            expired = false;
+        }
+        isStopped = true;
+        invokeSimulationEnded();
+        return new BudgetedResult(statistics.copy(), outputs, completed, confidence, precise, exhausted,
+                TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start));
+    }
+
+    /**
+     * Solve antithetic pairs of replications. Both replications of the pair use the same random substream, the second
+     * one with antithetic numbers. Outputs of the pair are negatively correlated, so average of the pair has lower
+     * variance than average of two independent replications. Confidence intervals have to be computed from the pair
+     * averages, which are independent.
+     *
+     * If simulation is stopped before calling of this method, this method will throw exception
+     *
+     * @param pairs Number of pairs to solve
+     */
+    public void solveAntithetic(int pairs) {
+        if (isStopped) {
+            throw new ReplicationsStoppedException();
+        }
+        checkSubstreams();
+        prepareCache();
+        int perRun = command.replicationsPerRun();
+        int i;
+        for (i = 0; i < pairs * 2; i += perRun) {
+            if (!isStopped) {
+                boolean antithetic = (i / perRun) % 2 == 1;
+                randomStorage.setAntithetic(antithetic);
+                runReplication(nextReplication, statistics);
+                if (antithetic) {
+                    nextReplication += perRun;
+                }
+                statistics.setIterationsRunned(i + perRun);
+                invokeReplicationEnded(i + perRun);
+            } else {
+                break;
+            }
+        }
+        randomStorage.setAntithetic(false);
+        isStopped = true;
+        invokeSimulationEnded();
+    }
+
+    /**
+     * Solve range of replications into separate statistics. Listeners are not notified and solver is not stopped after
+     * this call. Used when partial results are computed separately and merged later. If engine simulates several
+     * replications in one run, number of replications should be its multiple, otherwise range is rounded up. Results
+     * are reproducible only if all generators implement {@link sk.uniza.fri.hlavna2.simulation.core.utils.SubstreamGenerator},
+     * warning is logged otherwise.
+     *
+     * @param firstReplication Index of the first replication, used as random substream
+     * @param replications Number of replications to solve
+     * @param partial Statistics for this range of replications
+     */
+    public void solve(int firstReplication, int replications, Statistics partial) {
+        if (isStopped) {
+            throw new ReplicationsStoppedException();
+        }
+        checkSubstreams();
+        prepareCache();
+        int perRun = command.replicationsPerRun();
+        for (int i = 0; i < replications && !isStopped; i += perRun) {
+            runReplication(firstReplication + i, partial);
+            partial.setIterationsRunned(i + perRun);
+        }
+    }
+
+    /**
+     * Serve replications from the cache. Every replication not found in the cache is simulated into fresh statistics,
+     * which are stored and merged into the result, so statistics have to implement merge. Cache is used only if engine
+     * uses statistics passed to simulate. Key of the parameters is computed once at the start of every solve, see
+     * {@link ReplicationCache#parametersKey(SimulationParameters)}
+     *
+     * @param cache Cache of the replications, null disables caching
+     * @param modelVersion Version of the model, has to be changed whenever model changes its behaviour
+     * @param statisticsFactory Creates empty statistics for single replication
+     */
+    public void setCache(ReplicationCache cache, String modelVersion, Supplier<Statistics> statisticsFactory) {
+        this.cache = cache;
+        this.modelVersion = modelVersion;
+        this.statisticsFactory = statisticsFactory;
+    }
+
+    /**
+     * Emit flight recorder event for every replication. Events of the engine itself are controlled by the engine
+     *
+     * @param profiling True to emit events
+     */
+    public void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+    }
+
+    private void runReplication(int replication, Statistics target) {
+        command.clearInterrupt();
+        if (expired) {
+            return;
+        }
+        if (!profiling) {
+            replicate(replication, target);
+            return;
+        }
+        ReplicationRecord record = new ReplicationRecord();
+        record.begin();
+        boolean cached = replicate(replication, target);
+        record.complete(replication, randomStorage.isAntithetic(), cached);
+    }
+
+    private boolean replicate(int replication, Statistics target) {
+        if (cache == null) {
+            simulateReplication(replication, target);
+            return false;
+        }
+        String key = ReplicationCache.key(modelVersion, parametersKey, replication, randomStorage.isAntithetic());
+        Statistics result = cache.get(key);
+        boolean cached = result != null;
+        if (!cached) {
+            result = statisticsFactory.get();
+            simulateReplication(replication, result);
+            if (expired) {
+                return false;
+            }
+            cache.put(key, result);
+        }
+        target.merge(result);
+        return cached;
+    }
+
+    private void simulateReplication(int replication, Statistics target) {
+        if (needsReset || replication != 0 || randomStorage.isAntithetic()) {
+            randomStorage.setSubstream(replication);
+            command.reset(parameters, target, randomStorage);
+        }
+        needsReset = true;
+        command.simulate(parameters, target, randomStorage);
+    }
+
+    private void prepareCache() {
+        parametersKey = cache == null ? null : ReplicationCache.parametersKey(parameters);
+    }
+
+    private void checkSubstreams() {
+        if (substreamsChecked) {
+            return;
+        }
+        substreamsChecked = true;
+        List<String> keys = randomStorage.getGeneratorsWithoutSubstreams();
+        if (!keys.isEmpty()) {
+            Logger.getLogger(ReplicationEngine.class.getName()).log(Level.WARNING,
+                    "Generators {0} do not support substreams, replications are not reproducible", keys);
+        }
+    }
+
     /**
      * Create solver with given command, parameters, and default statistics
      *
@@ -135,13 +387,13 @@ public class ReplicationEngine {
 
     private void invokeReplicationEnded(int number) {
         for (SimulationProgressListener listener : listeners) {
-            listener.replicationEnded(number, new Statistics(statistics));
+            listener.replicationEnded(number, statistics.copy());
         }
     }
 
     private void invokeSimulationEnded() {
         for (SimulationProgressListener listener : listeners) {
-            listener.simulationEnded(new Statistics(statistics));
+            listener.simulationEnded(statistics.copy());
         }
     }
 }
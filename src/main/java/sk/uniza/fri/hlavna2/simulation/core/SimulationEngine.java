@@ -51,6 +51,45 @@ public interface SimulationEngine {
      */
     void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage);
 
+    /**
+     * Reset hook. Called before every replication except the first one after init, when that replication uses the
+     * first random substream, so models planning initial events only in init keep working when solved from the first
+     * replication. Otherwise it is called after random substream of the replication is selected. Engine should return to
+     * the state it had after init, reusing already allocated structures where possible, and plan initial events again,
+     * so they use random numbers of the replication
+     *
+     * @param parameters Parameters of the simulation
+     * @param statistics Statistics for the simulation
+     * @param randoms Randoms used in this simulation
+     */
+    default void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+    }
+
+    /**
+     * Ask running replication to finish as soon as possible. Called from other thread, e.g. when time budget of the
+     * study is exhausted. Results of interrupted replication are discarded and engine is reset before next replication.
+     * Interrupt is sticky: if it arrives before simulate starts, simulate returns immediately. Neither simulate nor
+     * reset clears it, only {@link #clearInterrupt()}
+     */
+    default void interrupt() {
+    }
+
+    /**
+     * Clear interrupt requested by {@link #interrupt()}. Called by replication engine when replication starts
+     */
+    default void clearInterrupt() {
+    }
+
+    /**
+     * Get number of replications simulated by one call of simulate. Replication engine advances substream of the
+     * replications by this number
+     *
+     * @return Number of replications in one run
+     */
+    default int replicationsPerRun() {
+        return 1;
+    }
+
     /**
      * CleanUp hook. Called after last replication is finished
      */
@@ -23,13 +23,16 @@
  */
 package sk.uniza.fri.hlavna2.simulation.core;
 
+import java.io.Serializable;
+
 /**
  * Default statistics for the monte carlo simulation
  *
  * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
  */
-public class Statistics {
+public class Statistics implements Serializable {
 
+    private static final long serialVersionUID = 1L;
     private int iterationsRunned;
 
     public Statistics() {
@@ -39,6 +42,25 @@ public class Statistics {
         this.iterationsRunned = other.iterationsRunned;
     }
 
+    /**
+     * Create copy of these statistics. Subclasses should return copy of their own type
+     *
+     * @return Copy of the statistics
+     */
+    public Statistics copy() {
+        return new Statistics(this);
+    }
+
+    /**
+     * Add results of other statistics computed from different replications. Subclasses should merge their own fields
+     * and call this method
+     *
+     * @param other Statistics of other replications
+     */
+    public void merge(Statistics other) {
+        this.iterationsRunned += other.iterationsRunned;
+    }
+
     /**
      * Get number of runned iterations
      *
@@ -0,0 +1,282 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.distributed;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.InetAddress;
+import java.net.ServerSocket;
+import java.net.Socket;
+import java.net.SocketException;
+import java.util.ArrayList;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.concurrent.BlockingDeque;
+import java.util.concurrent.LinkedBlockingDeque;
+import java.util.concurrent.TimeUnit;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.exception.WorkersUnavailableException;
+import sk.uniza.fri.hlavna2.simulation.core.listeners.SimulationProgressListener;
+
+/**
+ * Coordinator of the distributed replication farm. Splits replications into tasks, hands them to connected
+ * {@link DistributedWorker}s and merges returned partial statistics. Task of a worker whose connection fails is given
+ * to other worker. Solve fails when all connected workers fail or when results do not arrive in time.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class DistributedCoordinator {
+
+    private final ServerSocket serverSocket;
+    private final Statistics statistics;
+    private final List<SimulationProgressListener> listeners;
+    private final BlockingDeque<ReplicationTask> tasks;
+    private int pendingTasks;
+    private int liveWorkers;
+    private int failedWorkers;
+    private int replicationsMerged;
+    private volatile boolean closed;
+
+    /**
+     * Create coordinator listening on local port
+     *
+     * @param port Port to listen on, 0 to choose free port
+     * @param statistics Statistics where partial results are merged
+     * @throws IOException When port cannot be opened
+     */
+    public DistributedCoordinator(int port, Statistics statistics) throws IOException {
+        this.serverSocket = new ServerSocket(port, 50, InetAddress.getLoopbackAddress());
+        this.statistics = statistics;
+        this.listeners = new LinkedList<>();
+        this.tasks = new LinkedBlockingDeque<>();
+        Thread acceptor = new Thread(this::acceptWorkers, "coordinator-acceptor");
+        acceptor.setDaemon(true);
+        acceptor.start();
+    }
+
+    public void addProgressListener(SimulationProgressListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeProgressListener(SimulationProgressListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Solve replications on connected workers. Blocks until all tasks are merged or all connected workers fail
+     *
+     * @param replications Number of replications
+     * @param taskSize Number of replications in one task
+     * @throws IllegalArgumentException If number of replications or task size is not positive
+     * @throws WorkersUnavailableException If workers failed and no connected worker remains
+     */
+    public void solve(int replications, int taskSize) {
+        solve(replications, taskSize, 0);
+    }
+
+    /**
+     * Solve replications on connected workers. Blocks until all tasks are merged, all connected workers fail or
+     * timeout expires. After failure statistics contain only the tasks merged so far and unfinished tasks are dropped.
+     * Coordinator should be closed after failure, because workers may still return results of the dropped tasks.
+     *
+     * @param replications Number of replications
+     * @param taskSize Number of replications in one task
+     * @param timeoutMillis Longest wait for all results in milliseconds, 0 to wait without limit
+     * @throws IllegalArgumentException If number of replications or task size is not positive or timeout is negative
+     * @throws WorkersUnavailableException If workers failed and no connected worker remains or timeout expired
+     */
+    public void solve(int replications, int taskSize, long timeoutMillis) {
+        if (replications <= 0 || taskSize <= 0 || timeoutMillis < 0) {
+            throw new IllegalArgumentException(
+                    "Replications and task size must be positive, timeout must not be negative");
+        }
+        long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(timeoutMillis);
+        synchronized (this) {
+            int failuresBefore = failedWorkers;
+            for (int first = 0; first < replications; first += taskSize) {
+                tasks.add(new ReplicationTask(first, Math.min(taskSize, replications - first)));
+                pendingTasks++;
+            }
+            while (pendingTasks > 0 && !closed) {
+                if (liveWorkers == 0 && failedWorkers > failuresBefore) {
+                    abandonTasks();
+                    throw new WorkersUnavailableException("All connected workers failed");
+                }
+                long remaining = deadline - System.nanoTime();
+                if (timeoutMillis > 0 && remaining <= 0) {
+                    abandonTasks();
+                    throw new WorkersUnavailableException("Results did not arrive in " + timeoutMillis + " ms");
+                }
+                try {
+                    if (timeoutMillis > 0) {
+                        TimeUnit.NANOSECONDS.timedWait(this, remaining);
+                    } else {
+                        wait();
+                    }
+                } catch (InterruptedException ex) {
+                    Logger.getLogger(DistributedCoordinator.class.getName()).log(Level.SEVERE, null, ex);
+                    Thread.currentThread().interrupt();
+                    return;
+                }
+            }
+        }
+        for (SimulationProgressListener listener : listeners) {
+            listener.simulationEnded(statistics.copy());
+        }
+    }
+
+    /**
+     * Launch workers as local processes. Started class has to connect {@link DistributedWorker} to this coordinator
+     *
+     * @param count Number of processes
+     * @param mainClass Main class of the worker process
+     * @param args Arguments of the worker process
+     * @return Started processes
+     * @throws IOException When process cannot be started
+     */
+    public List<Process> launchLocalWorkers(int count, String mainClass, String... args) throws IOException {
+        List<String> command = new ArrayList<>();
+        command.add(System.getProperty("java.home") + File.separator + "bin" + File.separator + "java");
+        command.add("-cp");
+        command.add(System.getProperty("java.class.path"));
+        command.add(mainClass);
+        for (String arg : args) {
+            command.add(arg);
+        }
+        List<Process> processes = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            processes.add(new ProcessBuilder(command).inheritIO().start());
+        }
+        return processes;
+    }
+
+    public int getPort() {
+        return serverSocket.getLocalPort();
+    }
+
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Stop the coordinator. Connected workers are told there is no more work
+     */
+    public void close() {
+        closed = true;
+        synchronized (this) {
+            notifyAll();
+        }
+        try {
+            serverSocket.close();
+        } catch (IOException ex) {
+            Logger.getLogger(DistributedCoordinator.class.getName()).log(Level.SEVERE, null, ex);
+        }
+    }
+
+    private void acceptWorkers() {
+        while (!closed) {
+            try {
+                Socket socket = serverSocket.accept();
+                Thread handler = new Thread(() -> serveWorker(socket), "coordinator-worker");
+                handler.setDaemon(true);
+                handler.start();
+            } catch (SocketException ex) {
+                return;
+            } catch (IOException ex) {
+                Logger.getLogger(DistributedCoordinator.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+    }
+
+    private void serveWorker(Socket socket) {
+        ReplicationTask task = null;
+        boolean failed = false;
+        synchronized (this) {
+            liveWorkers++;
+        }
+        try (Socket connection = socket) {
+            ObjectOutputStream output = new ObjectOutputStream(connection.getOutputStream());
+            output.flush();
+            ObjectInputStream input = new ObjectInputStream(connection.getInputStream());
+            input.setObjectInputFilter(new ReplicationFilter());
+            while (!closed) {
+                task = tasks.poll(100, TimeUnit.MILLISECONDS);
+                if (task == null) {
+                    continue;
+                }
+                output.writeObject(task);
+                output.flush();
+                ReplicationResult result = (ReplicationResult) input.readObject();
+                task = null;
+                merge(result);
+            }
+            output.writeObject(null);
+            output.flush();
+        } catch (IOException | ClassNotFoundException ex) {
+            failed = true;
+            Logger.getLogger(DistributedCoordinator.class.getName()).log(Level.WARNING, "Worker failed", ex);
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        } finally {
+            synchronized (this) {
+                if (task != null && pendingTasks > 0) {
+                    tasks.addFirst(task);
+                }
+                liveWorkers--;
+                if (failed) {
+                    failedWorkers++;
+                }
+                notifyAll();
+            }
+        }
+    }
+
+    private void abandonTasks() {
+        tasks.clear();
+        pendingTasks = 0;
+    }
+
+    private void merge(ReplicationResult result) {
+        Statistics copy;
+        int merged;
+        synchronized (this) {
+            if (pendingTasks == 0) {
+                return;
+            }
+            statistics.merge(result.getStatistics());
+            replicationsMerged += result.getTask().getReplications();
+            merged = replicationsMerged;
+            copy = statistics.copy();
+            pendingTasks--;
+            notifyAll();
+        }
+        for (SimulationProgressListener listener : listeners) {
+            listener.replicationEnded(merged, copy);
+        }
+    }
+}
@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.distributed;
+
+import java.io.IOException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.util.function.Supplier;
+import sk.uniza.fri.hlavna2.simulation.core.ReplicationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+
+/**
+ * Worker of the distributed replication farm. Connects to {@link DistributedCoordinator}, solves assigned replication
+ * tasks into fresh statistics and sends them back until the coordinator closes the connection
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class DistributedWorker {
+
+    private final SimulationEngine engine;
+    private final SimulationParameters parameters;
+    private final Supplier<Statistics> statisticsFactory;
+
+    /**
+     * Create worker
+     *
+     * @param engine Engine simulating the replications
+     * @param parameters Parameters of the simulation, must be the same as in other workers
+     * @param statisticsFactory Creates empty statistics of the model. Statistics has to be serializable and mergeable.
+     * Its fields may hold only statistics of this library and classes of java.base module, coordinator rejects other
+     * classes
+     */
+    public DistributedWorker(SimulationEngine engine, SimulationParameters parameters, Supplier<Statistics> statisticsFactory) {
+        this.engine = engine;
+        this.parameters = parameters;
+        this.statisticsFactory = statisticsFactory;
+    }
+
+    /**
+     * Work for the coordinator. Returns when coordinator is closed and tells the worker there is no more work
+     *
+     * @param host Host of the coordinator
+     * @param port Port of the coordinator
+     * @throws IOException When connection fails
+     * @throws ClassNotFoundException When coordinator sends unknown object
+     */
+    public void run(String host, int port) throws IOException, ClassNotFoundException {
+        ReplicationEngine solver = ReplicationEngine.getSolver(engine, parameters, statisticsFactory.get());
+        try (Socket socket = new Socket(host, port)) {
+            ObjectOutputStream output = new ObjectOutputStream(socket.getOutputStream());
+            output.flush();
+            ObjectInputStream input = new ObjectInputStream(socket.getInputStream());
+            input.setObjectInputFilter(new ReplicationFilter());
+            ReplicationTask task = (ReplicationTask) input.readObject();
+            while (task != null) {
+                Statistics partial = statisticsFactory.get();
+                solver.solve(task.getFirstReplication(), task.getReplications(), partial);
+                output.writeObject(new ReplicationResult(task, partial));
+                output.flush();
+                output.reset();
+                task = (ReplicationTask) input.readObject();
+            }
+        } finally {
+            engine.cleanUp();
+        }
+    }
+}
@@ -0,0 +1,62 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.distributed;
+
+import java.io.ObjectInputFilter;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.utils.ControlVariateStatistic;
+import sk.uniza.fri.hlavna2.simulation.core.utils.LogHistogram;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RunningStatistic;
+import sk.uniza.fri.hlavna2.simulation.core.utils.Statistic;
+
+/**
+ * Filter of objects read from the farm connections. Only tasks, results, statistics and classes of java.base module
+ * are deserialized, anything else is rejected before it is instantiated
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+class ReplicationFilter implements ObjectInputFilter {
+
+    @Override
+    public Status checkInput(FilterInfo info) {
+        Class<?> type = info.serialClass();
+        if (type == null) {
+            return Status.UNDECIDED;
+        }
+        while (type.isArray()) {
+            type = type.getComponentType();
+        }
+        if (type.isPrimitive() || type.getModule() == Object.class.getModule() || isAllowed(type)) {
+            return Status.ALLOWED;
+        }
+        return Status.REJECTED;
+    }
+
+    private static boolean isAllowed(Class<?> type) {
+        return type == ReplicationTask.class || type == ReplicationResult.class
+                || Statistics.class.isAssignableFrom(type) || Statistic.class.isAssignableFrom(type)
+                || type == RunningStatistic.class || type == LogHistogram.class
+                || type == ControlVariateStatistic.class;
+    }
+}
@@ -0,0 +1,571 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.Arrays;
+
+/**
+ * Calendar migrating between sorted array, binary heap and calendar queue according to its size and distribution of
+ * hold times (distance between current time and time of planned event). Migration is done only after the calendar
+ * served at least as many operations as it holds events and thresholds for opposite migrations differ, so structure
+ * does not oscillate. Events with equal time are returned in order of planning in every structure.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class AdaptiveEventCalendar implements EventCalendar {
+
+    private static final int SORTED_MAX = 64;
+    private static final int SORTED_MIN = 32;
+    private static final int CALENDAR_MAX = 8192;
+    private static final int CALENDAR_MIN = 2048;
+    private static final double CALENDAR_MAX_VARIATION = 3.0;
+    private static final double HEAP_MIN_VARIATION = 6.0;
+    private static final double HOLD_WEIGHT = 1.0 / 1024;
+    private final SortedArray sorted;
+    private final BinaryHeap heap;
+    private final CalendarQueue calendar;
+    private Structure active;
+    private CalendarStructure structure;
+    private long sequence;
+    private long operations;
+    private int migrations;
+    private double lastTime;
+    private double holdMean;
+    private double holdSquare;
+
+    public AdaptiveEventCalendar() {
+        sorted = new SortedArray();
+        heap = new BinaryHeap();
+        calendar = new CalendarQueue();
+        active = sorted;
+        structure = CalendarStructure.SORTED_ARRAY;
+    }
+
+    @Override
+    public void planEvent(Event event) {
+        double hold = event.getTime() - lastTime;
+        holdMean += (hold - holdMean) * HOLD_WEIGHT;
+        holdSquare += (hold * hold - holdSquare) * HOLD_WEIGHT;
+        active.add(event, sequence++);
+        operations++;
+        adapt();
+    }
+
+    @Override
+    public Event nextEvent() {
+        Event event = active.poll();
+        if (event != null) {
+            lastTime = event.getTime();
+            operations++;
+            adapt();
+        }
+        return event;
+    }
+
+    @Override
+    public Event peekEvent() {
+        return active.peek();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return active.size() == 0;
+    }
+
+    @Override
+    public Event[] toArray() {
+        return active.toArray();
+    }
+
+    /**
+     * Remove all events. Active structure and its capacity are kept
+     */
+    @Override
+    public void clear() {
+        active.clear();
+        lastTime = 0.0;
+        sequence = 0;
+    }
+
+    public int size() {
+        return active.size();
+    }
+
+    public CalendarStructure getActiveStructure() {
+        return structure;
+    }
+
+    /**
+     * Get number of migrations between structures
+     *
+     * @return Number of migrations
+     */
+    public int getMigrations() {
+        return migrations;
+    }
+
+    /**
+     * Get coefficient of variation of recent hold times
+     *
+     * @return Coefficient of variation or infinity if events are planned only to current time
+     */
+    public double getHoldVariation() {
+        if (holdMean <= 0) {
+            return Double.POSITIVE_INFINITY;
+        }
+        return Math.sqrt(Math.max(holdSquare - holdMean * holdMean, 0.0)) / holdMean;
+    }
+
+    private void adapt() {
+        int size = active.size();
+        if (operations < size) {
+            return;
+        }
+        CalendarStructure target = structure;
+        switch (structure) {
+            case SORTED_ARRAY:
+                if (size > SORTED_MAX) {
+                    target = CalendarStructure.BINARY_HEAP;
+                }
+                break;
+            case BINARY_HEAP:
+                if (size < SORTED_MIN) {
+                    target = CalendarStructure.SORTED_ARRAY;
+                } else if (size > CALENDAR_MAX && getHoldVariation() < CALENDAR_MAX_VARIATION) {
+                    target = CalendarStructure.CALENDAR_QUEUE;
+                }
+                break;
+            default:
+                if (size < CALENDAR_MIN || !(getHoldVariation() < HEAP_MIN_VARIATION)) {
+                    target = CalendarStructure.BINARY_HEAP;
+                }
+        }
+        if (target != structure) {
+            migrate(target);
+        }
+    }
+
+    private void migrate(CalendarStructure target) {
+        int size = active.size();
+        Event[] events = new Event[size];
+        long[] sequences = new long[size];
+        active.drainTo(events, sequences);
+        switch (target) {
+            case SORTED_ARRAY:
+                active = sorted;
+                break;
+            case BINARY_HEAP:
+                active = heap;
+                break;
+            default:
+                calendar.rebuild(Math.max(CalendarQueue.MIN_BUCKETS, Integer.highestOneBit(size)), events, sequences, size, lastTime);
+                active = calendar;
+        }
+        if (target != CalendarStructure.CALENDAR_QUEUE) {
+            for (int i = 0; i < size; i++) {
+                active.add(events[i], sequences[i]);
+            }
+        }
+        structure = target;
+        operations = 0;
+        migrations++;
+    }
+
+    private static boolean before(Event event, long sequence, Event other, long otherSequence) {
+        int compare = Double.compare(event.getTime(), other.getTime());
+        return compare < 0 || (compare == 0 && sequence < otherSequence);
+    }
+
+    private interface Structure {
+
+        void add(Event event, long sequence);
+
+        Event poll();
+
+        Event peek();
+
+        int size();
+
+        Event[] toArray();
+
+        void drainTo(Event[] events, long[] sequences);
+
+        void clear();
+    }
+
+    /**
+     * Array sorted from the latest event, so the next event is removed from the end
+     */
+    private static final class SortedArray implements Structure {
+
+        private Event[] events = new Event[SORTED_MAX + 1];
+        private long[] sequences = new long[SORTED_MAX + 1];
+        private int size;
+
+        @Override
+        public void add(Event event, long sequence) {
+            if (size == events.length) {
+                events = Arrays.copyOf(events, size << 1);
+                sequences = Arrays.copyOf(sequences, size << 1);
+            }
+            int low = 0;
+            int high = size;
+            while (low < high) {
+                int middle = (low + high) >>> 1;
+                if (before(event, sequence, events[middle], sequences[middle])) {
+                    low = middle + 1;
+                } else {
+                    high = middle;
+                }
+            }
+            System.arraycopy(events, low, events, low + 1, size - low);
+            System.arraycopy(sequences, low, sequences, low + 1, size - low);
+            events[low] = event;
+            sequences[low] = sequence;
+            size++;
+        }
+
+        @Override
+        public Event poll() {
+            if (size == 0) {
+                return null;
+            }
+            Event event = events[--size];
+            events[size] = null;
+            return event;
+        }
+
+        @Override
+        public Event peek() {
+            return size == 0 ? null : events[size - 1];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Event[] toArray() {
+            return Arrays.copyOf(events, size);
+        }
+
+        @Override
+        public void drainTo(Event[] target, long[] targetSequences) {
+            System.arraycopy(events, 0, target, 0, size);
+            System.arraycopy(sequences, 0, targetSequences, 0, size);
+            clear();
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(events, 0, size, null);
+            size = 0;
+        }
+    }
+
+    private static final class BinaryHeap implements Structure {
+
+        private Event[] events = new Event[SORTED_MAX * 2];
+        private long[] sequences = new long[SORTED_MAX * 2];
+        private int size;
+
+        @Override
+        public void add(Event event, long sequence) {
+            if (size == events.length) {
+                events = Arrays.copyOf(events, size << 1);
+                sequences = Arrays.copyOf(sequences, size << 1);
+            }
+            int i = size++;
+            while (i > 0) {
+                int parent = (i - 1) >>> 1;
+                if (!before(event, sequence, events[parent], sequences[parent])) {
+                    break;
+                }
+                events[i] = events[parent];
+                sequences[i] = sequences[parent];
+                i = parent;
+            }
+            events[i] = event;
+            sequences[i] = sequence;
+        }
+
+        @Override
+        public Event poll() {
+            if (size == 0) {
+                return null;
+            }
+            Event result = events[0];
+            size--;
+            Event event = events[size];
+            long sequence = sequences[size];
+            events[size] = null;
+            int i = 0;
+            int half = size >>> 1;
+            while (i < half) {
+                int child = 2 * i + 1;
+                if (child + 1 < size && before(events[child + 1], sequences[child + 1], events[child], sequences[child])) {
+                    child++;
+                }
+                if (!before(events[child], sequences[child], event, sequence)) {
+                    break;
+                }
+                events[i] = events[child];
+                sequences[i] = sequences[child];
+                i = child;
+            }
+            if (size > 0) {
+                events[i] = event;
+                sequences[i] = sequence;
+            }
+            return result;
+        }
+
+        @Override
+        public Event peek() {
+            return size == 0 ? null : events[0];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Event[] toArray() {
+            return Arrays.copyOf(events, size);
+        }
+
+        @Override
+        public void drainTo(Event[] target, long[] targetSequences) {
+            System.arraycopy(events, 0, target, 0, size);
+            System.arraycopy(sequences, 0, targetSequences, 0, size);
+            clear();
+        }
+
+        @Override
+        public void clear() {
+            Arrays.fill(events, 0, size, null);
+            size = 0;
+        }
+    }
+
+    /**
+     * Calendar queue (Brown, 1988). Time is divided into buckets of fixed width mapped cyclically to array of buckets.
+     * Every bucket is sorted from the latest event. Number of buckets follows the size and bucket width is estimated
+     * from the separation of planned events on every resize.
+     */
+    private static final class CalendarQueue implements Structure {
+
+        static final int MIN_BUCKETS = 16;
+        private static final int SAMPLE = 256;
+        private Event[][] events = new Event[0][];
+        private long[][] sequences = new long[0][];
+        private int[] sizes = new int[0];
+        private int mask;
+        private double width = 1.0;
+        private long current;
+        private int size;
+
+        void rebuild(int buckets, Event[] source, long[] sourceSequences, int count, double now) {
+            if (events.length != buckets) {
+                events = new Event[buckets][];
+                sequences = new long[buckets][];
+                sizes = new int[buckets];
+                mask = buckets - 1;
+            }
+            width = estimateWidth(source, count);
+            current = bucket(now);
+            size = 0;
+            for (int i = 0; i < count; i++) {
+                insert(source[i], sourceSequences[i]);
+            }
+        }
+
+        @Override
+        public void add(Event event, long sequence) {
+            insert(event, sequence);
+            if (size > 2 * events.length) {
+                resize(events.length << 1);
+            }
+        }
+
+        @Override
+        public Event poll() {
+            int index = locate();
+            if (index < 0) {
+                return null;
+            }
+            int last = --sizes[index];
+            Event event = events[index][last];
+            events[index][last] = null;
+            size--;
+            if (size < events.length / 2 && events.length > MIN_BUCKETS) {
+                resize(events.length >>> 1);
+            }
+            return event;
+        }
+
+        @Override
+        public Event peek() {
+            int index = locate();
+            return index < 0 ? null : events[index][sizes[index] - 1];
+        }
+
+        @Override
+        public int size() {
+            return size;
+        }
+
+        @Override
+        public Event[] toArray() {
+            Event[] result = new Event[size];
+            int position = 0;
+            for (int i = 0; i < events.length; i++) {
+                if (sizes[i] > 0) {
+                    System.arraycopy(events[i], 0, result, position, sizes[i]);
+                    position += sizes[i];
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public void drainTo(Event[] target, long[] targetSequences) {
+            int position = 0;
+            for (int i = 0; i < events.length; i++) {
+                if (sizes[i] > 0) {
+                    System.arraycopy(events[i], 0, target, position, sizes[i]);
+                    System.arraycopy(sequences[i], 0, targetSequences, position, sizes[i]);
+                    position += sizes[i];
+                }
+            }
+            clear();
+        }
+
+        @Override
+        public void clear() {
+            for (int i = 0; i < events.length; i++) {
+                if (sizes[i] > 0) {
+                    Arrays.fill(events[i], 0, sizes[i], null);
+                    sizes[i] = 0;
+                }
+            }
+            size = 0;
+            current = 0;
+        }
+
+        private void insert(Event event, long sequence) {
+            long virtual = bucket(event.getTime());
+            if (virtual < current) {
+                current = virtual;
+            }
+            int index = (int) (virtual & mask);
+            Event[] bucket = events[index];
+            long[] bucketSequences = sequences[index];
+            int count = sizes[index];
+            if (bucket == null) {
+                bucket = new Event[4];
+                bucketSequences = new long[4];
+            } else if (count == bucket.length) {
+                bucket = Arrays.copyOf(bucket, count << 1);
+                bucketSequences = Arrays.copyOf(bucketSequences, count << 1);
+            }
+            int position = count;
+            while (position > 0 && before(bucket[position - 1], bucketSequences[position - 1], event, sequence)) {
+                bucket[position] = bucket[position - 1];
+                bucketSequences[position] = bucketSequences[position - 1];
+                position--;
+            }
+            bucket[position] = event;
+            bucketSequences[position] = sequence;
+            events[index] = bucket;
+            sequences[index] = bucketSequences;
+            sizes[index] = count + 1;
+            size++;
+        }
+
+        private int locate() {
+            if (size == 0) {
+                return -1;
+            }
+            for (int i = 0; i <= mask; i++) {
+                int index = (int) (current & mask);
+                if (sizes[index] > 0 && bucket(events[index][sizes[index] - 1].getTime()) <= current) {
+                    return index;
+                }
+                current++;
+            }
+            int best = -1;
+            for (int i = 0; i <= mask; i++) {
+                if (sizes[i] > 0 && (best < 0 || before(events[i][sizes[i] - 1], sequences[i][sizes[i] - 1],
+                        events[best][sizes[best] - 1], sequences[best][sizes[best] - 1]))) {
+                    best = i;
+                }
+            }
+            current = bucket(events[best][sizes[best] - 1].getTime());
+            return best;
+        }
+
+        private void resize(int buckets) {
+            Event[] all = new Event[size];
+            long[] allSequences = new long[size];
+            double now = current * width;
+            drainTo(all, allSequences);
+            rebuild(buckets, all, allSequences, all.length, now);
+        }
+
+        private long bucket(double time) {
+            return (long) Math.floor(time / width);
+        }
+
+        private double estimateWidth(Event[] source, int count) {
+            if (count < 2) {
+                return width;
+            }
+            int samples = Math.min(count, SAMPLE);
+            int stride = count / samples;
+            double[] times = new double[samples];
+            for (int i = 0; i < samples; i++) {
+                times[i] = source[i * stride].getTime();
+            }
+            Arrays.sort(times);
+            double mean = (times[samples - 1] - times[0]) / (samples - 1);
+            if (!(mean > 0) || Double.isInfinite(mean)) {
+                return width;
+            }
+            double sum = 0.0;
+            int gaps = 0;
+            for (int i = 1; i < samples; i++) {
+                double gap = times[i] - times[i - 1];
+                if (gap <= 2 * mean) {
+                    sum += gap;
+                    gaps++;
+                }
+            }
+            double separation = sum / gaps * samples / count;
+            return separation > 0 ? 3 * separation : width;
+        }
+    }
+}
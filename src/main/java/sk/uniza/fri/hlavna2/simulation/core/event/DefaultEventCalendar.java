@@ -43,9 +43,24 @@ public class DefaultEventCalendar implements EventCalendar {
         return quee.poll();
     }
 
+    @Override
+    public Event peekEvent() {
+        return quee.peek();
+    }
+
     @Override
     public boolean isEmpty() {
         return quee.isEmpty();
     }
 
+    @Override
+    public Event[] toArray() {
+        return quee.toArray(new Event[quee.size()]);
+    }
+
+    @Override
+    public void clear() {
+        quee.clear();
+    }
+
 }
@@ -0,0 +1,143 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+
+/**
+ * Read only view of the engine captured between two events. Simulation thread only copies planned events, their
+ * times, times of primitive events and statistics, ordering of the calendar is done lazily by the thread inspecting
+ * the snapshot.
+ *
+ * Events themselves are live model objects and should be only read by the observer.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class EngineSnapshot {
+
+    private final long epoch;
+    private final double currentTime;
+    private final Statistics statistics;
+    private final Event[] events;
+    private final double[] times;
+    private final double[] primitiveTimes;
+    private List<Event> ordered;
+    private double[] orderedTimes;
+
+    EngineSnapshot(long epoch, double currentTime, Statistics statistics, Event[] events, double[] primitiveTimes) {
+        this.epoch = epoch;
+        this.currentTime = currentTime;
+        this.statistics = statistics;
+        this.events = events;
+        this.primitiveTimes = primitiveTimes;
+        this.times = new double[events.length];
+        for (int i = 0; i < events.length; i++) {
+            times[i] = events[i].getTime();
+        }
+    }
+
+    /**
+     * Get epoch of the engine when snapshot was taken. Snapshots with the same epoch hold the same state
+     *
+     * @return Epoch of the engine
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    public double getCurrentTime() {
+        return currentTime;
+    }
+
+    /**
+     * Get copy of statistics
+     *
+     * @return Copy of statistics or null if engine has not simulated yet
+     */
+    public Statistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * Get planned events ordered by their time. Calendar is sorted on the first call
+     *
+     * @return Planned events in order of execution
+     */
+    public List<Event> getEvents() {
+        sort();
+        return ordered;
+    }
+
+    /**
+     * Get time of the event at the time of the snapshot. Event may be planned again since then
+     *
+     * @param index Index of the event in {@link #getEvents()}
+     * @return Time of the event
+     */
+    public double getEventTime(int index) {
+        sort();
+        return orderedTimes[index];
+    }
+
+    public int getPlannedEvents() {
+        return events.length;
+    }
+
+    /**
+     * Get time of primitive event planned by {@link EventSimulationEngine#plan(int, long, double)}
+     *
+     * @param index Index of the primitive event in order of execution
+     * @return Time of the event
+     */
+    public double getPrimitiveEventTime(int index) {
+        sort();
+        return primitiveTimes[index];
+    }
+
+    public int getPlannedPrimitiveEvents() {
+        return primitiveTimes.length;
+    }
+
+    private synchronized void sort() {
+        if (ordered != null) {
+            return;
+        }
+        Integer[] order = new Integer[events.length];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> Double.compare(times[a], times[b]));
+        Event[] sorted = new Event[events.length];
+        orderedTimes = new double[events.length];
+        for (int i = 0; i < order.length; i++) {
+            sorted[i] = events[order[i]];
+            orderedTimes[i] = times[order[i]];
+        }
+        Arrays.sort(primitiveTimes);
+        ordered = Collections.unmodifiableList(Arrays.asList(sorted));
+    }
+}
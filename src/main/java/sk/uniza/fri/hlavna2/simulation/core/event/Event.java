@@ -35,6 +35,7 @@ public abstract class Event implements Comparable<Event> {
 
     protected double time;
     protected EventSimulationEngine engine;
+    long sequence;
 
     public double getTime() {
         return time;
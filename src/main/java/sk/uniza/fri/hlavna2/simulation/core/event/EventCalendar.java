@@ -23,6 +23,9 @@
  */
 package sk.uniza.fri.hlavna2.simulation.core.event;
 
+import java.util.ArrayList;
+import java.util.List;
+
 /**
  *
  * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
@@ -33,5 +36,42 @@ public interface EventCalendar {
 
     Event nextEvent();
 
+    /**
+     * Get next event without removing it from the calendar. Required by batch execution, primitive events and
+     * parallel engines
+     *
+     * @return Next event or null if calendar is empty
+     * @throws UnsupportedOperationException If calendar does not support peeking
+     */
+    default Event peekEvent() {
+        throw new UnsupportedOperationException("Calendar does not support peeking");
+    }
+
     boolean isEmpty();
+
+    /**
+     * Copy planned events without removing them from the calendar. Default implementation removes all events and
+     * plans them again in the order of removal
+     *
+     * @return Planned events in unspecified order
+     */
+    default Event[] toArray() {
+        List<Event> events = new ArrayList<>();
+        while (!isEmpty()) {
+            events.add(nextEvent());
+        }
+        for (Event event : events) {
+            planEvent(event);
+        }
+        return events.toArray(new Event[events.size()]);
+    }
+
+    /**
+     * Remove all events. Allocated capacity should be kept for the next replication
+     */
+    default void clear() {
+        while (!isEmpty()) {
+            nextEvent();
+        }
+    }
 }
@@ -0,0 +1,58 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Binary form of the model events stored on disk by {@link SpillingEventCalendar}. Time of the event is stored by the
+ * calendar, codec stores only the type and the state of the event
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public interface EventCodec {
+
+    /**
+     * Get maximal number of bytes written by {@link #encode(Event, ByteBuffer)}
+     *
+     * @return Maximal size of the encoded event
+     */
+    int getMaxSize();
+
+    /**
+     * Write event to the buffer
+     *
+     * @param event Event to encode
+     * @param buffer Target buffer with at least {@link #getMaxSize()} bytes remaining
+     */
+    void encode(Event event, ByteBuffer buffer);
+
+    /**
+     * Read event from the buffer. Time of the event is set by the calendar
+     *
+     * @param buffer Buffer positioned at the encoded event
+     * @return Decoded event bound to its engine
+     */
+    Event decode(ByteBuffer buffer);
+}
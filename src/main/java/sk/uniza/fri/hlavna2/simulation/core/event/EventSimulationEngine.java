@@ -23,15 +23,27 @@
  */
 package sk.uniza.fri.hlavna2.simulation.core.event;
 
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
 import java.util.LinkedList;
 import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.UnaryOperator;
 import java.util.logging.Level;
 import java.util.logging.Logger;
+import sk.uniza.fri.hlavna2.simulation.core.utils.EntityStore;
+import sk.uniza.fri.hlavna2.simulation.core.utils.ObjectPool;
 import sk.uniza.fri.hlavna2.simulation.core.SimulationEngine;
 import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
 import sk.uniza.fri.hlavna2.simulation.core.Statistics;
 import sk.uniza.fri.hlavna2.simulation.core.exception.PastTimeException;
 import sk.uniza.fri.hlavna2.simulation.core.listeners.EventListener;
+import sk.uniza.fri.hlavna2.simulation.core.profiling.CalendarOperationRecord;
+import sk.uniza.fri.hlavna2.simulation.core.profiling.EventExecutionRecord;
+import sk.uniza.fri.hlavna2.simulation.core.profiling.ListenerDispatchRecord;
+import sk.uniza.fri.hlavna2.simulation.core.queue.Facility;
 import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
 
 /**
@@ -43,64 +55,579 @@ public abstract class EventSimulationEngine implements SimulationEngine {
     private double currentTime;
     private final double maxTime;
     private final EventCalendar timeline;
-    private boolean running;
+    private volatile boolean running;
+    private volatile boolean interrupted;
     private boolean paused;
     private final List<EventListener> listeners;
+    private final List<ObjectPool<?>> pools;
+    private final List<EntityStore> stores;
+    private final List<Facility<?>> facilities;
     private SynchronizationEvent syncroEvent;
+    private final RealTimePacer pacer;
+    private RealTimePacer pendingPacer;
+    private double pendingPaceTime;
+    private boolean batchExecution;
+    private double batchWindow;
+    private ForkJoinPool batchPool;
+    private final List<Event> batch;
+    private boolean parallelPhase;
+    private boolean discardingPlans;
+    private final ThreadLocal<List<Event>> deferredEvents;
+    private long epoch;
+    private long sequence;
+    private Statistics statistics;
+    private EngineSnapshot snapshot;
+    private final List<EventHandler> handlers;
+    private final PrimitiveEventQueue primitives;
+    private volatile boolean profiling;
 
     public EventSimulationEngine(double maxTime) {
+        this(maxTime, new DefaultEventCalendar());
+    }
+
+    /**
+     * Create engine with custom calendar
+     *
+     * @param maxTime Simulation stops after this time
+     * @param timeline Calendar holding planned events
+     */
+    public EventSimulationEngine(double maxTime, EventCalendar timeline) {
         currentTime = 0.0;
-        timeline = new DefaultEventCalendar();
+        this.timeline = timeline;
         this.maxTime = maxTime;
         listeners = new LinkedList<>();
+        pools = new ArrayList<>();
+        stores = new ArrayList<>();
+        facilities = new ArrayList<>();
+        batch = new ArrayList<>();
+        deferredEvents = new ThreadLocal<>();
+        pacer = new RealTimePacer(Double.POSITIVE_INFINITY);
+        handlers = new ArrayList<>();
+        primitives = new PrimitiveEventQueue();
     }
 
     @Override
     public void simulate(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
         this.running = true;
-        while (!timeline.isEmpty() && currentTime < maxTime && running) {
+        this.statistics = statistics;
+        if (batchExecution) {
+            simulateBatches(parameters, statistics, randoms);
+            return;
+        }
+        while ((!timeline.isEmpty() || !primitives.isEmpty()) && currentTime < maxTime && running && !interrupted) {
+            synchronized (this) {
+                waitWhilePaused();
+                if (nextIsPrimitive()) {
+                    executePrimitive(parameters, statistics, randoms);
+                } else {
+                    executeEvent(pollEvent(), parameters, statistics, randoms);
+                }
+            }
+            pace();
+        }
+    }
+
+    private void simulateBatches(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        while ((!timeline.isEmpty() || !primitives.isEmpty()) && currentTime < maxTime && running && !interrupted) {
             synchronized (this) {
-                while (paused) {
+                waitWhilePaused();
+                if (nextIsPrimitive()) {
+                    executePrimitive(parameters, statistics, randoms);
+                    continue;
+                }
+                Event first = pollEvent();
+                batch.add(first);
+                double limit = first.getTime() + batchWindow;
+                if (!primitives.isEmpty()) {
+                    limit = Math.min(limit, primitives.peekTime());
+                }
+                Event next = timeline.peekEvent();
+                while (next != null && next.getTime() <= limit) {
+                    batch.add(pollEvent());
+                    next = timeline.peekEvent();
+                }
+                executeBatch(parameters, statistics, randoms);
+                batch.clear();
+            }
+            pace();
+        }
+    }
+
+    private void executeBatch(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        int i = 0;
+        while (i < batch.size()) {
+            if (!running || interrupted || currentTime >= maxTime) {
+                returnBatch(i);
+                return;
+            }
+            Event event = batch.get(i);
+            if (!primitives.isEmpty() && primitives.peekTime() < event.getTime()) {
+                executePrimitive(parameters, statistics, randoms);
+                continue;
+            }
+            Event planned = timeline.peekEvent();
+            if (planned != null && planned.getTime() < event.getTime()) {
+                batch.add(i, pollEvent());
+                continue;
+            }
+            int end = i + 1;
+            if (batchPool != null && event instanceof IndependentEvent) {
+                while (end < batch.size() && batch.get(end) instanceof IndependentEvent
+                        && batch.get(end).getTime() == event.getTime()) {
+                    end++;
+                }
+            }
+            if (end - i > 1) {
+                executeParallel(i, end, parameters, statistics, randoms);
+            } else {
+                executeEvent(event, parameters, statistics, randoms);
+            }
+            i = end;
+        }
+    }
+
+    private void returnBatch(int from) {
+        double last = batch.get(batch.size() - 1).getTime();
+        List<Event> planned = new ArrayList<>();
+        while (!timeline.isEmpty() && timeline.peekEvent().getTime() <= last) {
+            planned.add(timeline.nextEvent());
+        }
+        int j = 0;
+        for (int i = from; i < batch.size(); i++) {
+            Event event = batch.get(i);
+            while (j < planned.size() && planned.get(j).getTime() < event.getTime()) {
+                timeline.planEvent(planned.get(j++));
+            }
+            timeline.planEvent(event);
+        }
+        while (j < planned.size()) {
+            timeline.planEvent(planned.get(j++));
+        }
+    }
+
+    private void executeParallel(int from, int to, SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        currentTime = batch.get(from).getTime();
+        epoch++;
+        List<List<Event>> planned = new ArrayList<>(to - from);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(to - from);
+        parallelPhase = true;
+        try {
+            for (int i = from; i < to; i++) {
+                Event event = batch.get(i);
+                List<Event> deferred = new ArrayList<>();
+                planned.add(deferred);
+                tasks.add(batchPool.submit(() -> {
+                    deferredEvents.set(deferred);
                     try {
-                        wait();
-                    } catch (InterruptedException ex) {
-                        Logger.getLogger(EventSimulationEngine.class.getName()).log(Level.SEVERE, null, ex);
+                        execute(event, parameters, statistics, randoms);
+                    } finally {
+                        deferredEvents.remove();
                     }
-                }
-                Event currentEvent = timeline.nextEvent();
-                currentTime = currentEvent.getTime();
-                currentEvent.execute(parameters, statistics, randoms);
-                notifyListeners(currentEvent);
+                }));
+            }
+            for (ForkJoinTask<?> task : tasks) {
+                task.join();
+            }
+        } finally {
+            parallelPhase = false;
+        }
+        for (int i = from; i < to; i++) {
+            for (Event event : planned.get(i - from)) {
+                offerEvent(event);
+            }
+            notifyListeners(batch.get(i));
+        }
+    }
+
+    /**
+     * Wait for the wall clock after the current event, when engine does not hold its monitor any more
+     *
+     * @param pacer Pacer to wait on
+     * @param time Simulation time to wait for
+     */
+    void paceAfterEvent(RealTimePacer pacer, double time) {
+        pendingPacer = pacer;
+        pendingPaceTime = time;
+    }
+
+    private void pace() {
+        RealTimePacer waitOn = pendingPacer;
+        if (waitOn != null) {
+            pendingPacer = null;
+            waitOn.pace(pendingPaceTime);
+        }
+    }
+
+    private void waitWhilePaused() {
+        while (paused) {
+            try {
+                wait();
+            } catch (InterruptedException ex) {
+                Logger.getLogger(EventSimulationEngine.class.getName()).log(Level.SEVERE, null, ex);
+            }
+        }
+    }
+
+    /**
+     * Move simulation time to the time of the event, execute it and notify listeners
+     *
+     * @param event Event removed from the calendar
+     * @param parameters Parameters of the simulation
+     * @param statistics Statistics for the simulation
+     * @param randoms Randoms used in this simulation
+     */
+    protected void executeEvent(Event event, SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        currentTime = event.getTime();
+        epoch++;
+        execute(event, parameters, statistics, randoms);
+        notifyListeners(event);
+    }
+
+    private void execute(Event event, SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        if (profiling) {
+            double time = event.getTime();
+            EventExecutionRecord record = new EventExecutionRecord();
+            record.begin();
+            event.execute(parameters, statistics, randoms);
+            record.complete(event.getClass(), time);
+        } else {
+            event.execute(parameters, statistics, randoms);
+        }
+    }
+
+    private Event pollEvent() {
+        if (!profiling) {
+            return timeline.nextEvent();
+        }
+        CalendarOperationRecord record = new CalendarOperationRecord();
+        record.begin();
+        Event event = timeline.nextEvent();
+        record.complete(CalendarOperationRecord.NEXT, timeline.getClass());
+        return event;
+    }
+
+    private void offerEvent(Event event) {
+        event.sequence = sequence++;
+        if (!profiling) {
+            timeline.planEvent(event);
+            return;
+        }
+        CalendarOperationRecord record = new CalendarOperationRecord();
+        record.begin();
+        timeline.planEvent(event);
+        record.complete(CalendarOperationRecord.PLAN, timeline.getClass());
+    }
+
+    private boolean nextIsPrimitive() {
+        if (primitives.isEmpty()) {
+            return false;
+        }
+        Event next = timeline.peekEvent();
+        return next == null || primitives.peekTime() < next.getTime();
+    }
+
+    private void executePrimitive(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        currentTime = primitives.peekTime();
+        int handlerId = primitives.peekHandler();
+        EventHandler handler = handlers.get(handlerId);
+        long payload = primitives.peekPayload();
+        primitives.removeFirst();
+        epoch++;
+        if (profiling) {
+            EventExecutionRecord record = new EventExecutionRecord();
+            record.begin();
+            handler.handle(payload, parameters, statistics, randoms);
+            record.complete(handler.getClass(), currentTime);
+        } else {
+            handler.handle(payload, parameters, statistics, randoms);
+        }
+        for (EventListener listener : listeners) {
+            if (profiling) {
+                ListenerDispatchRecord record = new ListenerDispatchRecord();
+                record.begin();
+                listener.onPrimitiveEvent(handlerId, payload, this);
+                record.complete(listener.getClass(), handler.getClass());
+            } else {
+                listener.onPrimitiveEvent(handlerId, payload, this);
             }
         }
     }
 
+    /**
+     * Get calendar of this engine
+     *
+     * @return Event calendar
+     */
+    protected EventCalendar getTimeline() {
+        return timeline;
+    }
+
+    /**
+     * Return engine to the initial state. Calendar is cleared in place, time is set to zero, all registered pools
+     * are released, entity stores cleared and facilities reset. Running speed synchronization is planned again.
+     * Subclasses resetting own state should call this method.
+     */
+    @Override
+    public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        synchronized (this) {
+            timeline.clear();
+            primitives.clear();
+            batch.clear();
+            pendingPacer = null;
+            currentTime = 0.0;
+            running = false;
+            epoch++;
+            for (ObjectPool<?> pool : pools) {
+                pool.releaseAll();
+            }
+            for (EntityStore store : stores) {
+                store.clear();
+            }
+            for (Facility<?> facility : facilities) {
+                facility.reset();
+            }
+            pacer.resynchronize();
+            if (syncroEvent != null) {
+                plan(syncroEvent, syncroEvent.getPlanningInterval());
+            }
+        }
+    }
+
+    /**
+     * Register pool of model entities. Pool is released on every reset, so entities are reused by next replication
+     *
+     * @param pool Pool to register
+     */
+    public void registerPool(ObjectPool<?> pool) {
+        pools.add(pool);
+    }
+
+    /**
+     * Register store of model entities. Store is cleared on every reset, its memory is reused by next replication
+     *
+     * @param store Store to register
+     */
+    public void registerEntityStore(EntityStore store) {
+        stores.add(store);
+    }
+
+    /**
+     * Register facility. Facility is reset on every reset, so its queue and statistics do not carry over to the next
+     * replication
+     *
+     * @param facility Facility to register
+     */
+    public void registerFacility(Facility<?> facility) {
+        facilities.add(facility);
+    }
+
+    /**
+     * Stops simulation after the currently executed event. Engine does not simulate until interrupt is cleared
+     */
+    @Override
+    public void interrupt() {
+        interrupted = true;
+        stop();
+    }
+
+    @Override
+    public void clearInterrupt() {
+        interrupted = false;
+    }
+
     public void stop() {
         running = false;
+        pacer.resynchronize();
     }
 
     public final void plan(Event e, double time) {
+        if (discardingPlans) {
+            return;
+        }
         if (Double.compare(time, currentTime) >= 0) {
             e.setTime(time);
-            timeline.planEvent(e);
+            if (parallelPhase && deferredEvents.get() != null) {
+                deferredEvents.get().add(e);
+                return;
+            }
+            epoch++;
+            offerEvent(e);
         } else {
             throw new PastTimeException();
         }
     }
 
+    /**
+     * Register handler of primitive events
+     *
+     * @param handler Handler to register
+     * @return Id of the handler used by {@link #plan(int, long, double)}
+     */
+    public int registerHandler(EventHandler handler) {
+        handlers.add(handler);
+        return handlers.size() - 1;
+    }
+
+    /**
+     * Plan primitive event. Calendar holds only the handler id, payload and time, so no object is created. Primitive
+     * events share timeline with {@link Event} objects, on equal time objects are executed first. Listeners are
+     * notified by {@link EventListener#onPrimitiveEvent(int, long, EventSimulationEngine)}. Primitive events cannot be
+     * planned by events executed in parallel batch.
+     *
+     * @param handlerId Id returned by {@link #registerHandler(EventHandler)}
+     * @param payload Value passed to the handler
+     * @param time Time of the event
+     */
+    public final void plan(int handlerId, long payload, double time) {
+        if (discardingPlans) {
+            return;
+        }
+        if (Double.compare(time, currentTime) < 0) {
+            throw new PastTimeException();
+        }
+        if (handlerId < 0 || handlerId >= handlers.size()) {
+            throw new IllegalArgumentException("Unknown handler " + handlerId);
+        }
+        if (parallelPhase) {
+            throw new IllegalStateException("Primitive events cannot be planned in parallel phase");
+        }
+        planPrimitive(handlerId, payload, time);
+    }
+
+    /**
+     * Store checked primitive event in the primitive calendar. Engines which have to keep every event in their own
+     * calendar override this method and plan the event as an object
+     *
+     * @param handlerId Id of registered handler
+     * @param payload Value passed to the handler
+     * @param time Time of the event
+     */
+    protected void planPrimitive(int handlerId, long payload, double time) {
+        epoch++;
+        primitives.add(time, handlerId, payload);
+    }
+
+    /**
+     * Get registered handler of primitive events
+     *
+     * @param handlerId Id returned by {@link #registerHandler(EventHandler)}
+     * @return Handler
+     */
+    protected EventHandler getHandler(int handlerId) {
+        return handlers.get(handlerId);
+    }
+
+    /**
+     * Get number of planned primitive events
+     *
+     * @return Number of primitive events
+     */
+    public int getPlannedPrimitiveEvents() {
+        return primitives.size();
+    }
+
+    /**
+     * Make planning of events a no-op. Used while code which must not affect the calendar any more is still running
+     *
+     * @param discardingPlans True to ignore planned events
+     */
+    protected void setDiscardingPlans(boolean discardingPlans) {
+        this.discardingPlans = discardingPlans;
+    }
+
     public double getCurrentTime() {
         return currentTime;
     }
 
+    /**
+     * Capture read only view of the engine. Engine is held only while planned events and statistics are copied,
+     * between two events or while paused. If engine has not changed since the last snapshot, the same snapshot is
+     * returned.
+     *
+     * @return Snapshot of the engine
+     */
+    public EngineSnapshot snapshot() {
+        synchronized (this) {
+            if (snapshot == null || snapshot.getEpoch() != epoch) {
+                snapshot = new EngineSnapshot(epoch, currentTime, statistics == null ? null : statistics.copy(), timeline.toArray(),
+                        primitives.copyTimes());
+            }
+            return snapshot;
+        }
+    }
+
+    public void addEventListener(EventListener listener) {
+        listeners.add(listener);
+    }
+
+    public void removeEventListener(EventListener listener) {
+        listeners.remove(listener);
+    }
+
+    /**
+     * Copy current time and planned events of other engine, e.g. when splitting trajectory. Every planned event is
+     * copied by the copier and bound to this engine in order of time and planning, so calendars returning equal-time
+     * events in FIFO order keep it in the copy. Primitive events are copied as they are and run by handlers of this
+     * engine with the same ids. Model has to copy its own state and events referencing model entities have to
+     * reference copies of those entities.
+     *
+     * @param source Engine to copy
+     * @param copier Creates copy of the event
+     * @throws IllegalStateException When source has primitive events planned and this engine has not registered the
+     * same number of handlers
+     */
+    protected void copyStateFrom(EventSimulationEngine source, UnaryOperator<Event> copier) {
+        if (!source.primitives.isEmpty() && source.handlers.size() != handlers.size()) {
+            throw new IllegalStateException("Handlers of primitive events are not registered in the copy");
+        }
+        synchronized (this) {
+            timeline.clear();
+            Event[] events = source.timeline.toArray();
+            Arrays.sort(events, Comparator.comparingDouble(Event::getTime).thenComparingLong(event -> event.sequence));
+            for (Event event : events) {
+                Event copy = copier.apply(event);
+                copy.engine = this;
+                copy.time = event.time;
+                copy.sequence = sequence++;
+                timeline.planEvent(copy);
+            }
+            primitives.copyFrom(source.primitives);
+            currentTime = source.currentTime;
+            epoch++;
+        }
+    }
+
     public void notifyListeners(Event event) {
         for (EventListener listener : listeners) {
-            listener.onEvent(event, this);
+            if (profiling) {
+                ListenerDispatchRecord record = new ListenerDispatchRecord();
+                record.begin();
+                listener.onEvent(event, this);
+                record.complete(listener.getClass(), event.getClass());
+            } else {
+                listener.onEvent(event, this);
+            }
         }
     }
 
+    /**
+     * Emit flight recorder events for event execution, calendar operations and listener dispatch. Events are recorded
+     * only if a flight recording with them enabled is running. When profiling is off, engine only checks this flag
+     *
+     * @param profiling True to emit events
+     */
+    public void setProfiling(boolean profiling) {
+        this.profiling = profiling;
+    }
+
+    public boolean isProfiling() {
+        return profiling;
+    }
+
     public void setPaused(boolean paused) {
         boolean wasPaused = this.paused;
         this.paused = paused;
+        pacer.resynchronize();
         if (!paused && wasPaused) {
             synchronized (this) {
                 notify(); //NOTE: wake up main loop
@@ -109,11 +636,59 @@ public abstract class EventSimulationEngine implements SimulationEngine {
 
     }
 
+    /**
+     * Execute events in batches. All events not later than the window after the first event of the batch are removed
+     * from the calendar and executed together. Events planned by the batch sooner than its remaining events are merged
+     * into the batch, so the order of execution is not changed and time never moves back. Stop and maximal time are
+     * checked before every event, events left in the batch are returned to the calendar.
+     *
+     * @param window Width of the batch window
+     */
+    public void enableBatchExecution(double window) {
+        enableBatchExecution(window, null);
+    }
+
+    /**
+     * Execute events in batches. Consecutive {@link IndependentEvent}s of the batch with the same time are executed
+     * in parallel on the pool. Events planned by them are added to the calendar and listeners are notified in the
+     * order of the batch, so the result does not depend on the scheduling of the pool.
+     *
+     * @param window Width of the batch window
+     * @param pool Pool for independent events, null to execute all events on the simulation thread
+     */
+    public void enableBatchExecution(double window, ForkJoinPool pool) {
+        this.batchExecution = true;
+        this.batchWindow = window;
+        this.batchPool = pool;
+    }
+
+    public void disableBatchExecution() {
+        this.batchExecution = false;
+        this.batchPool = null;
+    }
+
+    /**
+     * Synchronize simulation with the wall clock
+     *
+     * @param timeInterval Simulation time between two synchronizations
+     * @param delayInterval Wall clock milliseconds per time interval
+     */
     public void synchronizeSpeed(double timeInterval, long delayInterval) {
+        synchronizeSpeed(timeInterval, delayInterval > 0 ? timeInterval * 1000 / delayInterval : Double.POSITIVE_INFINITY);
+    }
+
+    /**
+     * Synchronize simulation with the wall clock. May be called again while simulation runs to change the speed
+     *
+     * @param timeInterval Simulation time between two synchronizations
+     * @param speed Simulation time units per one second of wall clock
+     */
+    public void synchronizeSpeed(double timeInterval, double speed) {
+        pacer.setSpeed(speed);
         if (syncroEvent == null) {
-            this.plan(new SynchronizationEvent(currentTime + timeInterval, this, timeInterval, delayInterval), currentTime + timeInterval);
+            syncroEvent = new SynchronizationEvent(currentTime + timeInterval, this, timeInterval, pacer);
+            this.plan(syncroEvent, currentTime + timeInterval);
         } else {
-            syncroEvent.setDelayInterval(delayInterval);
             syncroEvent.setPlanningInterval(timeInterval);
         }
     }
@@ -122,7 +697,17 @@ public abstract class EventSimulationEngine implements SimulationEngine {
         if (syncroEvent != null) {
             syncroEvent.setPlan(false);
             syncroEvent = null;
+            pacer.resynchronize();
         }
     }
 
+    /**
+     * Get pacer used for synchronization with the wall clock. Can be used to change pacing policy
+     *
+     * @return Pacer of this engine
+     */
+    public RealTimePacer getPacer() {
+        return pacer;
+    }
+
 }
@@ -0,0 +1,205 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.exception.PastTimeException;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+import sk.uniza.fri.hlavna2.simulation.core.utils.UniformStream;
+
+/**
+ * Engine running several independent replications (lanes) interleaved in one simulate call. Every lane has its own
+ * clock, calendar of primitive events and random stream using substream of its replication. Lanes execute one event
+ * each in turns until all of them are finished, so model state should be kept in arrays indexed by lane.
+ *
+ * Initial events of every lane are planned in init and again in reset, after streams of the lanes are switched to
+ * their substreams.
+ * When all lanes are finished, results of every lane are added to the statistics by {@link #collect(int, Statistics)}.
+ * {@link sk.uniza.fri.hlavna2.simulation.core.ReplicationEngine} advances by the number of lanes, so number of solved
+ * replications is rounded up to its multiple.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public abstract class LockstepSimulationEngine implements SimulationEngine {
+
+    private final int lanes;
+    private final double maxTime;
+    private final double[] clocks;
+    private final PrimitiveEventQueue[] calendars;
+    private final UniformStream[] streams;
+    private final List<LaneEventHandler> handlers;
+    private volatile boolean running;
+    private volatile boolean interrupted;
+
+    /**
+     * Create engine
+     *
+     * @param lanes Number of replications run together
+     * @param maxTime Every lane stops after this time
+     * @param seed Seed of the random streams of lanes
+     */
+    public LockstepSimulationEngine(int lanes, double maxTime, long seed) {
+        this.lanes = lanes;
+        this.maxTime = maxTime;
+        this.clocks = new double[lanes];
+        this.calendars = new PrimitiveEventQueue[lanes];
+        this.streams = new UniformStream[lanes];
+        for (int lane = 0; lane < lanes; lane++) {
+            calendars[lane] = new PrimitiveEventQueue();
+            streams[lane] = new UniformStream(seed);
+            streams[lane].selectSubstream(lane);
+        }
+        this.handlers = new ArrayList<>();
+    }
+
+    /**
+     * Add results of one lane to the statistics. Called for every lane in order when all lanes are finished
+     *
+     * @param lane Finished lane
+     * @param statistics Statistics of the simulation
+     */
+    protected abstract void collect(int lane, Statistics statistics);
+
+    @Override
+    public int replicationsPerRun() {
+        return lanes;
+    }
+
+    @Override
+    public void simulate(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        running = true;
+        boolean active = true;
+        while (active && running && !interrupted) {
+            active = false;
+            for (int lane = 0; lane < lanes; lane++) {
+                PrimitiveEventQueue calendar = calendars[lane];
+                if (calendar.isEmpty() || clocks[lane] >= maxTime) {
+                    continue;
+                }
+                active = true;
+                clocks[lane] = calendar.peekTime();
+                LaneEventHandler handler = handlers.get(calendar.peekHandler());
+                long payload = calendar.peekPayload();
+                calendar.removeFirst();
+                handler.handle(lane, payload, parameters, streams[lane]);
+            }
+        }
+        for (int lane = 0; lane < lanes; lane++) {
+            collect(lane, statistics);
+        }
+    }
+
+    /**
+     * Clear calendars and clocks of all lanes and select random substreams of the next replications. Subclasses should
+     * call this method and plan initial events again.
+     */
+    @Override
+    public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        for (int lane = 0; lane < lanes; lane++) {
+            calendars[lane].clear();
+            clocks[lane] = 0.0;
+        }
+        selectStreams(randoms);
+    }
+
+    /**
+     * Register handler of lane events
+     *
+     * @param handler Handler to register
+     * @return Id of the handler used by {@link #plan(int, int, long, double)}
+     */
+    public int registerHandler(LaneEventHandler handler) {
+        handlers.add(handler);
+        return handlers.size() - 1;
+    }
+
+    /**
+     * Plan event of one lane
+     *
+     * @param lane Lane of the event
+     * @param handlerId Id returned by {@link #registerHandler(LaneEventHandler)}
+     * @param payload Value passed to the handler
+     * @param time Time of the event
+     */
+    public final void plan(int lane, int handlerId, long payload, double time) {
+        if (Double.compare(time, clocks[lane]) < 0) {
+            throw new PastTimeException();
+        }
+        if (handlerId < 0 || handlerId >= handlers.size()) {
+            throw new IllegalArgumentException("Unknown handler " + handlerId);
+        }
+        calendars[lane].add(time, handlerId, payload);
+    }
+
+    public double getCurrentTime(int lane) {
+        return clocks[lane];
+    }
+
+    public int getLanes() {
+        return lanes;
+    }
+
+    /**
+     * Get random stream of the lane, e.g. for planning initial events
+     *
+     * @param lane Lane of the stream
+     * @return Random stream
+     */
+    public UniformStream getStream(int lane) {
+        return streams[lane];
+    }
+
+    /**
+     * Stops simulation after the current round of lane events. Engine does not simulate until interrupt is cleared
+     */
+    @Override
+    public void interrupt() {
+        interrupted = true;
+        stop();
+    }
+
+    @Override
+    public void clearInterrupt() {
+        interrupted = false;
+    }
+
+    public void stop() {
+        running = false;
+    }
+
+    private void selectStreams(RandomStorage randoms) {
+        if (randoms == null) {
+            return;
+        }
+        long substream = randoms.getSubstream();
+        for (int lane = 0; lane < lanes; lane++) {
+            streams[lane].selectSubstream(substream + lane);
+            streams[lane].setAntithetic(randoms.isAntithetic());
+        }
+    }
+}
@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.Arrays;
+
+/**
+ * Binary heap of primitive events kept in parallel arrays of times, sequence numbers, handlers and payloads. Events
+ * with equal time are returned in order of planning.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+final class PrimitiveEventQueue {
+
+    private double[] times;
+    private long[] sequences;
+    private int[] handlers;
+    private long[] payloads;
+    private int size;
+    private long sequence;
+
+    PrimitiveEventQueue() {
+        times = new double[64];
+        sequences = new long[64];
+        handlers = new int[64];
+        payloads = new long[64];
+    }
+
+    void add(double time, int handler, long payload) {
+        if (size == times.length) {
+            times = Arrays.copyOf(times, size << 1);
+            sequences = Arrays.copyOf(sequences, size << 1);
+            handlers = Arrays.copyOf(handlers, size << 1);
+            payloads = Arrays.copyOf(payloads, size << 1);
+        }
+        long number = sequence++;
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(time, number, parent)) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        set(i, time, number, handler, payload);
+    }
+
+    boolean isEmpty() {
+        return size == 0;
+    }
+
+    int size() {
+        return size;
+    }
+
+    double peekTime() {
+        return times[0];
+    }
+
+    int peekHandler() {
+        return handlers[0];
+    }
+
+    long peekPayload() {
+        return payloads[0];
+    }
+
+    void removeFirst() {
+        size--;
+        double time = times[size];
+        long number = sequences[size];
+        int handler = handlers[size];
+        long payload = payloads[size];
+        int i = 0;
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && before(times[child + 1], sequences[child + 1], child)) {
+                child++;
+            }
+            if (!before(times[child], sequences[child], time, number)) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        if (size > 0) {
+            set(i, time, number, handler, payload);
+        }
+    }
+
+    /**
+     * Copy times of planned events in heap order
+     *
+     * @return Times of planned events
+     */
+    double[] copyTimes() {
+        return Arrays.copyOf(times, size);
+    }
+
+    void clear() {
+        size = 0;
+        sequence = 0;
+    }
+
+    void copyFrom(PrimitiveEventQueue other) {
+        times = Arrays.copyOf(other.times, other.times.length);
+        sequences = Arrays.copyOf(other.sequences, other.sequences.length);
+        handlers = Arrays.copyOf(other.handlers, other.handlers.length);
+        payloads = Arrays.copyOf(other.payloads, other.payloads.length);
+        size = other.size;
+        sequence = other.sequence;
+    }
+
+    private boolean before(double time, long number, int index) {
+        return before(time, number, times[index], sequences[index]);
+    }
+
+    private static boolean before(double time, long number, double otherTime, long otherNumber) {
+        int compare = Double.compare(time, otherTime);
+        return compare < 0 || (compare == 0 && number < otherNumber);
+    }
+
+    private void move(int from, int to) {
+        times[to] = times[from];
+        sequences[to] = sequences[from];
+        handlers[to] = handlers[from];
+        payloads[to] = payloads[from];
+    }
+
+    private void set(int index, double time, long number, int handler, long payload) {
+        times[index] = time;
+        sequences[index] = number;
+        handlers[index] = handler;
+        payloads[index] = payload;
+    }
+}
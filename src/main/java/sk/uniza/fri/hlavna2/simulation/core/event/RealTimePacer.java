@@ -0,0 +1,146 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Ties simulation time to the wall clock. Simulation time is mapped to {@link System#nanoTime()} through an anchor
+ * (wall clock and simulation time of the last synchronization) and a speed, so waiting does not accumulate error of
+ * the event execution. Waiting thread is parked and can be woken up at any time from other threads, e.g. when speed
+ * changes or simulation is stopped or paused.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class RealTimePacer {
+
+    private double speed;
+    private PacingPolicy policy;
+    private long maxLag;
+    private long anchorNanos;
+    private double anchorTime;
+    private boolean resynchronize;
+    private volatile Thread waiting;
+
+    /**
+     * Create pacer
+     *
+     * @param speed Simulation time units per one second of wall clock
+     */
+    public RealTimePacer(double speed) {
+        this.speed = speed;
+        this.policy = PacingPolicy.CATCH_UP;
+        this.resynchronize = true;
+    }
+
+    /**
+     * Wait until wall clock reaches given simulation time
+     *
+     * @param time Simulation time
+     */
+    public void pace(double time) {
+        waiting = Thread.currentThread();
+        try {
+            while (!Thread.currentThread().isInterrupted()) {
+                long remaining;
+                synchronized (this) {
+                    long now = System.nanoTime();
+                    if (resynchronize) {
+                        anchor(now, time);
+                        resynchronize = false;
+                        return;
+                    }
+                    if (!(speed > 0) || Double.isInfinite(speed)) {
+                        return;
+                    }
+                    remaining = anchorNanos + (long) ((time - anchorTime) / speed * 1e9) - now;
+                    if (remaining <= 0) {
+                        if (policy == PacingPolicy.SKIP && -remaining > maxLag) {
+                            anchor(now, time);
+                        }
+                        return;
+                    }
+                }
+                LockSupport.parkNanos(this, remaining);
+            }
+        } finally {
+            waiting = null;
+        }
+    }
+
+    /**
+     * Change speed. Simulation time reached so far is kept, only the rest is paced with the new speed
+     *
+     * @param speed Simulation time units per one second of wall clock
+     */
+    public synchronized void setSpeed(double speed) {
+        if (!resynchronize && speed > 0 && this.speed > 0 && !Double.isInfinite(this.speed)) {
+            long now = System.nanoTime();
+            anchor(now, anchorTime + (now - anchorNanos) / 1e9 * this.speed);
+        } else {
+            resynchronize = true;
+        }
+        this.speed = speed;
+        wakeUp();
+    }
+
+    public synchronized double getSpeed() {
+        return speed;
+    }
+
+    /**
+     * Set behaviour when simulation falls behind the wall clock
+     *
+     * @param policy Pacing policy
+     * @param maxLag Lag in nanoseconds tolerated by {@link PacingPolicy#SKIP} policy
+     */
+    public synchronized void setPolicy(PacingPolicy policy, long maxLag) {
+        this.policy = policy;
+        this.maxLag = maxLag;
+    }
+
+    public synchronized PacingPolicy getPolicy() {
+        return policy;
+    }
+
+    /**
+     * Drop the anchor. Waiting thread returns immediately and pacing starts again from the next call
+     */
+    public synchronized void resynchronize() {
+        resynchronize = true;
+        wakeUp();
+    }
+
+    private void anchor(long nanos, double time) {
+        anchorNanos = nanos;
+        anchorTime = time;
+    }
+
+    private void wakeUp() {
+        Thread thread = waiting;
+        if (thread != null) {
+            LockSupport.unpark(thread);
+        }
+    }
+}
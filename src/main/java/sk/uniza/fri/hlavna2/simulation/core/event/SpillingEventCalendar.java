@@ -0,0 +1,296 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.lang.ref.Cleaner;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+
+/**
+ * Calendar keeping in memory only events earlier than a moving horizon. Later events are collected in a buffer which
+ * is sorted and written to a run file when full. When all events before the horizon are executed, horizon moves by
+ * the window and events before the new horizon are read back from memory-mapped run files. Heap therefore holds only
+ * the near window and one spill buffer, number of far events is limited by disk.
+ *
+ * Events with equal time are returned in order of planning by the engine, order is kept in the run files. Copy of the
+ * calendar made by {@link #toArray()} decodes all spilled events.
+ *
+ * Run file is mapped as a single buffer, so it is limited to 2 GiB and a larger spill is written to several runs. File
+ * of a consumed run is deleted only after its mapping is released by the garbage collector, because mapped file cannot
+ * be deleted on all platforms.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class SpillingEventCalendar implements EventCalendar, Closeable {
+
+    private static final int RECORD_HEADER = Double.BYTES + Long.BYTES;
+    private static final Cleaner CLEANER = Cleaner.create();
+    private static final Comparator<Event> ORDER = Comparator.comparingDouble(Event::getTime)
+            .thenComparingLong(event -> event.sequence);
+    private final EventCodec codec;
+    private final Path directory;
+    private final double window;
+    private final int spillSize;
+    private final long maxRunBytes;
+    private final PriorityQueue<Event> near;
+    private final List<Event> spill;
+    private final List<Run> runs;
+    private double horizon;
+
+    /**
+     * Create calendar
+     *
+     * @param codec Binary form of the events
+     * @param directory Directory of the run files, created if it does not exist
+     * @param window Length of the time window kept in memory
+     * @param spillSize Number of far events collected before they are written to a run file
+     * @throws IOException When directory cannot be created
+     */
+    public SpillingEventCalendar(EventCodec codec, Path directory, double window, int spillSize) throws IOException {
+        this(codec, directory, window, spillSize, Integer.MAX_VALUE);
+    }
+
+    SpillingEventCalendar(EventCodec codec, Path directory, double window, int spillSize, long maxRunBytes) throws IOException {
+        if (maxRunBytes < RECORD_HEADER + codec.getMaxSize()) {
+            throw new IllegalArgumentException("Run has to hold at least one event");
+        }
+        this.codec = codec;
+        this.directory = Files.createDirectories(directory);
+        this.window = window;
+        this.spillSize = spillSize;
+        this.maxRunBytes = maxRunBytes;
+        this.near = new PriorityQueue<>(ORDER);
+        this.spill = new ArrayList<>();
+        this.runs = new ArrayList<>();
+        this.horizon = window;
+    }
+
+    @Override
+    public void planEvent(Event event) {
+        if (event.getTime() < horizon) {
+            near.add(event);
+            return;
+        }
+        spill.add(event);
+        if (spill.size() >= spillSize) {
+            writeRun();
+        }
+    }
+
+    @Override
+    public Event nextEvent() {
+        if (near.isEmpty()) {
+            advance();
+        }
+        return near.poll();
+    }
+
+    @Override
+    public Event peekEvent() {
+        if (near.isEmpty()) {
+            advance();
+        }
+        return near.peek();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return near.isEmpty() && spill.isEmpty() && runs.isEmpty();
+    }
+
+    @Override
+    public Event[] toArray() {
+        List<Event> events = new ArrayList<>(near);
+        events.addAll(spill);
+        for (Run run : runs) {
+            ByteBuffer records = run.buffer.duplicate();
+            while (records.hasRemaining()) {
+                events.add(read(records));
+            }
+        }
+        return events.toArray(new Event[events.size()]);
+    }
+
+    /**
+     * Remove all events. Run files are deleted when their mappings are released
+     */
+    @Override
+    public void clear() {
+        near.clear();
+        spill.clear();
+        runs.clear();
+        horizon = window;
+    }
+
+    /**
+     * Get number of run files on disk
+     *
+     * @return Number of runs
+     */
+    public int getRuns() {
+        return runs.size();
+    }
+
+    /**
+     * Get number of events held in memory
+     *
+     * @return Number of events in the near window and the spill buffer
+     */
+    public int getInMemory() {
+        return near.size() + spill.size();
+    }
+
+    public double getHorizon() {
+        return horizon;
+    }
+
+    @Override
+    public void close() {
+        clear();
+    }
+
+    private void advance() {
+        double earliest = Double.POSITIVE_INFINITY;
+        for (Event event : spill) {
+            earliest = Math.min(earliest, event.getTime());
+        }
+        for (Run run : runs) {
+            earliest = Math.min(earliest, run.buffer.getDouble(run.buffer.position()));
+        }
+        if (earliest == Double.POSITIVE_INFINITY) {
+            return;
+        }
+        horizon = Math.max(horizon, earliest) + window;
+        int kept = 0;
+        for (Event event : spill) {
+            if (event.getTime() < horizon) {
+                near.add(event);
+            } else {
+                spill.set(kept++, event);
+            }
+        }
+        spill.subList(kept, spill.size()).clear();
+        for (int i = runs.size() - 1; i >= 0; i--) {
+            Run run = runs.get(i);
+            while (run.buffer.hasRemaining() && run.buffer.getDouble(run.buffer.position()) < horizon) {
+                near.add(read(run.buffer));
+            }
+            if (!run.buffer.hasRemaining()) {
+                runs.remove(i);
+            }
+        }
+    }
+
+    private Event read(ByteBuffer records) {
+        double time = records.getDouble();
+        long sequence = records.getLong();
+        Event event = codec.decode(records);
+        event.setTime(time);
+        event.sequence = sequence;
+        return event;
+    }
+
+    private void writeRun() {
+        spill.sort(ORDER);
+        int written = 0;
+        while (written < spill.size()) {
+            written = writeRun(written);
+        }
+        spill.clear();
+    }
+
+    private int writeRun(int first) {
+        int record = RECORD_HEADER + codec.getMaxSize();
+        ByteBuffer buffer = ByteBuffer.allocateDirect(Math.max(1 << 20, 2 * record));
+        Path file;
+        try {
+            file = Files.createTempFile(directory, "run-", ".bin");
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        int next = first;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ, StandardOpenOption.WRITE)) {
+            long size = 0;
+            while (next < spill.size() && size + record <= maxRunBytes) {
+                if (buffer.remaining() < record) {
+                    flush(channel, buffer);
+                }
+                int start = buffer.position();
+                Event event = spill.get(next++);
+                buffer.putDouble(event.getTime());
+                buffer.putLong(event.sequence);
+                codec.encode(event, buffer);
+                size += buffer.position() - start;
+            }
+            flush(channel, buffer);
+            MappedByteBuffer mapping = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+            CLEANER.register(mapping, () -> delete(file));
+            runs.add(new Run(mapping));
+        } catch (IOException ex) {
+            delete(file);
+            throw new UncheckedIOException(ex);
+        }
+        return next;
+    }
+
+    private static void flush(FileChannel channel, ByteBuffer buffer) throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+
+    private static void delete(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException ex) {
+            Logger.getLogger(SpillingEventCalendar.class.getName()).log(Level.WARNING, "Run file " + file
+                    + " cannot be deleted, it will be deleted on exit", ex);
+            file.toFile().deleteOnExit();
+        }
+    }
+
+    private static final class Run {
+
+        private final MappedByteBuffer buffer;
+
+        Run(MappedByteBuffer buffer) {
+            this.buffer = buffer;
+        }
+    }
+}
@@ -23,8 +23,6 @@
  */
 package sk.uniza.fri.hlavna2.simulation.core.event;
 
-import java.util.logging.Level;
-import java.util.logging.Logger;
 import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
 import sk.uniza.fri.hlavna2.simulation.core.Statistics;
 import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
@@ -32,16 +30,21 @@ import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
 public class SynchronizationEvent extends Event {
 
     private double planningInterval;
-    private long delayInterval;
+    private RealTimePacer pacer;
     private boolean plan;
 
     public SynchronizationEvent() {
+        this.pacer = new RealTimePacer(Double.POSITIVE_INFINITY);
     }
 
     public SynchronizationEvent(double time, EventSimulationEngine engine, double planningInterval, long delayInterval) {
+        this(time, engine, planningInterval, new RealTimePacer(toSpeed(planningInterval, delayInterval)));
+    }
+
+    public SynchronizationEvent(double time, EventSimulationEngine engine, double planningInterval, RealTimePacer pacer) {
         super(time, engine);
         this.planningInterval = planningInterval;
-        this.delayInterval = delayInterval;
+        this.pacer = pacer;
         this.plan = true;
     }
 
@@ -49,31 +52,39 @@ public class SynchronizationEvent extends Event {
         super(other);
         this.planningInterval = other.planningInterval;
         this.plan = other.plan;
-        this.delayInterval = other.delayInterval;
+        this.pacer = other.pacer;
     }
 
     @Override
     protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
-        try {
-            if (this.plan) {
-                engine.plan(this, engine.getCurrentTime() + planningInterval);
-            }
-            Thread.sleep(delayInterval);
-        } catch (InterruptedException ex) {
-            Logger.getLogger(SynchronizationEvent.class.getName()).log(Level.SEVERE, null, ex);
+        if (this.plan) {
+            engine.plan(this, engine.getCurrentTime() + planningInterval);
         }
+        engine.paceAfterEvent(pacer, engine.getCurrentTime());
     }
 
     public void setDelayInterval(long delayInterval) {
-        this.delayInterval = delayInterval;
+        pacer.setSpeed(toSpeed(planningInterval, delayInterval));
     }
 
     public void setPlanningInterval(double planningInterval) {
         this.planningInterval = planningInterval;
     }
 
+    public double getPlanningInterval() {
+        return planningInterval;
+    }
+
     public void setPlan(boolean plan) {
         this.plan = plan;
     }
 
+    public RealTimePacer getPacer() {
+        return pacer;
+    }
+
+    private static double toSpeed(double planningInterval, long delayInterval) {
+        return delayInterval > 0 ? planningInterval * 1000 / delayInterval : Double.POSITIVE_INFINITY;
+    }
+
 }
@@ -0,0 +1,67 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Full factorial (grid) design. Every combination of factor levels is one scenario
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class FullFactorialDesign implements ExperimentDesign {
+
+    private final double[][] levels;
+
+    /**
+     * Create design
+     *
+     * @param levels Levels of every factor
+     */
+    public FullFactorialDesign(double[]... levels) {
+        this.levels = levels;
+    }
+
+    @Override
+    public List<double[]> getPoints() {
+        List<double[]> points = new ArrayList<>();
+        int[] index = new int[levels.length];
+        while (true) {
+            double[] point = new double[levels.length];
+            for (int i = 0; i < levels.length; i++) {
+                point[i] = levels[i][index[i]];
+            }
+            points.add(point);
+            int factor = levels.length - 1;
+            while (factor >= 0 && ++index[factor] == levels[factor].length) {
+                index[factor] = 0;
+                factor--;
+            }
+            if (factor < 0) {
+                return points;
+            }
+        }
+    }
+}
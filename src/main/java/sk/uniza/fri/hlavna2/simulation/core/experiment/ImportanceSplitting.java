@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.listeners.EventListener;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorageImpl;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RunningStatistic;
+
+/**
+ * Estimation of rare event probability by fixed effort splitting. Rare event is reaching the last of increasing
+ * importance levels. In every stage the same number of trajectories is started from states which reached the
+ * previous level, each continuing until it reaches the next level or ends (calendar is empty, time is over or model
+ * stops the engine). Product of the fractions of successful trajectories is unbiased estimate of the probability.
+ *
+ * Importance is checked after every executed {@link Event} object and primitive event. Every trajectory segment uses
+ * its own random substream. Statistics passed to the model are shared by all segments and are not weighted.
+ *
+ * RESTART (splitting on every up-crossing with trajectories killed below their level) is not provided.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ * @param <E> Type of the engine
+ */
+public class ImportanceSplitting<E extends EventSimulationEngine & Splittable<E>> {
+
+    private final E prototype;
+    private final SimulationParameters parameters;
+    private final Statistics statistics;
+    private final RandomStorageImpl randoms;
+    private final ToDoubleFunction<E> importance;
+    private final double[] levels;
+    private long nextSubstream;
+    private long trajectories;
+
+    /**
+     * Create runner. Engine is initialized once, every trajectory of the first stage is a copy of the engine reset with
+     * its own random substream
+     *
+     * @param factory Creates engine in initial state
+     * @param parameters Parameters of the simulation
+     * @param statistics Statistics passed to the model
+     * @param importance Importance of the current state
+     * @param levels Increasing importance levels, the last one defines rare event
+     */
+    public ImportanceSplitting(Supplier<E> factory, SimulationParameters parameters, Statistics statistics,
+            ToDoubleFunction<E> importance, double... levels) {
+        for (int i = 1; i < levels.length; i++) {
+            if (!(levels[i] > levels[i - 1])) {
+                throw new IllegalArgumentException("Levels must be increasing");
+            }
+        }
+        this.parameters = parameters;
+        this.statistics = statistics;
+        this.importance = importance;
+        this.levels = levels.clone();
+        this.randoms = new RandomStorageImpl(new HashMap<>());
+        this.prototype = factory.get();
+        prototype.init(parameters, statistics, randoms);
+        randoms.setInitialized();
+    }
+
+    /**
+     * Estimate probability of the rare event
+     *
+     * @param effort Number of trajectories in every stage
+     * @param repetitions Number of independent repetitions used for confidence interval
+     * @return Result of the estimation
+     */
+    public SplittingResult run(int effort, int repetitions) {
+        RunningStatistic estimates = new RunningStatistic();
+        double[] stageProbabilities = new double[levels.length];
+        long start = trajectories;
+        for (int repetition = 0; repetition < repetitions; repetition++) {
+            double estimate = 1.0;
+            List<E> survivors = null;
+            for (int stage = 0; stage < levels.length; stage++) {
+                List<E> reached = new ArrayList<>();
+                for (int i = 0; i < effort && (survivors == null || !survivors.isEmpty()); i++) {
+                    E trajectory = survivors == null ? initialState() : survivors.get(i % survivors.size()).split();
+                    if (advance(trajectory, levels[stage])) {
+                        reached.add(trajectory);
+                    }
+                }
+                double probability = (double) reached.size() / effort;
+                stageProbabilities[stage] += probability / repetitions;
+                estimate *= probability;
+                survivors = reached;
+            }
+            estimates.add(estimate);
+        }
+        return new SplittingResult(estimates, stageProbabilities, trajectories - start);
+    }
+
+    private E initialState() {
+        randoms.setSubstream(nextSubstream++);
+        prototype.reset(parameters, statistics, randoms);
+        return prototype.split();
+    }
+
+    private boolean advance(E engine, double level) {
+        if (importance.applyAsDouble(engine) >= level) {
+            return true;
+        }
+        boolean[] crossed = new boolean[1];
+        EventListener listener = new EventListener() {
+            @Override
+            public void onEvent(Event event, EventSimulationEngine source) {
+                check(source);
+            }
+
+            @Override
+            public void onPrimitiveEvent(int handlerId, long payload, EventSimulationEngine source) {
+                check(source);
+            }
+
+            private void check(EventSimulationEngine source) {
+                if (importance.applyAsDouble(engine) >= level) {
+                    crossed[0] = true;
+                    source.stop();
+                }
+            }
+        };
+        engine.addEventListener(listener);
+        randoms.setSubstream(nextSubstream++);
+        trajectories++;
+        engine.simulate(parameters, statistics, randoms);
+        engine.removeEventListener(listener);
+        return crossed[0];
+    }
+}
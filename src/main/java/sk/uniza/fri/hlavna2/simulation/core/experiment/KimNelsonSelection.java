@@ -0,0 +1,214 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import sk.uniza.fri.hlavna2.simulation.core.ReplicationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+
+/**
+ * Ranking and selection by the fully sequential procedure of Kim and Nelson (KN). All alternatives get the first stage
+ * replications, then one replication is added to every surviving alternative at a time and alternatives clearly worse
+ * than another survivor are eliminated and not simulated anymore. With probability at least 1 - alpha the selected
+ * alternative is the best one or within indifference zone from it.
+ *
+ * Replication r of every alternative uses random substream r (common random numbers), which makes differences between
+ * alternatives less noisy and elimination faster.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class KimNelsonSelection {
+
+    private final Supplier<SimulationEngine> engineFactory;
+    private final Supplier<Statistics> statisticsFactory;
+    private final ToDoubleFunction<Statistics> output;
+    private final boolean minimize;
+
+    /**
+     * Create procedure
+     *
+     * @param engineFactory Creates new engine instance of the model
+     * @param statisticsFactory Creates empty statistics of the model
+     * @param output Reads compared output from statistics of one replication
+     * @param minimize True if lower output is better
+     */
+    public KimNelsonSelection(Supplier<SimulationEngine> engineFactory, Supplier<Statistics> statisticsFactory, ToDoubleFunction<Statistics> output, boolean minimize) {
+        this.engineFactory = engineFactory;
+        this.statisticsFactory = statisticsFactory;
+        this.output = output;
+        this.minimize = minimize;
+    }
+
+    /**
+     * Select the best alternative, simulating alternatives on the common pool
+     *
+     * @param alternatives Parameters of competing alternatives
+     * @param indifferenceZone Smallest difference of the output worth detecting
+     * @param alpha Allowed probability of wrong selection
+     * @param firstStage Number of first stage replications, at least 2
+     * @param maxReplications Replication limit of one alternative
+     * @return Result of the selection
+     */
+    public SelectionResult select(List<? extends SimulationParameters> alternatives, double indifferenceZone, double alpha, int firstStage, int maxReplications) {
+        return select(alternatives, indifferenceZone, alpha, firstStage, maxReplications, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Select the best alternative
+     *
+     * @param alternatives Parameters of competing alternatives
+     * @param indifferenceZone Smallest difference of the output worth detecting
+     * @param alpha Allowed probability of wrong selection
+     * @param firstStage Number of first stage replications, at least 2
+     * @param maxReplications Replication limit of one alternative
+     * @param pool Pool simulating replications of different alternatives
+     * @return Result of the selection
+     * @throws IllegalArgumentException If there are no alternatives, first stage has less than 2 replications or
+     * replication limit is lower than the first stage
+     */
+    public SelectionResult select(List<? extends SimulationParameters> alternatives, double indifferenceZone, double alpha, int firstStage, int maxReplications, ForkJoinPool pool) {
+        if (alternatives.isEmpty()) {
+            throw new IllegalArgumentException("No alternatives to select from");
+        }
+        if (firstStage < 2) {
+            throw new IllegalArgumentException("First stage needs at least 2 replications");
+        }
+        if (maxReplications < firstStage) {
+            throw new IllegalArgumentException("Replication limit must not be lower than the first stage");
+        }
+        int k = alternatives.size();
+        List<SimulationEngine> engines = new ArrayList<>(k);
+        List<ReplicationEngine> solvers = new ArrayList<>(k);
+        for (SimulationParameters parameters : alternatives) {
+            SimulationEngine engine = engineFactory.get();
+            engines.add(engine);
+            solvers.add(ReplicationEngine.getSolver(engine, parameters, statisticsFactory.get()));
+        }
+        double[][] firstStageOutputs = new double[k][firstStage];
+        double[] sums = new double[k];
+        int[] replications = new int[k];
+        List<Integer> survivors = new ArrayList<>(k);
+        for (int i = 0; i < k; i++) {
+            survivors.add(i);
+        }
+        try {
+            for (int r = 0; r < firstStage; r++) {
+                simulateStage(survivors, solvers, r, sums, replications, firstStageOutputs, pool);
+            }
+            double[][] variances = differenceVariances(firstStageOutputs, sums, firstStage);
+            double eta = 0.5 * (Math.pow(2 * alpha / Math.max(1, k - 1), -2.0 / (firstStage - 1)) - 1);
+            double h2 = 2 * eta * (firstStage - 1);
+            int r = firstStage;
+            survivors = eliminate(survivors, sums, variances, h2, indifferenceZone, r);
+            while (survivors.size() > 1 && r < maxReplications) {
+                simulateStage(survivors, solvers, r, sums, replications, null, pool);
+                r++;
+                survivors = eliminate(survivors, sums, variances, h2, indifferenceZone, r);
+            }
+        } finally {
+            for (SimulationEngine engine : engines) {
+                engine.cleanUp();
+            }
+        }
+        double[] means = new double[k];
+        for (int i = 0; i < k; i++) {
+            means[i] = (minimize ? -sums[i] : sums[i]) / replications[i];
+        }
+        int best = survivors.get(0);
+        for (int i : survivors) {
+            if (sums[i] / replications[i] > sums[best] / replications[best]) {
+                best = i;
+            }
+        }
+        return new SelectionResult(best, survivors, replications, means);
+    }
+
+    private void simulateStage(List<Integer> survivors, List<ReplicationEngine> solvers, int replication, double[] sums, int[] replications, double[][] firstStageOutputs, ForkJoinPool pool) {
+        List<ForkJoinTask<?>> tasks = new ArrayList<>(survivors.size());
+        for (int i : survivors) {
+            tasks.add(pool.submit(() -> {
+                Statistics partial = statisticsFactory.get();
+                solvers.get(i).solve(replication, 1, partial);
+                double value = output.applyAsDouble(partial);
+                if (minimize) {
+                    value = -value;
+                }
+                sums[i] += value;
+                replications[i]++;
+                if (firstStageOutputs != null) {
+                    firstStageOutputs[i][replication] = value;
+                }
+            }));
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+    }
+
+    private double[][] differenceVariances(double[][] outputs, double[] sums, int n) {
+        int k = outputs.length;
+        double[][] variances = new double[k][k];
+        for (int i = 0; i < k; i++) {
+            for (int l = i + 1; l < k; l++) {
+                double meanDifference = (sums[i] - sums[l]) / n;
+                double sum = 0;
+                for (int r = 0; r < n; r++) {
+                    double deviation = outputs[i][r] - outputs[l][r] - meanDifference;
+                    sum += deviation * deviation;
+                }
+                variances[i][l] = sum / (n - 1);
+                variances[l][i] = variances[i][l];
+            }
+        }
+        return variances;
+    }
+
+    private List<Integer> eliminate(List<Integer> survivors, double[] sums, double[][] variances, double h2, double indifferenceZone, int r) {
+        List<Integer> remaining = new ArrayList<>(survivors.size());
+        for (int i : survivors) {
+            boolean eliminated = false;
+            for (int l : survivors) {
+                if (i == l) {
+                    continue;
+                }
+                double w = Math.max(0, indifferenceZone / (2.0 * r) * (h2 * variances[i][l] / (indifferenceZone * indifferenceZone) - r));
+                if (sums[i] / r < sums[l] / r - w) {
+                    eliminated = true;
+                    break;
+                }
+            }
+            if (!eliminated) {
+                remaining.add(i);
+            }
+        }
+        return remaining;
+    }
+}
@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+
+/**
+ * Latin hypercube design. Range of every factor is split into as many strata as there are samples and every stratum
+ * is used by exactly one sample
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class LatinHypercubeDesign implements ExperimentDesign {
+
+    private final int samples;
+    private final double[] lower;
+    private final double[] upper;
+    private final long seed;
+
+    /**
+     * Create design
+     *
+     * @param samples Number of scenarios
+     * @param lower Lower bounds of the factors
+     * @param upper Upper bounds of the factors
+     * @param seed Seed of the sampling, same seed gives the same design
+     */
+    public LatinHypercubeDesign(int samples, double[] lower, double[] upper, long seed) {
+        if (lower.length != upper.length) {
+            throw new IllegalArgumentException("Bounds have different number of factors");
+        }
+        this.samples = samples;
+        this.lower = lower;
+        this.upper = upper;
+        this.seed = seed;
+    }
+
+    @Override
+    public List<double[]> getPoints() {
+        Random random = new Random(seed);
+        double[][] values = new double[samples][lower.length];
+        int[] strata = new int[samples];
+        for (int factor = 0; factor < lower.length; factor++) {
+            for (int i = 0; i < samples; i++) {
+                strata[i] = i;
+            }
+            for (int i = samples - 1; i > 0; i--) {
+                int j = random.nextInt(i + 1);
+                int swap = strata[i];
+                strata[i] = strata[j];
+                strata[j] = swap;
+            }
+            for (int i = 0; i < samples; i++) {
+                double position = (strata[i] + random.nextDouble()) / samples;
+                values[i][factor] = lower[factor] + position * (upper[factor] - lower[factor]);
+            }
+        }
+        List<double[]> points = new ArrayList<>(samples);
+        for (double[] point : values) {
+            points.add(point);
+        }
+        return points;
+    }
+}
@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.function.ToDoubleFunction;
+import sk.uniza.fri.hlavna2.simulation.core.ReplicationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+
+/**
+ * Runs the same model across many scenarios. Replications of all scenarios are split into tasks scheduled on a
+ * shared work stealing pool, so cores are kept busy until the last task of the whole study. Every task uses its own
+ * engine instance. Value of every column is recorded for every replication.
+ *
+ * With common random numbers replication r of every scenario uses random substream r, so differences between
+ * scenarios are not hidden by different random numbers.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ScenarioSweep {
+
+    private final Supplier<SimulationEngine> engineFactory;
+    private final Supplier<Statistics> statisticsFactory;
+    private final List<String> names;
+    private final List<ToDoubleFunction<Statistics>> columns;
+    private boolean commonRandomNumbers;
+
+    /**
+     * Create sweep
+     *
+     * @param engineFactory Creates new engine instance of the model
+     * @param statisticsFactory Creates empty statistics of the model. Statistics has to be mergeable
+     */
+    public ScenarioSweep(Supplier<SimulationEngine> engineFactory, Supplier<Statistics> statisticsFactory) {
+        this.engineFactory = engineFactory;
+        this.statisticsFactory = statisticsFactory;
+        this.names = new ArrayList<>();
+        this.columns = new ArrayList<>();
+        this.commonRandomNumbers = true;
+    }
+
+    /**
+     * Create scenarios from design points
+     *
+     * @param design Design of the experiment
+     * @param factory Creates parameters from values of the factors
+     * @return Parameters of every scenario
+     */
+    public static List<SimulationParameters> scenarios(ExperimentDesign design, Function<double[], SimulationParameters> factory) {
+        List<SimulationParameters> scenarios = new ArrayList<>();
+        for (double[] point : design.getPoints()) {
+            scenarios.add(factory.apply(point));
+        }
+        return scenarios;
+    }
+
+    /**
+     * Add output column
+     *
+     * @param name Name of the column
+     * @param column Reads value of the column from statistics of one replication
+     */
+    public void addColumn(String name, ToDoubleFunction<Statistics> column) {
+        names.add(name);
+        columns.add(column);
+    }
+
+    public void setCommonRandomNumbers(boolean commonRandomNumbers) {
+        this.commonRandomNumbers = commonRandomNumbers;
+    }
+
+    /**
+     * Run the sweep on the common pool
+     *
+     * @param scenarios Parameters of every scenario
+     * @param replications Number of replications of every scenario
+     * @param taskSize Number of replications in one task
+     * @return Results of all replications
+     */
+    public SweepResults run(List<? extends SimulationParameters> scenarios, int replications, int taskSize) {
+        return run(scenarios, replications, taskSize, ForkJoinPool.commonPool());
+    }
+
+    /**
+     * Run the sweep
+     *
+     * @param scenarios Parameters of every scenario
+     * @param replications Number of replications of every scenario
+     * @param taskSize Number of replications in one task
+     * @param pool Pool executing the tasks
+     * @return Results of all replications
+     * @throws IllegalArgumentException If number of replications or task size is not positive
+     */
+    public SweepResults run(List<? extends SimulationParameters> scenarios, int replications, int taskSize, ForkJoinPool pool) {
+        if (replications <= 0 || taskSize <= 0) {
+            throw new IllegalArgumentException("Replications and task size must be positive");
+        }
+        SweepResults results = new SweepResults(new ArrayList<>(names), scenarios.size(), replications);
+        List<ForkJoinTask<?>> tasks = new ArrayList<>();
+        for (int scenario = 0; scenario < scenarios.size(); scenario++) {
+            results.setStatistics(scenario, statisticsFactory.get());
+            for (int first = 0; first < replications; first += taskSize) {
+                int index = scenario;
+                int start = first;
+                int count = Math.min(taskSize, replications - first);
+                tasks.add(pool.submit(() -> runTask(results, scenarios.get(index), index, start, count)));
+            }
+        }
+        for (ForkJoinTask<?> task : tasks) {
+            task.join();
+        }
+        return results;
+    }
+
+    private void runTask(SweepResults results, SimulationParameters parameters, int scenario, int first, int count) {
+        SimulationEngine engine = engineFactory.get();
+        ReplicationEngine solver = ReplicationEngine.getSolver(engine, parameters, statisticsFactory.get());
+        int substreamOffset = commonRandomNumbers ? 0 : scenario * results.getReplications();
+        Statistics total = statisticsFactory.get();
+        for (int replication = first; replication < first + count; replication++) {
+            Statistics partial = statisticsFactory.get();
+            solver.solve(substreamOffset + replication, 1, partial);
+            for (int column = 0; column < columns.size(); column++) {
+                results.setValue(column, scenario, replication, columns.get(column).applyAsDouble(partial));
+            }
+            total.merge(partial);
+        }
+        engine.cleanUp();
+        Statistics merged = results.getStatistics(scenario);
+        synchronized (merged) {
+            merged.merge(total);
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import java.util.List;
+
+/**
+ * Result of the ranking and selection procedure
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class SelectionResult {
+
+    private final int best;
+    private final List<Integer> survivors;
+    private final int[] replications;
+    private final double[] means;
+
+    SelectionResult(int best, List<Integer> survivors, int[] replications, double[] means) {
+        this.best = best;
+        this.survivors = survivors;
+        this.replications = replications;
+        this.means = means;
+    }
+
+    /**
+     * Get selected alternative
+     *
+     * @return Index of the best alternative
+     */
+    public int getBest() {
+        return best;
+    }
+
+    /**
+     * Get alternatives not eliminated when procedure stopped. Contains more than one alternative only when replication
+     * limit was reached
+     *
+     * @return Indexes of surviving alternatives
+     */
+    public List<Integer> getSurvivors() {
+        return survivors;
+    }
+
+    /**
+     * Get number of replications simulated for the alternative
+     *
+     * @param alternative Index of the alternative
+     * @return Number of replications
+     */
+    public int getReplications(int alternative) {
+        return replications[alternative];
+    }
+
+    /**
+     * Get sample mean of the output of the alternative
+     *
+     * @param alternative Index of the alternative
+     * @return Mean of the output
+     */
+    public double getMean(int alternative) {
+        return means[alternative];
+    }
+
+    /**
+     * Get number of replications of all alternatives
+     *
+     * @return Number of replications
+     */
+    public int getTotalReplications() {
+        int total = 0;
+        for (int count : replications) {
+            total += count;
+        }
+        return total;
+    }
+}
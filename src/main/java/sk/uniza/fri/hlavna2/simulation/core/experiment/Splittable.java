@@ -0,0 +1,44 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+
+/**
+ * Engine whose state can be copied, so a trajectory can be continued by several independent copies
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ * @param <E> Type of the engine
+ */
+public interface Splittable<E extends EventSimulationEngine> {
+
+    /**
+     * Create independent copy of the engine and the model. Calendar can be copied by
+     * {@link EventSimulationEngine#copyStateFrom(EventSimulationEngine, java.util.function.UnaryOperator)}. Random
+     * generators should be shared, since runner selects their substream before every trajectory.
+     *
+     * @return Copy of the engine
+     */
+    E split();
+}
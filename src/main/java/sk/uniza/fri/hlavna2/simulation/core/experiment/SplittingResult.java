@@ -0,0 +1,91 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import sk.uniza.fri.hlavna2.simulation.core.utils.RunningStatistic;
+
+/**
+ * Result of the importance splitting
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class SplittingResult {
+
+    private final RunningStatistic estimates;
+    private final double[] stageProbabilities;
+    private final long trajectories;
+
+    SplittingResult(RunningStatistic estimates, double[] stageProbabilities, long trajectories) {
+        this.estimates = estimates;
+        this.stageProbabilities = stageProbabilities;
+        this.trajectories = trajectories;
+    }
+
+    /**
+     * Get estimated probability of reaching the last level
+     *
+     * @return Average of the estimates of independent repetitions
+     */
+    public double getProbability() {
+        return estimates.getMean();
+    }
+
+    /**
+     * Get half width of the confidence interval computed from independent repetitions
+     *
+     * @param confidence Confidence level, e.g. 0.95
+     * @return Half width of the interval
+     */
+    public double getHalfWidth(double confidence) {
+        return estimates.getHalfWidth(confidence);
+    }
+
+    /**
+     * Get estimates of the independent repetitions
+     *
+     * @return Statistic of the estimates
+     */
+    public RunningStatistic getEstimates() {
+        return estimates;
+    }
+
+    /**
+     * Get average conditional probability of reaching the level from the previous one
+     *
+     * @param stage Index of the level
+     * @return Average conditional probability
+     */
+    public double getStageProbability(int stage) {
+        return stageProbabilities[stage];
+    }
+
+    /**
+     * Get number of simulated trajectory segments
+     *
+     * @return Number of segments
+     */
+    public long getTrajectories() {
+        return trajectories;
+    }
+}
@@ -0,0 +1,129 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import java.io.IOException;
+import java.io.Writer;
+import java.util.List;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+
+/**
+ * Results of the scenario sweep. Values of every column are stored in one array ordered by scenario and replication,
+ * merged statistics are kept for every scenario
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class SweepResults {
+
+    private final List<String> columns;
+    private final int replications;
+    private final double[][] values;
+    private final Statistics[] statistics;
+
+    SweepResults(List<String> columns, int scenarios, int replications) {
+        this.columns = columns;
+        this.replications = replications;
+        this.values = new double[columns.size()][scenarios * replications];
+        this.statistics = new Statistics[scenarios];
+    }
+
+    void setValue(int column, int scenario, int replication, double value) {
+        values[column][scenario * replications + replication] = value;
+    }
+
+    void setStatistics(int scenario, Statistics statistics) {
+        this.statistics[scenario] = statistics;
+    }
+
+    public List<String> getColumns() {
+        return columns;
+    }
+
+    public int getScenarios() {
+        return statistics.length;
+    }
+
+    public int getReplications() {
+        return replications;
+    }
+
+    public double getValue(int column, int scenario, int replication) {
+        return values[column][scenario * replications + replication];
+    }
+
+    /**
+     * Get all values of the column. Value of replication r of scenario s is at index s * replications + r
+     *
+     * @param column Index of the column
+     * @return Values of the column
+     */
+    public double[] getColumn(int column) {
+        return values[column];
+    }
+
+    /**
+     * Get statistics merged from all replications of the scenario
+     *
+     * @param scenario Index of the scenario
+     * @return Merged statistics
+     */
+    public Statistics getStatistics(int scenario) {
+        return statistics[scenario];
+    }
+
+    /**
+     * Write results as CSV with one row per replication, column names are quoted when needed
+     *
+     * @param writer Target of the output
+     * @throws IOException When writing fails
+     */
+    public void writeCsv(Writer writer) throws IOException {
+        writer.write("scenario,replication");
+        for (String column : columns) {
+            writer.write(',');
+            writer.write(escape(column));
+        }
+        writer.write('\n');
+        for (int scenario = 0; scenario < statistics.length; scenario++) {
+            for (int replication = 0; replication < replications; replication++) {
+                writer.write(Integer.toString(scenario));
+                writer.write(',');
+                writer.write(Integer.toString(replication));
+                for (int column = 0; column < columns.size(); column++) {
+                    writer.write(',');
+                    writer.write(Double.toString(getValue(column, scenario, replication)));
+                }
+                writer.write('\n');
+            }
+        }
+        writer.flush();
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+}
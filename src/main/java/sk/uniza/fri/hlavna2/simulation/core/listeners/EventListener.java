@@ -33,4 +33,15 @@ import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
 public interface EventListener {
 
     void onEvent(Event event, EventSimulationEngine engine);
+
+    /**
+     * Called after primitive event planned by {@link EventSimulationEngine#plan(int, long, double)} is executed. Does
+     * nothing by default
+     *
+     * @param handlerId Id of the handler which executed the event
+     * @param payload Payload of the event
+     * @param engine Engine which executed the event
+     */
+    default void onPrimitiveEvent(int handlerId, long payload, EventSimulationEngine engine) {
+    }
 }
@@ -31,8 +31,19 @@ import sk.uniza.fri.hlavna2.simulation.core.Statistics;
  */
 public interface SimulationProgressListener {
 
+    /**
+     * Called after every finished replication, or after every run when engine simulates several replications in one run
+     *
+     * @param number Number of replications finished so far by the current solve call, 1 after the first replication
+     * @param statistics Copy of statistics merged from all finished replications
+     */
     void replicationEnded(int number, Statistics statistics);
 
+    /**
+     * Called when solving ends
+     *
+     * @param statistics Copy of final statistics
+     */
     void simulationEnded(Statistics statistics);
 
 }
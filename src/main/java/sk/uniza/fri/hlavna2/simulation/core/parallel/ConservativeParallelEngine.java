@@ -0,0 +1,213 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+/**
+ * Conservative parallel simulation engine. Model is partitioned into logical processes which are simulated in time
+ * windows. Window ends at the lowest time any process could send a message at (next event time plus lookahead), so
+ * every event inside window is safe to execute and processes run in parallel without rollback. Messages are delivered
+ * between windows in the order of processes, which keeps the run deterministic.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ConservativeParallelEngine implements SimulationEngine {
+
+    private final double maxTime;
+    private final int parallelism;
+    private final List<LogicalProcess> processes;
+    private double currentTime;
+    private volatile boolean running;
+    private volatile boolean interrupted;
+
+    /**
+     * Create engine using all available processors
+     *
+     * @param maxTime Events sooner than this time are simulated
+     */
+    public ConservativeParallelEngine(double maxTime) {
+        this(maxTime, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create engine
+     *
+     * @param maxTime Events sooner than this time are simulated
+     * @param parallelism Number of worker threads
+     */
+    public ConservativeParallelEngine(double maxTime, int parallelism) {
+        this.maxTime = maxTime;
+        this.parallelism = parallelism;
+        this.processes = new ArrayList<>();
+    }
+
+    /**
+     * Add logical process to the model
+     *
+     * @param process Process to add
+     */
+    public void addLogicalProcess(LogicalProcess process) {
+        processes.add(process);
+    }
+
+    public List<LogicalProcess> getLogicalProcesses() {
+        return processes;
+    }
+
+    @Override
+    public void simulate(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        this.running = true;
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            deliverMessages();
+            while (running && !interrupted) {
+                double nextTime = Double.POSITIVE_INFINITY;
+                double window = maxTime;
+                for (LogicalProcess process : processes) {
+                    double processTime = process.nextEventTime();
+                    nextTime = Math.min(nextTime, processTime);
+                    window = Math.min(window, processTime + process.getLookahead());
+                }
+                if (nextTime >= maxTime) {
+                    break;
+                }
+                currentTime = nextTime;
+                simulateWindow(executor, window, parameters, statistics, randoms);
+                deliverMessages();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void simulateWindow(ExecutorService executor, double window, SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        List<LogicalProcess> ready = new ArrayList<>();
+        for (LogicalProcess process : processes) {
+            if (process.nextEventTime() < window) {
+                ready.add(process);
+            }
+        }
+        if (ready.size() == 1) {
+            ready.get(0).simulateBefore(window, parameters, statistics, randoms);
+            return;
+        }
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (LogicalProcess process : ready) {
+            tasks.add(() -> {
+                process.simulateBefore(window, parameters, statistics, randoms);
+                return null;
+            });
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Logger.getLogger(ConservativeParallelEngine.class.getName()).log(Level.SEVERE, null, ex);
+            Thread.currentThread().interrupt();
+            running = false;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private void deliverMessages() {
+        for (LogicalProcess process : processes) {
+            for (Message message : process.getOutbox()) {
+                message.getTarget().plan(message.getEvent(), message.getTime());
+            }
+            process.getOutbox().clear();
+        }
+    }
+
+    /**
+     * Stops simulation after current time window. Engine does not simulate until interrupt is cleared
+     */
+    @Override
+    public void interrupt() {
+        interrupted = true;
+        stop();
+    }
+
+    @Override
+    public void clearInterrupt() {
+        interrupted = false;
+    }
+
+    /**
+     * Stop the simulation after current time window
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Get start of the last simulated time window
+     *
+     * @return Lowest time of the events in the last window
+     */
+    public double getCurrentTime() {
+        return currentTime;
+    }
+
+    @Override
+    public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+        for (LogicalProcess process : processes) {
+            process.init(parameters, statistics, storage);
+        }
+    }
+
+    @Override
+    public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        for (LogicalProcess process : processes) {
+            process.reset(parameters, statistics, randoms);
+        }
+    }
+
+    @Override
+    public void cleanUp() {
+        for (LogicalProcess process : processes) {
+            process.cleanUp();
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.parallel;
+
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventHandler;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+/**
+ * Primitive event planned by logical process. Logical processes keep every event in their own calendar, so primitive
+ * event is wrapped in an object running its handler
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+class HandlerEvent extends Event {
+
+    private final EventHandler handler;
+    private final long payload;
+
+    HandlerEvent(EventSimulationEngine engine, EventHandler handler, long payload) {
+        super(0.0, engine);
+        this.handler = handler;
+        this.payload = payload;
+    }
+
+    @Override
+    protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        handler.handle(payload, parameters, statistics, randoms);
+    }
+}
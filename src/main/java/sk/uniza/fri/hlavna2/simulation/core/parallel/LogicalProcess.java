@@ -0,0 +1,123 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.exception.LookaheadViolationException;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+/**
+ * Partition of the model simulated by {@link ConservativeParallelEngine}. Every logical process has its own calendar.
+ * Events for this process are planned by {@link #plan(Event, double)} as usual, events for other processes are sent by
+ * {@link #send(LogicalProcess, Event, double)} and must respect the lookahead declared by this process. Primitive
+ * events are kept in the same calendar as event objects, so on equal time they run in the order they were planned.
+ *
+ * Events of different logical processes run on different threads. State shared between processes (statistics,
+ * random generators) must be thread safe or partitioned by the model.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public abstract class LogicalProcess extends EventSimulationEngine {
+
+    private final double lookahead;
+    private final List<Message> outbox;
+
+    /**
+     * Create logical process
+     *
+     * @param lookahead Minimal distance between current time of this process and time of any event it sends to other
+     * processes. Must be positive
+     */
+    public LogicalProcess(double lookahead) {
+        super(Double.POSITIVE_INFINITY);
+        if (!(lookahead > 0)) {
+            throw new IllegalArgumentException("Lookahead must be positive");
+        }
+        this.lookahead = lookahead;
+        this.outbox = new ArrayList<>();
+    }
+
+    /**
+     * Send event to other logical process. Event is delivered when current time window is finished
+     *
+     * @param target Receiving process
+     * @param event Event to plan in the receiving process. Event should be bound to receiving process
+     * @param time Time of the event
+     */
+    public final void send(LogicalProcess target, Event event, double time) {
+        if (Double.compare(time, getCurrentTime() + lookahead) < 0) {
+            throw new LookaheadViolationException();
+        }
+        outbox.add(new Message(target, event, time));
+    }
+
+    public double getLookahead() {
+        return lookahead;
+    }
+
+    /**
+     * Primitive events are planned to the calendar of this process as event objects running the handler, so they are
+     * synchronized with other processes like any other event. Listeners are notified about them as about objects
+     */
+    @Override
+    protected void planPrimitive(int handlerId, long payload, double time) {
+        plan(new HandlerEvent(this, getHandler(handlerId), payload), time);
+    }
+
+    @Override
+    public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+    }
+
+    @Override
+    public void cleanUp() {
+    }
+
+    @Override
+    public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        super.reset(parameters, statistics, randoms);
+        outbox.clear();
+    }
+
+    double nextEventTime() {
+        Event next = getTimeline().peekEvent();
+        return next == null ? Double.POSITIVE_INFINITY : next.getTime();
+    }
+
+    void simulateBefore(double bound, SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        Event next = getTimeline().peekEvent();
+        while (next != null && next.getTime() < bound) {
+            executeEvent(getTimeline().nextEvent(), parameters, statistics, randoms);
+            next = getTimeline().peekEvent();
+        }
+    }
+
+    List<Message> getOutbox() {
+        return outbox;
+    }
+}
@@ -0,0 +1,244 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.parallel;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.Iterator;
+import java.util.List;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.exception.PastTimeException;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+/**
+ * Partition of the model simulated by {@link OptimisticParallelEngine}. Events are executed speculatively and rolled
+ * back when message from the past arrives. Primitive events are kept in the same calendar as event objects, so on
+ * equal time they run in the order they were planned.
+ *
+ * Rollback restores only what the process knows about: planned events are removed from the calendar, sent messages
+ * are cancelled by anti-messages and executed events are returned to the calendar. Every other change of the model
+ * state (including statistics and random generators) has to be recorded by {@link #saveState(Runnable)} before it is
+ * made.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public abstract class OptimisticLogicalProcess extends EventSimulationEngine {
+
+    private final TimeWarpCalendar calendar;
+    private final Deque<ProcessedEvent> processed;
+    private final List<TimeWarpMessage> outbox;
+    private ProcessedEvent current;
+    private long processedEvents;
+    private long rolledBackEvents;
+    private long rollbacks;
+    private long antiMessages;
+    private long committedEvents;
+
+    public OptimisticLogicalProcess() {
+        this(new TimeWarpCalendar());
+    }
+
+    private OptimisticLogicalProcess(TimeWarpCalendar calendar) {
+        super(Double.POSITIVE_INFINITY, calendar);
+        this.calendar = calendar;
+        this.processed = new ArrayDeque<>();
+        this.outbox = new ArrayList<>();
+    }
+
+    /**
+     * Send event to other logical process. Event is delivered when current round is finished
+     *
+     * @param target Receiving process
+     * @param event Event to plan in the receiving process. Event should be bound to receiving process
+     * @param time Time of the event
+     */
+    public final void send(OptimisticLogicalProcess target, Event event, double time) {
+        if (Double.compare(time, getCurrentTime()) < 0) {
+            throw new PastTimeException();
+        }
+        TimeWarpMessage message = new TimeWarpMessage(target, event, time, false);
+        if (current != null) {
+            current.getSent().add(message);
+        }
+        outbox.add(message);
+    }
+
+    /**
+     * Save part of the state changed by currently executed event. Has to be called before the change
+     *
+     * @param restore Action restoring the state to the value before the change
+     */
+    public final void saveState(Runnable restore) {
+        if (current != null) {
+            current.getStateChanges().add(restore);
+        }
+    }
+
+    /**
+     * Primitive events are planned to the calendar of this process as event objects running the handler, so they are
+     * rolled back like any other event. Listeners are notified about them as about objects
+     */
+    @Override
+    protected void planPrimitive(int handlerId, long payload, double time) {
+        plan(new HandlerEvent(this, getHandler(handlerId), payload), time);
+    }
+
+    @Override
+    public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+    }
+
+    @Override
+    public void cleanUp() {
+    }
+
+    @Override
+    public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        super.reset(parameters, statistics, randoms);
+        processed.clear();
+        outbox.clear();
+    }
+
+    /**
+     * Get number of event executions including the ones rolled back later
+     *
+     * @return Number of executed events
+     */
+    public long getProcessedEvents() {
+        return processedEvents;
+    }
+
+    /**
+     * Get number of event executions undone by rollbacks
+     *
+     * @return Number of rolled back events
+     */
+    public long getRolledBackEvents() {
+        return rolledBackEvents;
+    }
+
+    public long getRollbacks() {
+        return rollbacks;
+    }
+
+    public long getAntiMessages() {
+        return antiMessages;
+    }
+
+    /**
+     * Get number of events older than global virtual time. These will never be rolled back
+     *
+     * @return Number of committed events
+     */
+    public long getCommittedEvents() {
+        return committedEvents;
+    }
+
+    double nextEventTime() {
+        Event next = calendar.peekEvent();
+        return next == null ? Double.POSITIVE_INFINITY : next.getTime();
+    }
+
+    void simulateBefore(double bound, SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        Event next = calendar.peekEvent();
+        while (next != null && next.getTime() < bound) {
+            current = new ProcessedEvent(calendar.nextEvent());
+            calendar.setCurrent(current);
+            try {
+                executeEvent(current.getEvent(), parameters, statistics, randoms);
+            } finally {
+                calendar.setCurrent(null);
+            }
+            processed.addLast(current);
+            current = null;
+            processedEvents++;
+            next = calendar.peekEvent();
+        }
+    }
+
+    void receive(TimeWarpMessage message) {
+        Event event = message.getEvent();
+        if (message.isAnti()) {
+            if (wasProcessed(event, message.getTime())) {
+                rollback(message.getTime());
+            }
+            calendar.remove(event);
+            return;
+        }
+        if (!processed.isEmpty() && message.getTime() < processed.getLast().getTime()) {
+            rollback(message.getTime());
+        }
+        event.setTime(message.getTime());
+        calendar.planEvent(event);
+    }
+
+    void fossilCollect(double globalVirtualTime) {
+        while (!processed.isEmpty() && processed.getFirst().getTime() < globalVirtualTime) {
+            processed.removeFirst();
+            committedEvents++;
+        }
+    }
+
+    List<TimeWarpMessage> getOutbox() {
+        return outbox;
+    }
+
+    private boolean wasProcessed(Event event, double time) {
+        Iterator<ProcessedEvent> iterator = processed.descendingIterator();
+        while (iterator.hasNext()) {
+            ProcessedEvent record = iterator.next();
+            if (record.getTime() < time) {
+                return false;
+            }
+            if (record.getEvent() == event && record.getTime() == time) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void rollback(double time) {
+        while (!processed.isEmpty() && processed.getLast().getTime() >= time) {
+            ProcessedEvent undone = processed.removeLast();
+            List<Runnable> stateChanges = undone.getStateChanges();
+            for (int i = stateChanges.size() - 1; i >= 0; i--) {
+                stateChanges.get(i).run();
+            }
+            for (Event event : undone.getPlanned()) {
+                calendar.remove(event);
+            }
+            for (TimeWarpMessage message : undone.getSent()) {
+                outbox.add(message.toAntiMessage());
+                antiMessages++;
+            }
+            undone.getEvent().setTime(undone.getTime());
+            calendar.planEvent(undone.getEvent());
+            rolledBackEvents++;
+        }
+        rollbacks++;
+    }
+}
@@ -0,0 +1,263 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+/**
+ * Optimistic (Time Warp) parallel simulation engine. Logical processes execute events speculatively up to the optimism
+ * window ahead of global virtual time. Messages are exchanged between rounds, a message from the past rolls the
+ * receiving process back and the rolled back events cancel their messages by anti-messages. Execution records older
+ * than global virtual time are fossil collected.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class OptimisticParallelEngine implements SimulationEngine {
+
+    private final double maxTime;
+    private final double optimismWindow;
+    private final int parallelism;
+    private final List<OptimisticLogicalProcess> processes;
+    private double globalVirtualTime;
+    private volatile boolean running;
+    private volatile boolean interrupted;
+
+    /**
+     * Create engine using all available processors
+     *
+     * @param maxTime Events sooner than this time are simulated
+     * @param optimismWindow How far ahead of global virtual time processes may execute. Must be positive
+     */
+    public OptimisticParallelEngine(double maxTime, double optimismWindow) {
+        this(maxTime, optimismWindow, Runtime.getRuntime().availableProcessors());
+    }
+
+    /**
+     * Create engine
+     *
+     * @param maxTime Events sooner than this time are simulated
+     * @param optimismWindow How far ahead of global virtual time processes may execute. Must be positive
+     * @param parallelism Number of worker threads
+     */
+    public OptimisticParallelEngine(double maxTime, double optimismWindow, int parallelism) {
+        if (!(optimismWindow > 0)) {
+            throw new IllegalArgumentException("Optimism window must be positive");
+        }
+        this.maxTime = maxTime;
+        this.optimismWindow = optimismWindow;
+        this.parallelism = parallelism;
+        this.processes = new ArrayList<>();
+    }
+
+    /**
+     * Add logical process to the model
+     *
+     * @param process Process to add
+     */
+    public void addLogicalProcess(OptimisticLogicalProcess process) {
+        processes.add(process);
+    }
+
+    public List<OptimisticLogicalProcess> getLogicalProcesses() {
+        return processes;
+    }
+
+    @Override
+    public void simulate(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        this.running = true;
+        ExecutorService executor = Executors.newFixedThreadPool(parallelism);
+        try {
+            deliverMessages();
+            while (running && !interrupted) {
+                globalVirtualTime = Double.POSITIVE_INFINITY;
+                for (OptimisticLogicalProcess process : processes) {
+                    globalVirtualTime = Math.min(globalVirtualTime, process.nextEventTime());
+                }
+                for (OptimisticLogicalProcess process : processes) {
+                    process.fossilCollect(globalVirtualTime);
+                }
+                if (globalVirtualTime >= maxTime) {
+                    break;
+                }
+                simulateRound(executor, Math.min(maxTime, globalVirtualTime + optimismWindow), parameters, statistics, randoms);
+                deliverMessages();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private void simulateRound(ExecutorService executor, double bound, SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        List<Callable<Void>> tasks = new ArrayList<>();
+        for (OptimisticLogicalProcess process : processes) {
+            if (process.nextEventTime() < bound) {
+                tasks.add(() -> {
+                    process.simulateBefore(bound, parameters, statistics, randoms);
+                    return null;
+                });
+            }
+        }
+        try {
+            for (Future<Void> future : executor.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException ex) {
+            Logger.getLogger(OptimisticParallelEngine.class.getName()).log(Level.SEVERE, null, ex);
+            Thread.currentThread().interrupt();
+            running = false;
+        } catch (ExecutionException ex) {
+            if (ex.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) ex.getCause();
+            }
+            if (ex.getCause() instanceof Error) {
+                throw (Error) ex.getCause();
+            }
+            throw new IllegalStateException(ex.getCause());
+        }
+    }
+
+    private void deliverMessages() {
+        boolean delivered = true;
+        while (delivered) {
+            delivered = false;
+            for (OptimisticLogicalProcess process : processes) {
+                if (process.getOutbox().isEmpty()) {
+                    continue;
+                }
+                List<TimeWarpMessage> messages = new ArrayList<>(process.getOutbox());
+                process.getOutbox().clear();
+                for (TimeWarpMessage message : messages) {
+                    message.getTarget().receive(message);
+                }
+                delivered = true;
+            }
+        }
+    }
+
+    /**
+     * Stops simulation after current round. Engine does not simulate until interrupt is cleared
+     */
+    @Override
+    public void interrupt() {
+        interrupted = true;
+        stop();
+    }
+
+    @Override
+    public void clearInterrupt() {
+        interrupted = false;
+    }
+
+    /**
+     * Stop the simulation after current round
+     */
+    public void stop() {
+        running = false;
+    }
+
+    /**
+     * Get global virtual time. No event sooner than this time can be rolled back anymore
+     *
+     * @return Global virtual time computed in the last round
+     */
+    public double getGlobalVirtualTime() {
+        return globalVirtualTime;
+    }
+
+    public long getProcessedEvents() {
+        long sum = 0;
+        for (OptimisticLogicalProcess process : processes) {
+            sum += process.getProcessedEvents();
+        }
+        return sum;
+    }
+
+    public long getRolledBackEvents() {
+        long sum = 0;
+        for (OptimisticLogicalProcess process : processes) {
+            sum += process.getRolledBackEvents();
+        }
+        return sum;
+    }
+
+    public long getRollbacks() {
+        long sum = 0;
+        for (OptimisticLogicalProcess process : processes) {
+            sum += process.getRollbacks();
+        }
+        return sum;
+    }
+
+    public long getAntiMessages() {
+        long sum = 0;
+        for (OptimisticLogicalProcess process : processes) {
+            sum += process.getAntiMessages();
+        }
+        return sum;
+    }
+
+    /**
+     * Get share of executed events that were rolled back. Value close to zero means optimism pays off, value close to
+     * one means most of the work is wasted
+     *
+     * @return Rolled back events divided by processed events
+     */
+    public double getRollbackRate() {
+        long processedEvents = getProcessedEvents();
+        return processedEvents == 0 ? 0.0 : (double) getRolledBackEvents() / processedEvents;
+    }
+
+    @Override
+    public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+        for (OptimisticLogicalProcess process : processes) {
+            process.init(parameters, statistics, storage);
+        }
+    }
+
+    @Override
+    public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        for (OptimisticLogicalProcess process : processes) {
+            process.reset(parameters, statistics, randoms);
+        }
+    }
+
+    @Override
+    public void cleanUp() {
+        for (OptimisticLogicalProcess process : processes) {
+            process.cleanUp();
+        }
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+
+/**
+ * Record of speculatively executed event. Holds everything needed to undo the execution
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+class ProcessedEvent {
+
+    private final Event event;
+    private final double time;
+    private final List<Runnable> stateChanges;
+    private final List<Event> planned;
+    private final List<TimeWarpMessage> sent;
+
+    ProcessedEvent(Event event) {
+        this.event = event;
+        this.time = event.getTime();
+        this.stateChanges = new ArrayList<>(2);
+        this.planned = new ArrayList<>(2);
+        this.sent = new ArrayList<>(2);
+    }
+
+    Event getEvent() {
+        return event;
+    }
+
+    double getTime() {
+        return time;
+    }
+
+    List<Runnable> getStateChanges() {
+        return stateChanges;
+    }
+
+    List<Event> getPlanned() {
+        return planned;
+    }
+
+    List<TimeWarpMessage> getSent() {
+        return sent;
+    }
+}
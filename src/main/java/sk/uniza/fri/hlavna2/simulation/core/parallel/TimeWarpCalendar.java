@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.parallel;
+
+import java.util.PriorityQueue;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventCalendar;
+
+/**
+ * Calendar of optimistic logical process. Remembers events planned by currently executed event, so they can be
+ * cancelled on rollback
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+class TimeWarpCalendar implements EventCalendar {
+
+    private final PriorityQueue<Event> quee;
+    private ProcessedEvent current;
+
+    TimeWarpCalendar() {
+        quee = new PriorityQueue<>();
+    }
+
+    @Override
+    public void planEvent(Event event) {
+        quee.add(event);
+        if (current != null) {
+            current.getPlanned().add(event);
+        }
+    }
+
+    @Override
+    public Event nextEvent() {
+        return quee.poll();
+    }
+
+    @Override
+    public Event peekEvent() {
+        return quee.peek();
+    }
+
+    @Override
+    public boolean isEmpty() {
+        return quee.isEmpty();
+    }
+
+    @Override
+    public Event[] toArray() {
+        return quee.toArray(new Event[quee.size()]);
+    }
+
+    @Override
+    public void clear() {
+        quee.clear();
+    }
+
+    boolean remove(Event event) {
+        return quee.remove(event);
+    }
+
+    void setCurrent(ProcessedEvent current) {
+        this.current = current;
+    }
+}
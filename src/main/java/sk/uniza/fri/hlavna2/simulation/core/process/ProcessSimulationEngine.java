@@ -0,0 +1,186 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.process;
+
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.Semaphore;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventCalendar;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+/**
+ * Event engine running {@link SimProcess} entities. Every process runs on its own virtual thread, but only one thread
+ * runs at a time. Engine thread hands control to the process and waits until the process blocks in one of its
+ * primitives, so the run is deterministic and model state needs no synchronization.
+ *
+ * Processes which are still blocked when engine is reset or cleaned up are terminated and run to completion.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public abstract class ProcessSimulationEngine extends EventSimulationEngine {
+
+    private final Semaphore engineTurn;
+    private final Set<SimProcess> processes;
+    private final List<Resource> resources;
+    private final List<Signal> signals;
+    private boolean terminating;
+
+    public ProcessSimulationEngine(double maxTime) {
+        super(maxTime);
+        engineTurn = new Semaphore(0);
+        processes = new LinkedHashSet<>();
+        resources = new ArrayList<>();
+        signals = new ArrayList<>();
+    }
+
+    /**
+     * Create engine with custom calendar
+     *
+     * @param maxTime Simulation stops after this time
+     * @param timeline Calendar holding planned events
+     */
+    public ProcessSimulationEngine(double maxTime, EventCalendar timeline) {
+        super(maxTime, timeline);
+        engineTurn = new Semaphore(0);
+        processes = new LinkedHashSet<>();
+        resources = new ArrayList<>();
+        signals = new ArrayList<>();
+    }
+
+    /**
+     * Start new process or resume passivated one
+     *
+     * @param process Process to activate
+     * @param time Time of activation
+     * @throws IllegalStateException When process has finished, was terminated, is already planned to start or is
+     * blocked in other primitive than {@link SimProcess#passivate()}. Does nothing while processes are terminated
+     */
+    public void activate(SimProcess process, double time) {
+        if (terminating) {
+            return;
+        }
+        process.activated();
+        plan(process.getResume(), time);
+        processes.add(process);
+    }
+
+    /**
+     * Create resource which is reset together with engine
+     *
+     * @param capacity Number of units
+     * @return New resource
+     */
+    public Resource createResource(int capacity) {
+        Resource resource = new Resource(this, capacity);
+        resources.add(resource);
+        return resource;
+    }
+
+    /**
+     * Create signal which is reset together with engine
+     *
+     * @return New signal
+     */
+    public Signal createSignal() {
+        Signal signal = new Signal(this);
+        signals.add(signal);
+        return signal;
+    }
+
+    /**
+     * Terminate all processes which have not finished yet, including activated processes which have not started.
+     * Blocked processes are run to completion one by one before this method returns. Events they plan and resources
+     * they release while completing are ignored. Terminated processes cannot be activated again
+     */
+    public void terminateProcesses() {
+        terminating = true;
+        setDiscardingPlans(true);
+        try {
+            for (SimProcess process : processes) {
+                process.terminate();
+            }
+        } finally {
+            setDiscardingPlans(false);
+            terminating = false;
+        }
+        processes.clear();
+    }
+
+    public int getActiveProcesses() {
+        return processes.size();
+    }
+
+    /**
+     * Terminates remaining processes, then resets engine together with all resources and signals
+     */
+    @Override
+    public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        terminateProcesses();
+        super.reset(parameters, statistics, randoms);
+        for (Resource resource : resources) {
+            resource.reset();
+        }
+        for (Signal signal : signals) {
+            signal.reset();
+        }
+    }
+
+    /**
+     * Terminates remaining processes. Subclasses should call this method
+     */
+    @Override
+    public void cleanUp() {
+        terminateProcesses();
+    }
+
+    void transfer(SimProcess process) {
+        process.start();
+        engineTurn.acquireUninterruptibly();
+        Throwable failure = process.getFailure();
+        if (failure != null) {
+            if (failure instanceof Error) {
+                throw (Error) failure;
+            }
+            throw (RuntimeException) failure;
+        }
+    }
+
+    void yieldToEngine() {
+        engineTurn.release();
+    }
+
+    void awaitTurn() {
+        engineTurn.acquireUninterruptibly();
+    }
+
+    void finished(SimProcess process) {
+        processes.remove(process);
+    }
+
+}
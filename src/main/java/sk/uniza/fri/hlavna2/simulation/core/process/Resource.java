@@ -0,0 +1,87 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.process;
+
+import java.util.ArrayDeque;
+
+/**
+ * Resource with limited capacity shared by processes. Waiting processes are served in FIFO order
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class Resource {
+
+    private final ProcessSimulationEngine engine;
+    private final int capacity;
+    private final ArrayDeque<SimProcess> waiting;
+    private int available;
+
+    /**
+     * Create resource. Use {@link ProcessSimulationEngine#createResource(int)}, which registers it for reset
+     *
+     * @param engine Engine of the processes
+     * @param capacity Number of units
+     */
+    Resource(ProcessSimulationEngine engine, int capacity) {
+        this.engine = engine;
+        this.capacity = capacity;
+        this.available = capacity;
+        this.waiting = new ArrayDeque<>();
+    }
+
+    public int getCapacity() {
+        return capacity;
+    }
+
+    public int getAvailable() {
+        return available;
+    }
+
+    public int getQueueLength() {
+        return waiting.size();
+    }
+
+    boolean seize(SimProcess process) {
+        if (available > 0) {
+            available--;
+            return true;
+        }
+        waiting.add(process);
+        return false;
+    }
+
+    void release() {
+        SimProcess next = waiting.poll();
+        if (next == null) {
+            available++;
+        } else {
+            engine.plan(next.getResume(), engine.getCurrentTime());
+        }
+    }
+
+    void reset() {
+        waiting.clear();
+        available = capacity;
+    }
+}
@@ -0,0 +1,70 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.process;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Condition processes can wait for. Raising the signal resumes all waiting processes at current time
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class Signal {
+
+    private final ProcessSimulationEngine engine;
+    private final List<SimProcess> waiting;
+
+    /**
+     * Create signal. Use {@link ProcessSimulationEngine#createSignal()}, which registers it for reset
+     *
+     * @param engine Engine of the processes
+     */
+    Signal(ProcessSimulationEngine engine) {
+        this.engine = engine;
+        this.waiting = new ArrayList<>();
+    }
+
+    /**
+     * Resume all waiting processes
+     */
+    public void raise() {
+        for (SimProcess process : waiting) {
+            engine.plan(process.getResume(), engine.getCurrentTime());
+        }
+        waiting.clear();
+    }
+
+    public int getWaiting() {
+        return waiting.size();
+    }
+
+    void enqueue(SimProcess process) {
+        waiting.add(process);
+    }
+
+    void reset() {
+        waiting.clear();
+    }
+}
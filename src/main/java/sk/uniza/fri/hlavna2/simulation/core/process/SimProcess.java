@@ -0,0 +1,224 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.process;
+
+import java.util.concurrent.Semaphore;
+import java.util.logging.Level;
+import java.util.logging.Logger;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.exception.ProcessTerminatedException;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+/**
+ * Entity of the model written as sequential code. Body of the process runs on virtual thread and uses blocking
+ * primitives {@link #hold(double)}, {@link #request(Resource)}, {@link #waitFor(Signal)} and {@link #passivate()},
+ * which return control to the engine until the simulation time of the process comes again.
+ *
+ * Primitives may be called only from the body of the process.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public abstract class SimProcess {
+
+    private final ProcessSimulationEngine engine;
+    private final Semaphore turn;
+    private final Resume resume;
+    private Thread thread;
+    private Throwable failure;
+    private boolean passive;
+    private boolean planned;
+    private boolean finished;
+    private volatile boolean terminated;
+
+    public SimProcess(ProcessSimulationEngine engine) {
+        this.engine = engine;
+        this.turn = new Semaphore(0);
+        this.resume = new Resume(this);
+    }
+
+    /**
+     * Body of the process
+     */
+    protected abstract void run();
+
+    /**
+     * Wait for given simulation time
+     *
+     * @param duration Time to wait
+     */
+    protected void hold(double duration) {
+        if (terminated) {
+            throw new ProcessTerminatedException();
+        }
+        engine.plan(resume, engine.getCurrentTime() + duration);
+        suspend();
+    }
+
+    /**
+     * Seize one unit of the resource, waiting in its queue if no unit is free
+     *
+     * @param resource Requested resource
+     */
+    protected void request(Resource resource) {
+        if (!resource.seize(this)) {
+            suspend();
+        }
+    }
+
+    /**
+     * Return one unit of the resource. Unit is handed to the first waiting process. Does nothing when process is
+     * terminated, so releasing in finally block does not change resources of the next replication
+     *
+     * @param resource Released resource
+     */
+    protected void release(Resource resource) {
+        if (!terminated) {
+            resource.release();
+        }
+    }
+
+    /**
+     * Wait until signal is raised
+     *
+     * @param signal Awaited signal
+     */
+    protected void waitFor(Signal signal) {
+        signal.enqueue(this);
+        suspend();
+    }
+
+    /**
+     * Wait until process is activated again by {@link ProcessSimulationEngine#activate(SimProcess, double)}
+     */
+    protected void passivate() {
+        passive = true;
+        suspend();
+    }
+
+    protected double getCurrentTime() {
+        return engine.getCurrentTime();
+    }
+
+    public ProcessSimulationEngine getEngine() {
+        return engine;
+    }
+
+    public boolean isPassive() {
+        return passive;
+    }
+
+    Resume getResume() {
+        return resume;
+    }
+
+    Throwable getFailure() {
+        return failure;
+    }
+
+    void activated() {
+        if (finished || terminated) {
+            throw new IllegalStateException("Process has already finished");
+        }
+        if (planned || (thread != null && !passive)) {
+            throw new IllegalStateException("Process is already active");
+        }
+        planned = true;
+    }
+
+    void start() {
+        if (finished || terminated) {
+            throw new IllegalStateException("Process has already finished");
+        }
+        planned = false;
+        passive = false;
+        if (thread == null) {
+            thread = Thread.ofVirtual().start(this::body);
+        } else {
+            turn.release();
+        }
+    }
+
+    /**
+     * Terminate process. Blocked process is resumed and engine waits until its body completes, so its finally blocks
+     * do not run next to the engine
+     */
+    void terminate() {
+        terminated = true;
+        if (thread != null && !finished && thread != Thread.currentThread()) {
+            turn.release();
+            engine.awaitTurn();
+        }
+    }
+
+    private void suspend() {
+        if (terminated) {
+            throw new ProcessTerminatedException();
+        }
+        engine.yieldToEngine();
+        turn.acquireUninterruptibly();
+        if (terminated) {
+            throw new ProcessTerminatedException();
+        }
+    }
+
+    private void body() {
+        try {
+            run();
+        } catch (ProcessTerminatedException ex) {
+            //NOTE: expected when engine terminates the process
+        } catch (Throwable ex) {
+            if (terminated) {
+                Logger.getLogger(SimProcess.class.getName()).log(Level.WARNING, "Terminated process failed", ex);
+            } else {
+                failure = ex;
+            }
+        }
+        finished = true;
+        if (!terminated) {
+            engine.finished(this);
+        }
+        engine.yieldToEngine();
+    }
+
+    static final class Resume extends Event {
+
+        private final SimProcess process;
+
+        Resume(SimProcess process) {
+            super(0.0, process.engine);
+            this.process = process;
+        }
+
+        @Override
+        protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+            process.engine.transfer(process);
+        }
+
+        public SimProcess getProcess() {
+            return process;
+        }
+    }
+}
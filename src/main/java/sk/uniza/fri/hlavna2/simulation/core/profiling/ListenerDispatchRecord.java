@@ -0,0 +1,64 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning notification of one event listener
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+@Name(ListenerDispatchRecord.NAME)
+@Label("Listener Dispatch")
+@Category({"Simulation", "Engine"})
+@Description("Notification of the event listener")
+public final class ListenerDispatchRecord extends jdk.jfr.Event {
+
+    public static final String NAME = "sk.uniza.fri.hlavna2.simulation.ListenerDispatch";
+
+    @Label("Listener Type")
+    String listenerType;
+
+    @Label("Event Type")
+    String eventType;
+
+    /**
+     * End the span and commit it if recording is interested
+     *
+     * @param listener Class of the listener
+     * @param event Class of the event
+     */
+    public void complete(Class<?> listener, Class<?> event) {
+        end();
+        if (shouldCommit()) {
+            listenerType = listener.getName();
+            eventType = event.getName();
+            commit();
+        }
+    }
+}
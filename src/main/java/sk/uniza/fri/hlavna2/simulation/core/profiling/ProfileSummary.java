@@ -0,0 +1,231 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.profiling;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordingFile;
+
+/**
+ * Aggregates simulation events from flight recording into per type hot lists. Hot lists are sorted by total time
+ * spent, so most expensive event types, calendar operations and listeners come first
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public final class ProfileSummary {
+
+    private final Map<String, Entry> events;
+    private final Map<String, Entry> calendar;
+    private final Map<String, Entry> listeners;
+    private final Entry replications;
+
+    private ProfileSummary() {
+        this.events = new HashMap<>();
+        this.calendar = new HashMap<>();
+        this.listeners = new HashMap<>();
+        this.replications = new Entry("replication");
+    }
+
+    /**
+     * Read recording and aggregate all simulation events in it
+     *
+     * @param recording Path to the .jfr file
+     * @return Summary of the recording
+     * @throws IOException When recording can not be read
+     */
+    public static ProfileSummary summarize(Path recording) throws IOException {
+        ProfileSummary summary = new ProfileSummary();
+        try (RecordingFile file = new RecordingFile(recording)) {
+            while (file.hasMoreEvents()) {
+                summary.add(file.readEvent());
+            }
+        }
+        return summary;
+    }
+
+    private void add(RecordedEvent event) {
+        long nanos = event.getDuration().toNanos();
+        switch (event.getEventType().getName()) {
+            case EventExecutionRecord.NAME:
+                entry(events, event.getString("eventType")).add(nanos);
+                break;
+            case CalendarOperationRecord.NAME:
+                entry(calendar, event.getString("calendarType") + "." + event.getString("operation")).add(nanos);
+                break;
+            case ListenerDispatchRecord.NAME:
+                entry(listeners, event.getString("listenerType")).add(nanos);
+                break;
+            case ReplicationRecord.NAME:
+                replications.add(nanos);
+                if (event.getBoolean("cached")) {
+                    replications.cached++;
+                }
+                break;
+            default:
+        }
+    }
+
+    private static Entry entry(Map<String, Entry> entries, String name) {
+        return entries.computeIfAbsent(name, Entry::new);
+    }
+
+    private static List<Entry> hotList(Map<String, Entry> entries) {
+        List<Entry> list = new ArrayList<>(entries.values());
+        list.sort((a, b) -> Long.compare(b.total, a.total));
+        return Collections.unmodifiableList(list);
+    }
+
+    /**
+     * @return Executed event types, most expensive first
+     */
+    public List<Entry> getEvents() {
+        return hotList(events);
+    }
+
+    /**
+     * @return Calendar operations by calendar type, most expensive first
+     */
+    public List<Entry> getCalendarOperations() {
+        return hotList(calendar);
+    }
+
+    /**
+     * @return Event listeners, most expensive first
+     */
+    public List<Entry> getListeners() {
+        return hotList(listeners);
+    }
+
+    public Entry getReplications() {
+        return replications;
+    }
+
+    /**
+     * Print all hot lists
+     *
+     * @param out Stream to print to
+     */
+    public void print(PrintStream out) {
+        print(out, "Events", getEvents());
+        print(out, "Calendar operations", getCalendarOperations());
+        print(out, "Listeners", getListeners());
+        if (replications.count > 0) {
+            out.println("Replications");
+            out.printf("  %d replications (%d cached), mean %s, max %s%n", replications.count, replications.cached,
+                    Duration.ofNanos(replications.getMean()), Duration.ofNanos(replications.max));
+        }
+    }
+
+    private static void print(PrintStream out, String title, List<Entry> entries) {
+        if (entries.isEmpty()) {
+            return;
+        }
+        out.println(title);
+        out.printf("  %-60s %12s %14s %12s %12s%n", "type", "count", "total [us]", "mean [ns]", "max [ns]");
+        for (Entry entry : entries) {
+            out.printf("  %-60s %12d %14d %12d %12d%n", entry.name, entry.count, entry.total / 1000,
+                    entry.getMean(), entry.max);
+        }
+    }
+
+    /**
+     * Print summary of the recording given as the first argument
+     *
+     * @param args Path to the .jfr file
+     * @throws IOException When recording can not be read
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length != 1) {
+            System.err.println("Usage: ProfileSummary <recording.jfr>");
+            System.exit(1);
+        }
+        summarize(Path.of(args[0])).print(System.out);
+    }
+
+    /**
+     * Aggregated durations of one type
+     */
+    public static final class Entry {
+
+        private final String name;
+        private long count;
+        private long cached;
+        private long total;
+        private long max;
+
+        private Entry(String name) {
+            this.name = name;
+        }
+
+        private void add(long nanos) {
+            count++;
+            total += nanos;
+            max = Math.max(max, nanos);
+        }
+
+        public String getName() {
+            return name;
+        }
+
+        public long getCount() {
+            return count;
+        }
+
+        /**
+         * @return Number of entries served from the cache, used only by replications
+         */
+        public long getCached() {
+            return cached;
+        }
+
+        /**
+         * @return Total duration in nanoseconds
+         */
+        public long getTotal() {
+            return total;
+        }
+
+        /**
+         * @return Mean duration in nanoseconds
+         */
+        public long getMean() {
+            return count == 0 ? 0 : total / count;
+        }
+
+        /**
+         * @return Maximal duration in nanoseconds
+         */
+        public long getMax() {
+            return max;
+        }
+    }
+}
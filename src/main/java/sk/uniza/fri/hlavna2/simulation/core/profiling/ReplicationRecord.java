@@ -0,0 +1,69 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.profiling;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+
+/**
+ * Flight recorder event spanning one replication solved by the replication engine
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+@Name(ReplicationRecord.NAME)
+@Label("Replication")
+@Category({"Simulation", "Replications"})
+@Description("Simulation of one replication")
+public final class ReplicationRecord extends jdk.jfr.Event {
+
+    public static final String NAME = "sk.uniza.fri.hlavna2.simulation.Replication";
+
+    @Label("Substream")
+    long substream;
+
+    @Label("Antithetic")
+    boolean antithetic;
+
+    @Label("Cached")
+    boolean cached;
+
+    /**
+     * End the span and commit it if recording is interested
+     *
+     * @param replication Random substream of the replication
+     * @param antitheticNumbers Whether replication used antithetic numbers
+     * @param fromCache Whether result was served from the cache
+     */
+    public void complete(long replication, boolean antitheticNumbers, boolean fromCache) {
+        end();
+        if (shouldCommit()) {
+            substream = replication;
+            antithetic = antitheticNumbers;
+            cached = fromCache;
+            commit();
+        }
+    }
+}
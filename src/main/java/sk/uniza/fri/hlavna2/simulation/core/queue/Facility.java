@@ -0,0 +1,248 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.queue;
+
+import java.util.Arrays;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.utils.TimeWeightedStatistic;
+
+/**
+ * Resource with several identical servers and a queue of waiting entities. Queue length and number of busy servers
+ * are collected as time weighted statistics automatically. Servers are identified by index, so seize and release do
+ * not search and do not allocate.
+ *
+ * Facility does not plan any events. Entity which gets a server, either by {@link #seize(Object, int)} or as a result
+ * of {@link #release(int)}, has to be served by the model. Facility should be registered by
+ * {@link EventSimulationEngine#registerFacility(Facility)}, so it is reset together with the engine.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ * @param <T> Type of the entity
+ */
+public class Facility<T> {
+
+    public static final int QUEUED = -1;
+    private final EventSimulationEngine engine;
+    private final QueueDiscipline discipline;
+    private final EntityQueue<T> queue;
+    private final Object[] inService;
+    private final int[] servicePriorities;
+    private final int[] freeServers;
+    private final TimeWeightedStatistic queueLength;
+    private final TimeWeightedStatistic busyServers;
+    private PreemptionListener<T> preemptionListener;
+    private int free;
+    private T lastServed;
+
+    /**
+     * Create facility with FIFO queue
+     *
+     * @param engine Engine providing current time
+     * @param servers Number of servers
+     */
+    public Facility(EventSimulationEngine engine, int servers) {
+        this(engine, servers, QueueDiscipline.FIFO);
+    }
+
+    /**
+     * Create facility
+     *
+     * @param engine Engine providing current time
+     * @param servers Number of servers
+     * @param discipline Order of serving waiting entities
+     */
+    public Facility(EventSimulationEngine engine, int servers, QueueDiscipline discipline) {
+        this.engine = engine;
+        this.discipline = discipline;
+        this.queue = discipline == QueueDiscipline.FIFO ? new RingQueue<>() : new PriorityArrayQueue<>();
+        this.inService = new Object[servers];
+        this.servicePriorities = new int[servers];
+        this.freeServers = new int[servers];
+        this.queueLength = new TimeWeightedStatistic();
+        this.busyServers = new TimeWeightedStatistic();
+        reset();
+    }
+
+    public void setPreemptionListener(PreemptionListener<T> preemptionListener) {
+        this.preemptionListener = preemptionListener;
+    }
+
+    /**
+     * Seize server with default priority
+     *
+     * @param entity Arriving entity
+     * @return Index of the seized server or {@link #QUEUED} if entity waits in queue
+     */
+    public int seize(T entity) {
+        return seize(entity, 0);
+    }
+
+    /**
+     * Seize server. If no server is free, entity waits in queue. With preemptive discipline entity takes server of the
+     * entity with the lowest priority in service if that priority is lower.
+     *
+     * @param entity Arriving entity
+     * @param priority Priority of the entity, higher is served first
+     * @return Index of the seized server or {@link #QUEUED} if entity waits in queue
+     */
+    public int seize(T entity, int priority) {
+        if (free > 0) {
+            int server = freeServers[--free];
+            serve(server, entity, priority);
+            busyServers.update(engine.getCurrentTime(), inService.length - free);
+            return server;
+        }
+        if (discipline == QueueDiscipline.PREEMPTIVE) {
+            int lowest = 0;
+            for (int i = 1; i < inService.length; i++) {
+                if (servicePriorities[i] < servicePriorities[lowest]) {
+                    lowest = i;
+                }
+            }
+            if (inService.length > 0 && servicePriorities[lowest] < priority) {
+                @SuppressWarnings("unchecked")
+                T preempted = (T) inService[lowest];
+                ((PriorityArrayQueue<T>) queue).addFirst(preempted, servicePriorities[lowest]);
+                queueLength.update(engine.getCurrentTime(), queue.size());
+                serve(lowest, entity, priority);
+                if (preemptionListener != null) {
+                    preemptionListener.preempted(preempted, lowest);
+                }
+                return lowest;
+            }
+        }
+        queue.add(entity, priority);
+        lastServed = null;
+        queueLength.update(engine.getCurrentTime(), queue.size());
+        return QUEUED;
+    }
+
+    /**
+     * Release server. If queue is not empty, first waiting entity takes the server and can be obtained by
+     * {@link #getLastServed()}
+     *
+     * @param server Index of the released server
+     * @return Index of the server if it was taken by waiting entity, {@link #QUEUED} if it is free
+     */
+    public int release(int server) {
+        double time = engine.getCurrentTime();
+        if (queue.size() > 0) {
+            int priority = discipline == QueueDiscipline.FIFO ? 0 : ((PriorityArrayQueue<T>) queue).peekPriority();
+            serve(server, queue.poll(), priority);
+            queueLength.update(time, queue.size());
+            return server;
+        }
+        inService[server] = null;
+        lastServed = null;
+        freeServers[free++] = server;
+        busyServers.update(time, inService.length - free);
+        return QUEUED;
+    }
+
+    /**
+     * Get entity served by given server
+     *
+     * @param server Index of the server
+     * @return Entity or null if server is free
+     */
+    @SuppressWarnings("unchecked")
+    public T getInService(int server) {
+        return (T) inService[server];
+    }
+
+    /**
+     * Get entity which took server in the last {@link #seize(Object, int)} or {@link #release(int)}
+     *
+     * @return Served entity or null if last call did not start any service
+     */
+    public T getLastServed() {
+        return lastServed;
+    }
+
+    public int getServers() {
+        return inService.length;
+    }
+
+    public int getBusy() {
+        return inService.length - free;
+    }
+
+    public int getQueueLength() {
+        return queue.size();
+    }
+
+    /**
+     * Get average number of waiting entities up to current time
+     *
+     * @return Time weighted queue length
+     */
+    public double getAverageQueueLength() {
+        return queueLength.getAverage(engine.getCurrentTime());
+    }
+
+    /**
+     * Get ratio of busy servers up to current time
+     *
+     * @return Utilization between zero and one
+     */
+    public double getUtilization() {
+        return busyServers.getAverage(engine.getCurrentTime()) / inService.length;
+    }
+
+    public TimeWeightedStatistic getQueueLengthStatistic() {
+        return queueLength;
+    }
+
+    public TimeWeightedStatistic getBusyServersStatistic() {
+        return busyServers;
+    }
+
+    /**
+     * Restart collecting statistics from current time without changing state, e.g. after warm up
+     */
+    public void resetStatistics() {
+        queueLength.reset(engine.getCurrentTime());
+        busyServers.reset(engine.getCurrentTime());
+    }
+
+    /**
+     * Free all servers, clear queue and statistics
+     */
+    public final void reset() {
+        queue.clear();
+        Arrays.fill(inService, null);
+        for (int i = 0; i < freeServers.length; i++) {
+            freeServers[i] = freeServers.length - 1 - i;
+        }
+        free = freeServers.length;
+        lastServed = null;
+        queueLength.clear();
+        busyServers.clear();
+    }
+
+    private void serve(int server, T entity, int priority) {
+        inService[server] = entity;
+        servicePriorities[server] = priority;
+        lastServed = entity;
+    }
+}
@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.queue;
+
+import java.util.Arrays;
+
+/**
+ * Priority queue implemented as binary heap over parallel arrays of entities, priorities and arrival numbers.
+ * Entities with higher priority are served first, entities with equal priority in FIFO order. Arrays are never
+ * shrunk, so queue in steady state does not allocate.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ * @param <T> Type of the entity
+ */
+public class PriorityArrayQueue<T> implements EntityQueue<T> {
+
+    private Object[] items;
+    private int[] priorities;
+    private long[] arrivals;
+    private int size;
+    private long nextArrival;
+    private long nextReturn;
+
+    public PriorityArrayQueue() {
+        this(16);
+    }
+
+    /**
+     * Create queue
+     *
+     * @param capacity Initial capacity
+     */
+    public PriorityArrayQueue(int capacity) {
+        items = new Object[Math.max(capacity, 2)];
+        priorities = new int[items.length];
+        arrivals = new long[items.length];
+        nextReturn = -1;
+    }
+
+    @Override
+    public void add(T entity, int priority) {
+        insert(entity, priority, nextArrival++);
+    }
+
+    /**
+     * Add entity in front of all entities with the same priority, e.g. entity returned by preemption
+     *
+     * @param entity Waiting entity
+     * @param priority Priority of the entity
+     */
+    public void addFirst(T entity, int priority) {
+        insert(entity, priority, nextReturn--);
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        if (size == 0) {
+            return null;
+        }
+        T entity = (T) items[0];
+        size--;
+        items[0] = items[size];
+        priorities[0] = priorities[size];
+        arrivals[0] = arrivals[size];
+        items[size] = null;
+        siftDown(0);
+        return entity;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        return size == 0 ? null : (T) items[0];
+    }
+
+    /**
+     * Get priority of the first entity
+     *
+     * @return Priority of the first entity or {@link Integer#MIN_VALUE} if queue is empty
+     */
+    public int peekPriority() {
+        return size == 0 ? Integer.MIN_VALUE : priorities[0];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        Arrays.fill(items, 0, size, null);
+        size = 0;
+        nextArrival = 0;
+        nextReturn = -1;
+    }
+
+    private void insert(Object entity, int priority, long arrival) {
+        if (size == items.length) {
+            items = Arrays.copyOf(items, size << 1);
+            priorities = Arrays.copyOf(priorities, size << 1);
+            arrivals = Arrays.copyOf(arrivals, size << 1);
+        }
+        int i = size++;
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (!before(priority, arrival, priorities[parent], arrivals[parent])) {
+                break;
+            }
+            move(parent, i);
+            i = parent;
+        }
+        items[i] = entity;
+        priorities[i] = priority;
+        arrivals[i] = arrival;
+    }
+
+    private void siftDown(int i) {
+        Object entity = items[i];
+        int priority = priorities[i];
+        long arrival = arrivals[i];
+        int half = size >>> 1;
+        while (i < half) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && before(priorities[child + 1], arrivals[child + 1], priorities[child], arrivals[child])) {
+                child++;
+            }
+            if (!before(priorities[child], arrivals[child], priority, arrival)) {
+                break;
+            }
+            move(child, i);
+            i = child;
+        }
+        items[i] = entity;
+        priorities[i] = priority;
+        arrivals[i] = arrival;
+    }
+
+    private void move(int from, int to) {
+        items[to] = items[from];
+        priorities[to] = priorities[from];
+        arrivals[to] = arrivals[from];
+    }
+
+    private static boolean before(int priority, long arrival, int otherPriority, long otherArrival) {
+        return priority > otherPriority || (priority == otherPriority && arrival < otherArrival);
+    }
+}
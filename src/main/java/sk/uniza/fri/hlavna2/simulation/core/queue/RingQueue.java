@@ -0,0 +1,126 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.queue;
+
+/**
+ * FIFO queue backed by array used as a ring buffer. Array grows to the next power of two when full and is never
+ * shrunk, so queue in steady state does not allocate.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ * @param <T> Type of the entity
+ */
+public class RingQueue<T> implements EntityQueue<T> {
+
+    private Object[] items;
+    private int head;
+    private int size;
+
+    public RingQueue() {
+        this(16);
+    }
+
+    /**
+     * Create queue
+     *
+     * @param capacity Initial capacity, rounded up to power of two
+     */
+    public RingQueue(int capacity) {
+        int length = Integer.highestOneBit(Math.max(capacity, 2) - 1) << 1;
+        items = new Object[length];
+    }
+
+    /**
+     * Add entity to the end of the queue
+     *
+     * @param entity Waiting entity
+     */
+    public void add(T entity) {
+        if (size == items.length) {
+            grow();
+        }
+        items[(head + size) & (items.length - 1)] = entity;
+        size++;
+    }
+
+    @Override
+    public void add(T entity, int priority) {
+        add(entity);
+    }
+
+    /**
+     * Add entity to the front of the queue
+     *
+     * @param entity Entity served next
+     */
+    public void addFirst(T entity) {
+        if (size == items.length) {
+            grow();
+        }
+        head = (head - 1) & (items.length - 1);
+        items[head] = entity;
+        size++;
+    }
+
+    @Override
+    @SuppressWarnings("unchecked")
+    public T poll() {
+        if (size == 0) {
+            return null;
+        }
+        T entity = (T) items[head];
+        items[head] = null;
+        head = (head + 1) & (items.length - 1);
+        size--;
+        return entity;
+    }
+
+    @SuppressWarnings("unchecked")
+    public T peek() {
+        return size == 0 ? null : (T) items[head];
+    }
+
+    @Override
+    public int size() {
+        return size;
+    }
+
+    @Override
+    public void clear() {
+        while (size > 0) {
+            items[head] = null;
+            head = (head + 1) & (items.length - 1);
+            size--;
+        }
+        head = 0;
+    }
+
+    private void grow() {
+        Object[] grown = new Object[items.length << 1];
+        for (int i = 0; i < size; i++) {
+            grown[i] = items[(head + i) & (items.length - 1)];
+        }
+        items = grown;
+        head = 0;
+    }
+}
@@ -0,0 +1,197 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.results;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Reader of files written by {@link ColumnarResultsWriter}. Reads one row group at a time. Incomplete row group at the
+ * end of the file (e.g. after aborted study) is ignored.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ColumnarResultsReader implements Closeable {
+
+    private final FileChannel channel;
+    private final List<String> columns;
+    private int[] replications;
+    private double[][] values;
+    private int rows;
+
+    /**
+     * Open file and read its header
+     *
+     * @param file File to read
+     * @throws IOException When file cannot be read or is not a results file
+     */
+    public ColumnarResultsReader(Path file) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.READ);
+        this.columns = new ArrayList<>();
+        ByteBuffer header = read(12);
+        if (header == null) {
+            return;
+        }
+        if (header.getLong() != ColumnarResultsWriter.MAGIC) {
+            channel.close();
+            throw new IOException("Not a columnar results file");
+        }
+        int count = header.getInt();
+        for (int i = 0; i < count; i++) {
+            ByteBuffer length = read(4);
+            ByteBuffer name = length == null ? null : read(length.getInt());
+            if (name == null) {
+                columns.clear();
+                return;
+            }
+            columns.add(StandardCharsets.UTF_8.decode(name).toString());
+        }
+        values = new double[count][];
+        replications = new int[0];
+    }
+
+    public List<String> getColumns() {
+        return Collections.unmodifiableList(columns);
+    }
+
+    /**
+     * Read next row group
+     *
+     * @return False if there is no other complete row group
+     * @throws IOException When reading fails
+     */
+    public boolean nextRowGroup() throws IOException {
+        if (values == null) {
+            return false;
+        }
+        long start = channel.position();
+        ByteBuffer size = read(4);
+        if (size == null) {
+            return false;
+        }
+        int count = size.getInt();
+        ByteBuffer data = read(count * (4L + 8L * columns.size()));
+        if (data == null) {
+            channel.position(start);
+            return false;
+        }
+        rows = count;
+        if (replications.length < count) {
+            replications = new int[count];
+            for (int column = 0; column < values.length; column++) {
+                values[column] = new double[count];
+            }
+        }
+        for (int row = 0; row < count; row++) {
+            replications[row] = data.getInt();
+        }
+        for (double[] column : values) {
+            for (int row = 0; row < count; row++) {
+                column[row] = data.getDouble();
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Get number of rows in the current row group
+     *
+     * @return Number of rows
+     */
+    public int getRows() {
+        return rows;
+    }
+
+    public int getReplication(int row) {
+        return replications[row];
+    }
+
+    public double getValue(int column, int row) {
+        return values[column][row];
+    }
+
+    /**
+     * Export whole file as CSV with one row per replication
+     *
+     * @param file File to export
+     * @param writer Target of the CSV
+     * @throws IOException When reading or writing fails
+     */
+    public static void exportCsv(Path file, Writer writer) throws IOException {
+        try (ColumnarResultsReader reader = new ColumnarResultsReader(file)) {
+            writer.write("replication");
+            for (String column : reader.getColumns()) {
+                writer.write(',');
+                writer.write(escape(column));
+            }
+            writer.write('\n');
+            while (reader.nextRowGroup()) {
+                for (int row = 0; row < reader.getRows(); row++) {
+                    writer.write(Integer.toString(reader.getReplication(row)));
+                    for (int column = 0; column < reader.getColumns().size(); column++) {
+                        writer.write(',');
+                        writer.write(Double.toString(reader.getValue(column, row)));
+                    }
+                    writer.write('\n');
+                }
+            }
+            writer.flush();
+        }
+    }
+
+    private static String escape(String value) {
+        if (value.indexOf(',') < 0 && value.indexOf('"') < 0 && value.indexOf('\n') < 0 && value.indexOf('\r') < 0) {
+            return value;
+        }
+        return '"' + value.replace("\"", "\"\"") + '"';
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+
+    private ByteBuffer read(long size) throws IOException {
+        if (channel.size() - channel.position() < size) {
+            return null;
+        }
+        ByteBuffer buffer = ByteBuffer.allocate((int) size);
+        while (buffer.hasRemaining()) {
+            if (channel.read(buffer) < 0) {
+                return null;
+            }
+        }
+        buffer.flip();
+        return buffer;
+    }
+}
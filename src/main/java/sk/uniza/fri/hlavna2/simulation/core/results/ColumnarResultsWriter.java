@@ -0,0 +1,199 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.results;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.ToDoubleFunction;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.listeners.SimulationProgressListener;
+
+/**
+ * Progress listener streaming values of every replication to an append-only columnar file. Columns are read from the
+ * statistics {@link sk.uniza.fri.hlavna2.simulation.core.ReplicationEngine} passes to listeners, which are cumulative
+ * over all replications finished so far, not statistics of the single replication. Rows are buffered in primitive
+ * arrays and written as row groups: number of rows, replication numbers and then values of every column. Only one row
+ * group is kept in memory. Groups are written when full. When the flush interval passes, partial group is written as
+ * well and data is forced to disk, so results of an aborted study can be read up to the last flush by
+ * {@link ColumnarResultsReader}.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ColumnarResultsWriter implements SimulationProgressListener, Closeable {
+
+    static final long MAGIC = 0x53494d434f4c3031L;
+    private final FileChannel channel;
+    private final List<String> names;
+    private final List<ToDoubleFunction<Statistics>> columns;
+    private final int rowGroupSize;
+    private final long flushInterval;
+    private int[] replications;
+    private double[][] values;
+    private ByteBuffer buffer;
+    private int rows;
+    private long lastFlush;
+
+    /**
+     * Create writer. Existing file is overwritten
+     *
+     * @param file Target file
+     * @param rowGroupSize Number of rows in one row group, has to be positive
+     * @param flushInterval Milliseconds between writing buffered rows and forcing them to disk
+     * @throws IOException When file cannot be opened
+     */
+    public ColumnarResultsWriter(Path file, int rowGroupSize, long flushInterval) throws IOException {
+        if (rowGroupSize <= 0) {
+            throw new IllegalArgumentException("Row group size has to be positive, was " + rowGroupSize);
+        }
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE, StandardOpenOption.TRUNCATE_EXISTING);
+        this.names = new ArrayList<>();
+        this.columns = new ArrayList<>();
+        this.rowGroupSize = rowGroupSize;
+        this.flushInterval = flushInterval;
+        this.lastFlush = System.currentTimeMillis();
+    }
+
+    /**
+     * Add column. Columns have to be added before the first replication ends
+     *
+     * @param name Name of the column
+     * @param column Reads value of the column from statistics
+     */
+    public void addColumn(String name, ToDoubleFunction<Statistics> column) {
+        if (values != null) {
+            throw new IllegalStateException("Columns cannot be added after first row");
+        }
+        names.add(name);
+        columns.add(column);
+    }
+
+    @Override
+    public void replicationEnded(int number, Statistics statistics) {
+        if (values == null) {
+            start();
+        }
+        replications[rows] = number;
+        for (int column = 0; column < columns.size(); column++) {
+            values[column][rows] = columns.get(column).applyAsDouble(statistics);
+        }
+        rows++;
+        try {
+            if (System.currentTimeMillis() - lastFlush >= flushInterval) {
+                flush();
+            } else if (rows == rowGroupSize) {
+                writeRowGroup();
+            }
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    @Override
+    public void simulationEnded(Statistics statistics) {
+        try {
+            flush();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    /**
+     * Write buffered rows and force them to disk
+     *
+     * @throws IOException When writing fails
+     */
+    public void flush() throws IOException {
+        if (values == null) {
+            start();
+        }
+        if (rows > 0) {
+            writeRowGroup();
+        }
+        channel.force(false);
+        lastFlush = System.currentTimeMillis();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+
+    private void start() {
+        replications = new int[rowGroupSize];
+        values = new double[columns.size()][rowGroupSize];
+        int headerSize = 12;
+        List<byte[]> encoded = new ArrayList<>();
+        for (String name : names) {
+            byte[] bytes = name.getBytes(StandardCharsets.UTF_8);
+            encoded.add(bytes);
+            headerSize += 4 + bytes.length;
+        }
+        buffer = ByteBuffer.allocateDirect(Math.max(headerSize, 4 + rowGroupSize * (4 + 8 * columns.size())));
+        buffer.putLong(MAGIC);
+        buffer.putInt(columns.size());
+        for (byte[] bytes : encoded) {
+            buffer.putInt(bytes.length);
+            buffer.put(bytes);
+        }
+        try {
+            write();
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private void writeRowGroup() throws IOException {
+        buffer.putInt(rows);
+        for (int row = 0; row < rows; row++) {
+            buffer.putInt(replications[row]);
+        }
+        for (double[] column : values) {
+            for (int row = 0; row < rows; row++) {
+                buffer.putDouble(column[row]);
+            }
+        }
+        write();
+        rows = 0;
+    }
+
+    private void write() throws IOException {
+        buffer.flip();
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+        buffer.clear();
+    }
+}
@@ -0,0 +1,296 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.results;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.NotSerializableException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.OutputStream;
+import java.io.Serializable;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.attribute.FileTime;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+
+/**
+ * On-disk cache of statistics of single replications. Entry is stored in a file named by SHA-256 of its key, key
+ * consists of model version, key of the parameters and random substream. Size of the cache is limited, least recently
+ * used entries are removed first. Use of the entry is recorded in modification time of its file, so order is kept
+ * between runs. Temporary files left by interrupted writes are deleted when the cache is opened.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ReplicationCache {
+
+    private static final String SUFFIX = ".stat";
+    private static final String TEMPORARY = ".tmp";
+    private final Path directory;
+    private final long maxBytes;
+    private final LinkedHashMap<String, Long> entries;
+    private long bytes;
+    private long hits;
+    private long misses;
+
+    /**
+     * Open cache. Directory is created if it does not exist
+     *
+     * @param directory Directory of the cache
+     * @param maxBytes Maximal size of stored entries in bytes
+     * @throws IOException When directory cannot be read
+     */
+    public ReplicationCache(Path directory, long maxBytes) throws IOException {
+        this.directory = directory;
+        this.maxBytes = maxBytes;
+        this.entries = new LinkedHashMap<>(16, 0.75f, true);
+        Files.createDirectories(directory);
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + TEMPORARY)) {
+            for (Path file : stream) {
+                Files.deleteIfExists(file);
+            }
+        }
+        List<Path> files = new ArrayList<>();
+        try (DirectoryStream<Path> stream = Files.newDirectoryStream(directory, "*" + SUFFIX)) {
+            for (Path file : stream) {
+                files.add(file);
+            }
+        }
+        List<FileTime> times = new ArrayList<>();
+        for (Path file : files) {
+            times.add(Files.getLastModifiedTime(file));
+        }
+        Integer[] order = new Integer[files.size()];
+        for (int i = 0; i < order.length; i++) {
+            order[i] = i;
+        }
+        Arrays.sort(order, (a, b) -> times.get(a).compareTo(times.get(b)));
+        for (int i : order) {
+            String name = files.get(i).getFileName().toString();
+            long size = Files.size(files.get(i));
+            entries.put(name.substring(0, name.length() - SUFFIX.length()), size);
+            bytes += size;
+        }
+        evict();
+    }
+
+    /**
+     * Create key of the replication
+     *
+     * @param modelVersion Version of the model, has to be changed whenever model changes its behaviour
+     * @param parameters Parameters of the simulation, see {@link #parametersKey(SimulationParameters)}
+     * @param substream Random substream of the replication
+     * @param antithetic Whether replication uses antithetic numbers
+     * @return Key of the replication
+     */
+    public static String key(String modelVersion, SimulationParameters parameters, long substream, boolean antithetic) {
+        return key(modelVersion, parametersKey(parameters), substream, antithetic);
+    }
+
+    /**
+     * Create key of the replication from key of the parameters computed once for all replications
+     *
+     * @param modelVersion Version of the model, has to be changed whenever model changes its behaviour
+     * @param parametersKey Key returned by {@link #parametersKey(SimulationParameters)}
+     * @param substream Random substream of the replication
+     * @param antithetic Whether replication uses antithetic numbers
+     * @return Key of the replication
+     */
+    public static String key(String modelVersion, String parametersKey, long substream, boolean antithetic) {
+        return sha256((modelVersion + ':' + parametersKey + ':' + substream + (antithetic ? ":a" : ""))
+                .getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Create key of the parameters. Parameters implementing {@link CacheableParameters} are identified by their cache
+     * key. Other parameters have to be serializable and are identified by SHA-256 of their serialized form, which is
+     * not a stable content key: it changes with serialVersionUID or class structure and differs for equal parameters
+     * holding e.g. hash maps with different iteration order. Such changes only cause cache misses.
+     *
+     * @param parameters Parameters of the simulation
+     * @return Key of the parameters
+     */
+    public static String parametersKey(SimulationParameters parameters) {
+        if (parameters instanceof CacheableParameters) {
+            return "k" + sha256(((CacheableParameters) parameters).getCacheKey().getBytes(StandardCharsets.UTF_8));
+        }
+        return parametersHash(parameters);
+    }
+
+    /**
+     * Get stored statistics
+     *
+     * @param key Key of the replication
+     * @return Stored statistics or null if entry does not exist or cannot be read
+     */
+    public synchronized Statistics get(String key) {
+        if (entries.get(key) == null) {
+            misses++;
+            return null;
+        }
+        Path file = file(key);
+        try (InputStream in = Files.newInputStream(file); ObjectInputStream objects = new ObjectInputStream(in)) {
+            Statistics statistics = (Statistics) objects.readObject();
+            Files.setLastModifiedTime(file, FileTime.fromMillis(System.currentTimeMillis()));
+            hits++;
+            return statistics;
+        } catch (IOException | ClassNotFoundException | ClassCastException ex) {
+            remove(key);
+            misses++;
+            return null;
+        }
+    }
+
+    /**
+     * Store statistics of the replication
+     *
+     * @param key Key of the replication
+     * @param statistics Statistics of the single replication
+     */
+    public synchronized void put(String key, Statistics statistics) {
+        Path file = file(key);
+        Path temporary = directory.resolve(key + TEMPORARY);
+        try {
+            try (OutputStream out = Files.newOutputStream(temporary); ObjectOutputStream objects = new ObjectOutputStream(out)) {
+                objects.writeObject(statistics);
+            }
+            Files.move(temporary, file, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            Long previous = entries.put(key, Files.size(file));
+            bytes += entries.get(key) - (previous == null ? 0 : previous);
+        } catch (IOException ex) {
+            try {
+                Files.deleteIfExists(temporary);
+            } catch (IOException suppressed) {
+                ex.addSuppressed(suppressed);
+            }
+            throw new UncheckedIOException(ex);
+        }
+        evict();
+    }
+
+    /**
+     * Remove all entries
+     */
+    public synchronized void clear() {
+        for (String key : new ArrayList<>(entries.keySet())) {
+            remove(key);
+        }
+    }
+
+    public synchronized long getHits() {
+        return hits;
+    }
+
+    public synchronized long getMisses() {
+        return misses;
+    }
+
+    /**
+     * Get size of stored entries
+     *
+     * @return Size in bytes
+     */
+    public synchronized long getBytes() {
+        return bytes;
+    }
+
+    public synchronized int getEntries() {
+        return entries.size();
+    }
+
+    private void evict() {
+        Iterator<Map.Entry<String, Long>> iterator = entries.entrySet().iterator();
+        while (bytes > maxBytes && iterator.hasNext()) {
+            Map.Entry<String, Long> eldest = iterator.next();
+            try {
+                Files.deleteIfExists(file(eldest.getKey()));
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+            bytes -= eldest.getValue();
+            iterator.remove();
+        }
+    }
+
+    private void remove(String key) {
+        Long size = entries.remove(key);
+        if (size != null) {
+            bytes -= size;
+        }
+        try {
+            Files.deleteIfExists(file(key));
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+    }
+
+    private Path file(String key) {
+        return directory.resolve(key + SUFFIX);
+    }
+
+    private static String parametersHash(SimulationParameters parameters) {
+        if (parameters == null) {
+            return "";
+        }
+        if (!(parameters instanceof Serializable)) {
+            throw new IllegalArgumentException("Parameters have to be serializable to be cached");
+        }
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream objects = new ObjectOutputStream(bytes)) {
+            objects.writeObject(parameters);
+        } catch (NotSerializableException ex) {
+            throw new IllegalArgumentException("Parameters have to be serializable to be cached", ex);
+        } catch (IOException ex) {
+            throw new UncheckedIOException(ex);
+        }
+        return sha256(bytes.toByteArray());
+    }
+
+    private static String sha256(byte[] data) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(data);
+            StringBuilder builder = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                builder.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return builder.toString();
+        } catch (NoSuchAlgorithmException ex) {
+            throw new IllegalStateException(ex);
+        }
+    }
+}
@@ -0,0 +1,203 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+import java.io.Serializable;
+
+/**
+ * Control variate estimator of the mean. Output is observed together with auxiliary statistics (controls) whose means
+ * are known, e.g. mean service time given by the parameters. Deviation of the controls from their known means is used
+ * to correct the output mean by optimal coefficients estimated from the same observations. Means and co-moments are
+ * updated online, observations are not stored.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ControlVariateStatistic implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final double[] controlMeans;
+    private final double[] means;
+    private final double[][] comoments;
+    private final double[] crossmoments;
+    private final double[] deltas;
+    private final double[] single;
+    private long count;
+    private double mean;
+    private double squares;
+
+    /**
+     * Create estimator
+     *
+     * @param controlMeans Known means of the controls
+     */
+    public ControlVariateStatistic(double... controlMeans) {
+        int q = controlMeans.length;
+        this.controlMeans = controlMeans.clone();
+        this.means = new double[q];
+        this.comoments = new double[q][q];
+        this.crossmoments = new double[q];
+        this.deltas = new double[q];
+        this.single = new double[1];
+    }
+
+    /**
+     * Add observation with single control
+     *
+     * @param value Observed output
+     * @param control Observed value of the control
+     */
+    public void add(double value, double control) {
+        single[0] = control;
+        add(value, single);
+    }
+
+    /**
+     * Add observation
+     *
+     * @param value Observed output
+     * @param controls Observed values of the controls. Array is not stored and may be reused by the caller
+     */
+    public void add(double value, double[] controls) {
+        int q = means.length;
+        count++;
+        for (int j = 0; j < q; j++) {
+            deltas[j] = controls[j] - means[j];
+            means[j] += deltas[j] / count;
+        }
+        double delta = value - mean;
+        mean += delta / count;
+        squares += delta * (value - mean);
+        for (int j = 0; j < q; j++) {
+            for (int k = 0; k < q; k++) {
+                comoments[j][k] += deltas[j] * (controls[k] - means[k]);
+            }
+            crossmoments[j] += deltas[j] * (value - mean);
+        }
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    /**
+     * Get mean of the output without correction
+     *
+     * @return Sample mean
+     */
+    public double getUncontrolledMean() {
+        return mean;
+    }
+
+    /**
+     * Get estimated optimal coefficients of the controls
+     *
+     * @return Coefficients, zero while they cannot be estimated
+     */
+    public double[] getCoefficients() {
+        double[] coefficients = solve(comoments, crossmoments);
+        return coefficients == null ? new double[means.length] : coefficients;
+    }
+
+    /**
+     * Get corrected estimate of the mean
+     *
+     * @return Control variate estimate
+     */
+    public double getMean() {
+        double[] coefficients = getCoefficients();
+        double corrected = mean;
+        for (int j = 0; j < means.length; j++) {
+            corrected -= coefficients[j] * (means[j] - controlMeans[j]);
+        }
+        return corrected;
+    }
+
+    /**
+     * Get half width of the confidence interval of the corrected mean
+     *
+     * @param confidence Confidence level, e.g. 0.95
+     * @return Half width of the interval, NaN while there are not enough observations
+     */
+    public double getHalfWidth(double confidence) {
+        int q = means.length;
+        long degreesOfFreedom = count - q - 1;
+        double[] coefficients = solve(comoments, crossmoments);
+        if (degreesOfFreedom < 1 || coefficients == null) {
+            return Double.NaN;
+        }
+        double residual = squares;
+        for (int j = 0; j < q; j++) {
+            residual -= coefficients[j] * crossmoments[j];
+        }
+        double[] offset = new double[q];
+        for (int j = 0; j < q; j++) {
+            offset[j] = means[j] - controlMeans[j];
+        }
+        double[] scaled = solve(comoments, offset);
+        double leverage = 1.0 / count;
+        for (int j = 0; j < q; j++) {
+            leverage += offset[j] * scaled[j];
+        }
+        double variance = Math.max(0, residual) / degreesOfFreedom * leverage;
+        return RunningStatistic.studentQuantile(0.5 + confidence / 2, degreesOfFreedom) * Math.sqrt(variance);
+    }
+
+    private static double[] solve(double[][] matrix, double[] vector) {
+        int n = vector.length;
+        double[][] a = new double[n][n + 1];
+        for (int i = 0; i < n; i++) {
+            System.arraycopy(matrix[i], 0, a[i], 0, n);
+            a[i][n] = vector[i];
+        }
+        for (int column = 0; column < n; column++) {
+            int pivot = column;
+            for (int row = column + 1; row < n; row++) {
+                if (Math.abs(a[row][column]) > Math.abs(a[pivot][column])) {
+                    pivot = row;
+                }
+            }
+            if (a[pivot][column] == 0.0) {
+                return null;
+            }
+            double[] swap = a[pivot];
+            a[pivot] = a[column];
+            a[column] = swap;
+            for (int row = column + 1; row < n; row++) {
+                double factor = a[row][column] / a[column][column];
+                for (int k = column; k <= n; k++) {
+                    a[row][k] -= factor * a[column][k];
+                }
+            }
+        }
+        double[] solution = new double[n];
+        for (int row = n - 1; row >= 0; row--) {
+            double sum = a[row][n];
+            for (int k = row + 1; k < n; k++) {
+                sum -= a[row][k] * solution[k];
+            }
+            solution[row] = sum / a[row][row];
+        }
+        return solution;
+    }
+}
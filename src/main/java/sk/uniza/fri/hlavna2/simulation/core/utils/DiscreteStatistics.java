@@ -32,6 +32,7 @@ import java.math.BigInteger;
  */
 public class DiscreteStatistics<T extends Number> extends Statistic<T> {
 
+    private static final long serialVersionUID = 1L;
     private BigInteger count;
 
     public DiscreteStatistics(T initValue) {
@@ -49,4 +50,16 @@ public class DiscreteStatistics<T extends Number> extends Statistic<T> {
         count = count.add(BigInteger.ONE);
     }
 
+    /**
+     * Add values of other statistic
+     *
+     * @param other Statistic to merge
+     */
+    // both operands are of type T, so addNumbers returns the same boxed type and the cast cannot fail
+    @SuppressWarnings("unchecked")
+    public void merge(DiscreteStatistics<T> other) {
+        sum = (T) addNumbers(sum, other.sum);
+        count = count.add(other.count);
+    }
+
 }
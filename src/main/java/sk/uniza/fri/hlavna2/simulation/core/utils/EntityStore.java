@@ -0,0 +1,250 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Store of model entities kept outside of the heap. Entity is an int id, its attributes are stored in columns of
+ * direct buffers, one buffer per segment of entities. Ids of freed entities are reused, so number of segments follows
+ * the peak number of live entities and heap holds only the free list and a bitmap of live entities.
+ *
+ * Attributes are defined before the first entity is allocated. Handle returned by the definition has to be used only
+ * with accessors of the same type.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class EntityStore {
+
+    private final int shift;
+    private final int mask;
+    private final List<String> names;
+    private final List<Integer> widths;
+    private int[] offsets;
+    private int entityBytes;
+    private ByteBuffer[] segments;
+    private long[] alive;
+    private int[] free;
+    private int freeCount;
+    private int next;
+    private int size;
+
+    /**
+     * Create store
+     *
+     * @param segmentSize Number of entities in one segment, rounded up to power of two
+     */
+    public EntityStore(int segmentSize) {
+        this.shift = 32 - Integer.numberOfLeadingZeros(Math.max(segmentSize, 2) - 1);
+        this.mask = (1 << shift) - 1;
+        this.names = new ArrayList<>();
+        this.widths = new ArrayList<>();
+        this.segments = new ByteBuffer[0];
+        this.alive = new long[0];
+        this.free = new int[16];
+    }
+
+    /**
+     * Define double attribute
+     *
+     * @param name Name of the attribute
+     * @return Handle of the attribute
+     */
+    public int addDoubleAttribute(String name) {
+        return addAttribute(name, Double.BYTES);
+    }
+
+    /**
+     * Define long attribute
+     *
+     * @param name Name of the attribute
+     * @return Handle of the attribute
+     */
+    public int addLongAttribute(String name) {
+        return addAttribute(name, Long.BYTES);
+    }
+
+    /**
+     * Define int attribute, e.g. id of other entity
+     *
+     * @param name Name of the attribute
+     * @return Handle of the attribute
+     */
+    public int addIntAttribute(String name) {
+        return addAttribute(name, Integer.BYTES);
+    }
+
+    /**
+     * Allocate entity. All attributes of the entity are zero
+     *
+     * @return Id of the entity
+     */
+    public int allocate() {
+        if (offsets == null) {
+            layout();
+        }
+        int id;
+        if (freeCount > 0) {
+            id = free[--freeCount];
+        } else {
+            id = next++;
+            if ((id >>> shift) == segments.length) {
+                grow();
+            }
+        }
+        ByteBuffer segment = segments[id >>> shift];
+        int index = id & mask;
+        for (int attribute = 0; attribute < offsets.length; attribute++) {
+            int width = widths.get(attribute);
+            int position = offsets[attribute] + index * width;
+            if (width == Long.BYTES) {
+                segment.putLong(position, 0L);
+            } else {
+                segment.putInt(position, 0);
+            }
+        }
+        alive[id >>> 6] |= 1L << id;
+        size++;
+        return id;
+    }
+
+    /**
+     * Free entity. Its id will be reused by next allocation
+     *
+     * @param id Id of the entity
+     */
+    public void free(int id) {
+        if (!isAlive(id)) {
+            throw new IllegalArgumentException("Entity " + id + " is not allocated");
+        }
+        alive[id >>> 6] &= ~(1L << id);
+        if (freeCount == free.length) {
+            free = Arrays.copyOf(free, freeCount << 1);
+        }
+        free[freeCount++] = id;
+        size--;
+    }
+
+    /**
+     * Free all entities. Segments are kept for the next replication
+     */
+    public void clear() {
+        Arrays.fill(alive, 0L);
+        freeCount = 0;
+        next = 0;
+        size = 0;
+    }
+
+    public boolean isAlive(int id) {
+        return id >= 0 && id < next && (alive[id >>> 6] & (1L << id)) != 0;
+    }
+
+    public double getDouble(int id, int attribute) {
+        return segments[id >>> shift].getDouble(offsets[attribute] + (id & mask) * Double.BYTES);
+    }
+
+    public void setDouble(int id, int attribute, double value) {
+        segments[id >>> shift].putDouble(offsets[attribute] + (id & mask) * Double.BYTES, value);
+    }
+
+    public long getLong(int id, int attribute) {
+        return segments[id >>> shift].getLong(offsets[attribute] + (id & mask) * Long.BYTES);
+    }
+
+    public void setLong(int id, int attribute, long value) {
+        segments[id >>> shift].putLong(offsets[attribute] + (id & mask) * Long.BYTES, value);
+    }
+
+    public int getInt(int id, int attribute) {
+        return segments[id >>> shift].getInt(offsets[attribute] + (id & mask) * Integer.BYTES);
+    }
+
+    public void setInt(int id, int attribute, int value) {
+        segments[id >>> shift].putInt(offsets[attribute] + (id & mask) * Integer.BYTES, value);
+    }
+
+    /**
+     * Get number of live entities
+     *
+     * @return Number of entities
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Get upper bound of ids of live entities, used for iteration together with {@link #isAlive(int)}
+     *
+     * @return Highest id ever allocated since last clear plus one
+     */
+    public int getIdBound() {
+        return next;
+    }
+
+    /**
+     * Get size of allocated off-heap memory
+     *
+     * @return Size in bytes
+     */
+    public long getAllocatedBytes() {
+        return (long) segments.length * entityBytes << shift;
+    }
+
+    public String getAttributeName(int attribute) {
+        return names.get(attribute);
+    }
+
+    private int addAttribute(String name, int width) {
+        if (offsets != null) {
+            throw new IllegalStateException("Attributes cannot be added after first allocation");
+        }
+        names.add(name);
+        widths.add(width);
+        return names.size() - 1;
+    }
+
+    private void layout() {
+        offsets = new int[names.size()];
+        int position = 0;
+        for (int wide = 1; wide >= 0; wide--) {
+            for (int attribute = 0; attribute < offsets.length; attribute++) {
+                if ((widths.get(attribute) == Long.BYTES) == (wide == 1)) {
+                    offsets[attribute] = position;
+                    position += widths.get(attribute) << shift;
+                }
+            }
+        }
+        entityBytes = position >>> shift;
+    }
+
+    private void grow() {
+        segments = Arrays.copyOf(segments, segments.length + 1);
+        segments[segments.length - 1] = ByteBuffer.allocateDirect(Math.max(entityBytes, 1) << shift).order(ByteOrder.nativeOrder());
+        alive = Arrays.copyOf(alive, (segments.length << shift) + 63 >>> 6);
+    }
+}
@@ -0,0 +1,195 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+import java.io.Serializable;
+import java.util.Arrays;
+
+/**
+ * Histogram with logarithmic buckets (HDR style) for quantiles of large number of observations in bounded memory.
+ * Every power of two between lowest and highest trackable value is split into 2^precision buckets, so quantiles have
+ * relative error at most 2^-(precision+1). Recording is constant time and does not allocate. Histograms with the same
+ * configuration can be merged, e.g. histograms of different replications or threads.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class LogHistogram implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private final double lowest;
+    private final double highest;
+    private final int precision;
+    private final int minExponent;
+    private final long[] counts;
+    private long count;
+    private double sum;
+    private double min;
+    private double max;
+
+    /**
+     * Create histogram
+     *
+     * @param lowest Lowest trackable value, must be positive. Lower values are counted in underflow bucket
+     * @param highest Highest trackable value. Higher values are counted in overflow bucket
+     * @param precision Number of bits of sub-bucket index, between 0 and 20
+     */
+    public LogHistogram(double lowest, double highest, int precision) {
+        if (!(lowest >= Double.MIN_NORMAL) || !(highest > lowest)) {
+            throw new IllegalArgumentException("Invalid range of the histogram");
+        }
+        if (precision < 0 || precision > 20) {
+            throw new IllegalArgumentException("Precision must be between 0 and 20");
+        }
+        this.lowest = lowest;
+        this.highest = highest;
+        this.precision = precision;
+        this.minExponent = Math.getExponent(lowest);
+        this.counts = new long[2 + ((Math.getExponent(highest) - minExponent + 1) << precision)];
+        reset();
+    }
+
+    public LogHistogram(LogHistogram other) {
+        this.lowest = other.lowest;
+        this.highest = other.highest;
+        this.precision = other.precision;
+        this.minExponent = other.minExponent;
+        this.counts = other.counts.clone();
+        this.count = other.count;
+        this.sum = other.sum;
+        this.min = other.min;
+        this.max = other.max;
+    }
+
+    /**
+     * Record value
+     *
+     * @param value Observed value
+     * @throws IllegalArgumentException If value is NaN
+     */
+    public void record(double value) {
+        if (Double.isNaN(value)) {
+            throw new IllegalArgumentException("Cannot record NaN");
+        }
+        counts[index(value)]++;
+        count++;
+        sum += value;
+        if (value < min) {
+            min = value;
+        }
+        if (value > max) {
+            max = value;
+        }
+    }
+
+    /**
+     * Get value below which given share of the recorded values lies
+     *
+     * @param quantile Share of the values, between 0 and 1
+     * @return Value of the quantile, NaN if nothing was recorded
+     */
+    public double getQuantile(double quantile) {
+        if (count == 0) {
+            return Double.NaN;
+        }
+        long rank = Math.max(1, (long) Math.ceil(quantile * count));
+        long cumulative = 0;
+        for (int i = 0; i < counts.length; i++) {
+            cumulative += counts[i];
+            if (cumulative >= rank) {
+                return Math.min(max, Math.max(min, value(i)));
+            }
+        }
+        return max;
+    }
+
+    /**
+     * Add values of other histogram with the same configuration
+     *
+     * @param other Histogram to merge
+     */
+    public void merge(LogHistogram other) {
+        if (other.lowest != lowest || other.highest != highest || other.precision != precision) {
+            throw new IllegalArgumentException("Histograms have different configuration");
+        }
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+        }
+        count += other.count;
+        sum += other.sum;
+        min = Math.min(min, other.min);
+        max = Math.max(max, other.max);
+    }
+
+    /**
+     * Remove all recorded values
+     */
+    public final void reset() {
+        Arrays.fill(counts, 0);
+        count = 0;
+        sum = 0;
+        min = Double.POSITIVE_INFINITY;
+        max = Double.NEGATIVE_INFINITY;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return sum / count;
+    }
+
+    public double getMin() {
+        return min;
+    }
+
+    public double getMax() {
+        return max;
+    }
+
+    private int index(double value) {
+        if (!(value >= lowest)) {
+            return 0;
+        }
+        if (value >= highest) {
+            return counts.length - 1;
+        }
+        long bits = Double.doubleToRawLongBits(value);
+        int exponent = (int) ((bits >>> 52) & 0x7ff) - 1023;
+        int subBucket = (int) ((bits & 0xfffffffffffffL) >>> (52 - precision));
+        return 1 + ((exponent - minExponent) << precision) + subBucket;
+    }
+
+    private double value(int index) {
+        if (index == 0) {
+            return min;
+        }
+        if (index == counts.length - 1) {
+            return max;
+        }
+        int exponent = ((index - 1) >> precision) + minExponent;
+        int subBucket = (index - 1) & ((1 << precision) - 1);
+        return Math.scalb(1.0 + (subBucket + 0.5) / (1 << precision), exponent);
+    }
+}
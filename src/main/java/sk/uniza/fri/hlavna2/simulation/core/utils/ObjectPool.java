@@ -0,0 +1,85 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Supplier;
+
+/**
+ * Pool of reusable model entities. Entities are acquired during replication and all of them are released together
+ * when replication ends, so following replications do not allocate entities already created by previous ones.
+ * Acquired entity keeps the state from its previous use and has to be initialized by the model.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ * @param <T> Type of the entity
+ */
+public class ObjectPool<T> {
+
+    private final Supplier<T> factory;
+    private final List<T> entities;
+    private int acquired;
+
+    /**
+     * Create pool
+     *
+     * @param factory Creates new entity when all existing ones are acquired
+     */
+    public ObjectPool(Supplier<T> factory) {
+        this.factory = factory;
+        this.entities = new ArrayList<>();
+    }
+
+    /**
+     * Get entity not acquired since last release
+     *
+     * @return Reused or newly created entity
+     */
+    public T acquire() {
+        if (acquired == entities.size()) {
+            entities.add(factory.get());
+        }
+        return entities.get(acquired++);
+    }
+
+    /**
+     * Release all acquired entities
+     */
+    public void releaseAll() {
+        acquired = 0;
+    }
+
+    public int getAcquired() {
+        return acquired;
+    }
+
+    /**
+     * Get number of entities created by this pool
+     *
+     * @return Number of entities
+     */
+    public int getSize() {
+        return entities.size();
+    }
+}
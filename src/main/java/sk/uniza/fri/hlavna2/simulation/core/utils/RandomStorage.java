@@ -56,4 +56,44 @@ public interface RandomStorage {
      */
     void registerRandomGenerator(String key, RandomGenerator random);
 
+    /**
+     * Get random substream of current replication. Replications with the same substream should use the same random
+     * numbers, so results are reproducible wherever the replication runs
+     *
+     * @return Index of the substream, zero if storage does not support substreams
+     */
+    default long getSubstream() {
+        return 0;
+    }
+
+    /**
+     * Check whether current replication is antithetic replication of its substream
+     *
+     * @return True if generators produce complementary numbers
+     */
+    default boolean isAntithetic() {
+        return false;
+    }
+
+    /**
+     * Add new substream generator. Generator is switched to the substream of every replication
+     *
+     * @param key Key of the generator
+     * @param stream Generator
+     * @throws UnsupportedOperationException If storage does not support substreams
+     */
+    default void registerStream(String key, SubstreamGenerator stream) {
+        throw new UnsupportedOperationException("Substream generators are not supported");
+    }
+
+    /**
+     * Get substream generator with given key
+     *
+     * @param key Key of the generator
+     * @return Generator with given key, null if not present
+     */
+    default SubstreamGenerator getStream(String key) {
+        return null;
+    }
+
 }
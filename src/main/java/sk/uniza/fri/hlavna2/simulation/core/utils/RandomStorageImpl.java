@@ -23,6 +23,9 @@
  */
 package sk.uniza.fri.hlavna2.simulation.core.utils;
 
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 import sk.uniza.fri.hlavna2.commons.randomness.generators.RandomGenerator;
 import sk.uniza.fri.hlavna2.simulation.core.exception.SimulationAlreadyInitializedException;
@@ -36,10 +39,14 @@ import sk.uniza.fri.hlavna2.simulation.core.exception.SimulationNotFullyInitiali
 public class RandomStorageImpl implements RandomStorage {
 
     private final Map<String, RandomGenerator> randomStorage;
+    private final Map<String, SubstreamGenerator> streams;
     private boolean initialized;
+    private long substream;
+    private boolean antithetic;
 
     public RandomStorageImpl(Map<String, RandomGenerator> randomStorage) {
         this.randomStorage = randomStorage;
+        this.streams = new HashMap<>();
     }
 
     @Override
@@ -66,6 +73,83 @@ public class RandomStorageImpl implements RandomStorage {
         return randomStorage.get(key);
     }
 
+    @Override
+    public void registerStream(String key, SubstreamGenerator stream) {
+        if (initialized) {
+            throw new SimulationAlreadyInitializedException();
+        }
+        streams.put(key, stream);
+    }
+
+    @Override
+    public SubstreamGenerator getStream(String key) {
+        if (!initialized) {
+            throw new SimulationNotFullyInitializedException();
+        }
+        return streams.get(key);
+    }
+
+    @Override
+    public long getSubstream() {
+        return substream;
+    }
+
+    @Override
+    public boolean isAntithetic() {
+        return antithetic;
+    }
+
+    /**
+     * Select substream of the next replication. Registered streams and generators implementing
+     * {@link SubstreamGenerator} are switched to the substream
+     *
+     * @param substream Index of the substream
+     */
+    public void setSubstream(long substream) {
+        this.substream = substream;
+        for (SubstreamGenerator stream : streams.values()) {
+            stream.selectSubstream(substream);
+        }
+        for (RandomGenerator generator : randomStorage.values()) {
+            if (generator instanceof SubstreamGenerator) {
+                ((SubstreamGenerator) generator).selectSubstream(substream);
+            }
+        }
+    }
+
+    /**
+     * Switch registered streams and generators implementing {@link SubstreamGenerator} to antithetic numbers
+     *
+     * @param antithetic True to produce complementary numbers
+     */
+    public void setAntithetic(boolean antithetic) {
+        this.antithetic = antithetic;
+        for (SubstreamGenerator stream : streams.values()) {
+            stream.setAntithetic(antithetic);
+        }
+        for (RandomGenerator generator : randomStorage.values()) {
+            if (generator instanceof SubstreamGenerator) {
+                ((SubstreamGenerator) generator).setAntithetic(antithetic);
+            }
+        }
+    }
+
+    /**
+     * Get keys of registered generators not implementing {@link SubstreamGenerator}. Such generators ignore substreams
+     * and antithetic numbers, so their numbers depend on the replications simulated before
+     *
+     * @return Keys of the generators
+     */
+    public List<String> getGeneratorsWithoutSubstreams() {
+        List<String> keys = new ArrayList<>();
+        for (Map.Entry<String, RandomGenerator> entry : randomStorage.entrySet()) {
+            if (!(entry.getValue() instanceof SubstreamGenerator)) {
+                keys.add(entry.getKey());
+            }
+        }
+        return keys;
+    }
+
     /**
      * Set this instance as initialized
      */
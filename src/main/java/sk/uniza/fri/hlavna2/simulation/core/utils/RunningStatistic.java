@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+import java.io.Serializable;
+
+/**
+ * Mean and variance computed online (Welford). Statistics computed on different threads or workers can be merged.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class RunningStatistic implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+    private static final double[] A = {-3.969683028665376e+01, 2.209460984245205e+02, -2.759285104469687e+02, 1.383577518672690e+02, -3.066479806614716e+01, 2.506628277459239e+00};
+    private static final double[] B = {-5.447609879822406e+01, 1.615858368580409e+02, -1.556989798598866e+02, 6.680131188771972e+01, -1.328068155288572e+01};
+    private static final double[] C = {-7.784894002430293e-03, -3.223964580411365e-01, -2.400758277161838e+00, -2.549732539343734e+00, 4.374664141464968e+00, 2.938163982698783e+00};
+    private static final double[] D = {7.784695709041462e-03, 3.224671290700398e-01, 2.445134137142996e+00, 3.754408661907416e+00};
+
+    private long count;
+    private double mean;
+    private double squares;
+
+    public RunningStatistic() {
+    }
+
+    public RunningStatistic(RunningStatistic other) {
+        this.count = other.count;
+        this.mean = other.mean;
+        this.squares = other.squares;
+    }
+
+    public void add(double value) {
+        count++;
+        double delta = value - mean;
+        mean += delta / count;
+        squares += delta * (value - mean);
+    }
+
+    /**
+     * Add values of other statistic
+     *
+     * @param other Statistic to merge
+     */
+    public void merge(RunningStatistic other) {
+        if (other.count == 0) {
+            return;
+        }
+        long total = count + other.count;
+        double delta = other.mean - mean;
+        squares += other.squares + delta * delta * count * other.count / total;
+        mean += delta * other.count / total;
+        count = total;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    /**
+     * Get sample variance
+     *
+     * @return Sample variance, NaN for less than two values
+     */
+    public double getVariance() {
+        return count > 1 ? squares / (count - 1) : Double.NaN;
+    }
+
+    /**
+     * Get half width of the confidence interval of the mean
+     *
+     * @param confidence Confidence level, e.g. 0.95
+     * @return Half width of the interval, NaN for less than two values
+     */
+    public double getHalfWidth(double confidence) {
+        if (count < 2) {
+            return Double.NaN;
+        }
+        return studentQuantile(0.5 + confidence / 2, count - 1) * Math.sqrt(getVariance() / count);
+    }
+
+    /**
+     * Quantile of Student's t distribution (Cornish-Fisher expansion of the normal quantile)
+     *
+     * @param p Probability
+     * @param degreesOfFreedom Degrees of freedom
+     * @return Quantile
+     */
+    public static double studentQuantile(double p, long degreesOfFreedom) {
+        if (degreesOfFreedom == 1) {
+            return Math.tan(Math.PI * (p - 0.5));
+        }
+        if (degreesOfFreedom == 2) {
+            return (2 * p - 1) / Math.sqrt(2 * p * (1 - p));
+        }
+        double z = normalQuantile(p);
+        double n = degreesOfFreedom;
+        double z2 = z * z;
+        return z + z * (z2 + 1) / (4 * n)
+                + z * ((5 * z2 + 16) * z2 + 3) / (96 * n * n)
+                + z * (((3 * z2 + 19) * z2 + 17) * z2 - 15) / (384 * n * n * n)
+                + z * ((((79 * z2 + 776) * z2 + 1482) * z2 - 1920) * z2 - 945) / (92160 * n * n * n * n);
+    }
+
+    /**
+     * Quantile of standard normal distribution (Acklam's approximation)
+     *
+     * @param p Probability
+     * @return Quantile
+     */
+    public static double normalQuantile(double p) {
+        if (p < 0.02425) {
+            double q = Math.sqrt(-2 * Math.log(p));
+            return (((((C[0] * q + C[1]) * q + C[2]) * q + C[3]) * q + C[4]) * q + C[5]) / ((((D[0] * q + D[1]) * q + D[2]) * q + D[3]) * q + 1);
+        }
+        if (p > 1 - 0.02425) {
+            return -normalQuantile(1 - p);
+        }
+        double q = p - 0.5;
+        double r = q * q;
+        return (((((A[0] * r + A[1]) * r + A[2]) * r + A[3]) * r + A[4]) * r + A[5]) * q / (((((B[0] * r + B[1]) * r + B[2]) * r + B[3]) * r + B[4]) * r + 1);
+    }
+}
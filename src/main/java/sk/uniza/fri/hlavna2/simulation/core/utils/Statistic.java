@@ -23,13 +23,16 @@
  */
 package sk.uniza.fri.hlavna2.simulation.core.utils;
 
+import java.io.Serializable;
+
 /**
  *
  * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
  * @param <T>
  */
-public abstract class Statistic<T extends Number> {
+public abstract class Statistic<T extends Number> implements Serializable {
 
+    private static final long serialVersionUID = 1L;
     protected T sum;
 
     public Statistic() {
@@ -0,0 +1,99 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+/**
+ * Time weighted average of a piecewise constant value, e.g. queue length or number of busy servers. Kept in
+ * primitive fields, so updates do not allocate.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class TimeWeightedStatistic {
+
+    private double start;
+    private double lastTime;
+    private double value;
+    private double area;
+    private double max;
+
+    /**
+     * Change value at given time
+     *
+     * @param time Current simulation time
+     * @param newValue Value valid from the given time
+     */
+    public void update(double time, double newValue) {
+        area += value * (time - lastTime);
+        lastTime = time;
+        value = newValue;
+        if (newValue > max) {
+            max = newValue;
+        }
+    }
+
+    /**
+     * Forget collected area and start collecting again from given time, e.g. after warm up. Current value is kept
+     *
+     * @param time Current simulation time
+     */
+    public void reset(double time) {
+        start = time;
+        lastTime = time;
+        area = 0.0;
+        max = value;
+    }
+
+    /**
+     * Return statistic to the initial state
+     */
+    public void clear() {
+        start = 0.0;
+        lastTime = 0.0;
+        value = 0.0;
+        area = 0.0;
+        max = 0.0;
+    }
+
+    /**
+     * Get average up to given time
+     *
+     * @param time Current simulation time
+     * @return Time weighted average
+     */
+    public double getAverage(double time) {
+        double span = time - start;
+        if (span <= 0) {
+            return value;
+        }
+        return (area + value * (time - lastTime)) / span;
+    }
+
+    public double getValue() {
+        return value;
+    }
+
+    public double getMax() {
+        return max;
+    }
+}
@@ -0,0 +1,105 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+/**
+ * Uniform random stream with substreams and antithetic numbers (SplitMix64). Numbers are strictly between 0 and 1,
+ * so their complements are valid too. Every transformation used by this class is monotone in the uniform number, so
+ * antithetic stream produces antithetic values of every distribution.
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class UniformStream implements SubstreamGenerator {
+
+    private static final long GOLDEN_GAMMA = 0x9E3779B97F4A7C15L;
+    private final long seed;
+    private long state;
+    private boolean antithetic;
+
+    /**
+     * Create stream
+     *
+     * @param seed Seed of the stream. Streams with different seeds are independent
+     */
+    public UniformStream(long seed) {
+        this.seed = seed;
+        selectSubstream(0);
+    }
+
+    @Override
+    public final void selectSubstream(long substream) {
+        state = mix(seed + mix(substream * GOLDEN_GAMMA));
+    }
+
+    @Override
+    public void setAntithetic(boolean antithetic) {
+        this.antithetic = antithetic;
+    }
+
+    /**
+     * Get next uniform number
+     *
+     * @return Number from interval (0, 1)
+     */
+    public double nextDouble() {
+        state += GOLDEN_GAMMA;
+        return toUnit(mix(state), antithetic);
+    }
+
+    /**
+     * Map random bits to the middle of one of 2^52 equal intervals of (0, 1). Both the number and its complement are
+     * exactly representable, so neither of them rounds to 0 or 1
+     */
+    static double toUnit(long bits, boolean antithetic) {
+        double u = ((bits >>> 12) + 0.5) * 0x1.0p-52;
+        return antithetic ? 1.0 - u : u;
+    }
+
+    /**
+     * Get next number uniformly distributed in the interval
+     *
+     * @param min Lower bound
+     * @param max Upper bound
+     * @return Number from interval (min, max)
+     */
+    public double nextUniform(double min, double max) {
+        return min + nextDouble() * (max - min);
+    }
+
+    /**
+     * Get next exponentially distributed number
+     *
+     * @param mean Mean of the distribution
+     * @return Exponentially distributed number
+     */
+    public double nextExponential(double mean) {
+        return -mean * Math.log(1.0 - nextDouble());
+    }
+
+    private static long mix(long z) {
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
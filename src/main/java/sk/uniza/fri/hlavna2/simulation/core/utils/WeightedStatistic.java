@@ -25,6 +25,7 @@ package sk.uniza.fri.hlavna2.simulation.core.utils;
 
 public class WeightedStatistic<T extends Number> extends Statistic<T> {
 
+    private static final long serialVersionUID = 1L;
     public T weightedCount;
 
     public WeightedStatistic(T initValue, T initWeight) {
@@ -37,6 +38,18 @@ public class WeightedStatistic<T extends Number> extends Statistic<T> {
         weightedCount = (T) addNumbers(weightedCount, weight);
     }
 
+    /**
+     * Add values of other statistic
+     *
+     * @param other Statistic to merge
+     */
+    // both operands are of type T, so addNumbers returns the same boxed type and the cast cannot fail
+    @SuppressWarnings("unchecked")
+    public void merge(WeightedStatistic<T> other) {
+        sum = (T) addNumbers(sum, other.sum);
+        weightedCount = (T) addNumbers(weightedCount, other.weightedCount);
+    }
+
     @Override
     public double getAverage() {
         return sum.doubleValue() / weightedCount.doubleValue();
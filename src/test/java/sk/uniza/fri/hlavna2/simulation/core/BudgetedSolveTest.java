@@ -0,0 +1,169 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core;
+
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.event.LockstepSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class BudgetedSolveTest {
+
+    /**
+     * Model ticking every time unit until max time, counts executed ticks
+     */
+    private static class Ticks extends EventSimulationEngine {
+
+        private int ticks;
+
+        Ticks(double maxTime) {
+            super(maxTime);
+        }
+
+        private class Tick extends Event {
+
+            Tick() {
+                super(0, Ticks.this);
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                ticks++;
+                plan(new Tick(), getCurrentTime() + 1);
+            }
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            reset(parameters, statistics, storage);
+        }
+
+        @Override
+        public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+            super.reset(parameters, statistics, randoms);
+            ticks = 0;
+            plan(new Tick(), 0);
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    /**
+     * Lanes with single exponentially distributed arrival
+     */
+    private static class Lanes extends LockstepSimulationEngine {
+
+        private final double[] arrivals;
+        private final int arrival;
+
+        Lanes(int lanes) {
+            super(lanes, 100, ExponentialModel.SEED);
+            arrivals = new double[lanes];
+            arrival = registerHandler((lane, payload, parameters, random) -> arrivals[lane] = getCurrentTime(lane));
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            reset(parameters, statistics, storage);
+        }
+
+        @Override
+        public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+            super.reset(parameters, statistics, randoms);
+            for (int lane = 0; lane < getLanes(); lane++) {
+                plan(lane, arrival, 0, getStream(lane).nextExponential(1.0));
+            }
+        }
+
+        @Override
+        protected void collect(int lane, Statistics statistics) {
+            ((ExponentialModel.Samples) statistics).getValues().add(arrivals[lane]);
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    private static double mean(Statistics statistics) {
+        return ((ExponentialModel.Samples) statistics).getMean();
+    }
+
+    @Test
+    public void solveEndsWhenPrecisionIsReached() {
+        ReplicationEngine solver = ReplicationEngine.getSolver(new ExponentialModel(), null, new ExponentialModel.Samples());
+        BudgetedResult result = solver.solveWithin(60_000, ExponentialModel.Samples::new, BudgetedSolveTest::mean, 0.5, 0.95);
+        assertTrue(result.isPrecisionReached());
+        assertFalse(result.isBudgetExhausted());
+        assertTrue(result.getReplications() >= 10);
+        assertTrue(result.getHalfWidth() <= 0.5 * result.getMean());
+        assertEquals(ExponentialModel.expected(0, (int) result.getReplications(), 1.0),
+                ((ExponentialModel.Samples) result.getStatistics()).getValues());
+    }
+
+    @Test
+    public void endlessReplicationIsInterruptedAndDiscarded() {
+        ReplicationEngine solver = ReplicationEngine.getSolver(new Ticks(Double.POSITIVE_INFINITY), null, new ExponentialModel.Samples());
+        BudgetedResult result = solver.solveWithin(100, ExponentialModel.Samples::new, BudgetedSolveTest::mean, 0.01, 0.95);
+        assertTrue(result.isBudgetExhausted());
+        assertFalse(result.isPrecisionReached());
+        assertEquals(0, result.getReplications());
+        assertEquals(0, result.getStatistics().getIterationsRunned());
+        assertTrue(result.getElapsedMillis() < 10_000);
+    }
+
+    @Test
+    public void replicationsCountEveryLane() {
+        ReplicationEngine solver = ReplicationEngine.getSolver(new Lanes(4), null, new ExponentialModel.Samples());
+        BudgetedResult result = solver.solveWithin(60_000, ExponentialModel.Samples::new, BudgetedSolveTest::mean, 0.2, 0.95);
+        assertTrue(result.isPrecisionReached());
+        assertEquals(4 * result.getOutput().getCount(), result.getReplications());
+        assertEquals(ExponentialModel.expected(0, (int) result.getReplications(), 1.0),
+                ((ExponentialModel.Samples) result.getStatistics()).getValues());
+    }
+
+    @Test
+    public void interruptBeforeSimulateIsNotLost() {
+        Ticks engine = new Ticks(10);
+        engine.init(null, new Statistics(), null);
+        engine.interrupt();
+        engine.reset(null, new Statistics(), null);
+        engine.simulate(null, new Statistics(), null);
+        assertEquals(0, engine.ticks);
+
+        engine.clearInterrupt();
+        engine.simulate(null, new Statistics(), null);
+        assertEquals(11, engine.ticks);
+    }
+}
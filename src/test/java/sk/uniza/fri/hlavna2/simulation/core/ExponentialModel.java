@@ -0,0 +1,148 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core;
+
+import java.io.Serializable;
+import java.util.ArrayList;
+import java.util.List;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+import sk.uniza.fri.hlavna2.simulation.core.utils.UniformStream;
+
+/**
+ * Model with single exponentially distributed arrival per replication. Time of the arrival is recorded, so tests can
+ * compare it with the number expected from the substream of the replication
+ *
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ExponentialModel extends EventSimulationEngine {
+
+    public static final long SEED = 42;
+    private final UniformStream stream;
+
+    public ExponentialModel() {
+        super(Double.POSITIVE_INFINITY);
+        this.stream = new UniformStream(SEED);
+    }
+
+    /**
+     * Mean of the arrival time
+     */
+    public static class Parameters implements SimulationParameters, Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private final double mean;
+
+        public Parameters(double mean) {
+            this.mean = mean;
+        }
+
+        public double getMean() {
+            return mean;
+        }
+    }
+
+    /**
+     * Arrival times of all replications in order of merging
+     */
+    public static class Samples extends Statistics {
+
+        private static final long serialVersionUID = 1L;
+        private final List<Double> values = new ArrayList<>();
+
+        @Override
+        public Statistics copy() {
+            Samples copy = new Samples();
+            copy.values.addAll(values);
+            copy.setIterationsRunned(getIterationsRunned());
+            return copy;
+        }
+
+        @Override
+        public void merge(Statistics other) {
+            super.merge(other);
+            values.addAll(((Samples) other).values);
+        }
+
+        public List<Double> getValues() {
+            return values;
+        }
+
+        public double getMean() {
+            return values.stream().mapToDouble(Double::doubleValue).average().orElse(Double.NaN);
+        }
+    }
+
+    private class Arrival extends Event {
+
+        Arrival() {
+            super(0, ExponentialModel.this);
+        }
+
+        @Override
+        protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+            ((Samples) statistics).values.add(getCurrentTime());
+        }
+    }
+
+    /**
+     * Compute arrival times the replications should produce
+     *
+     * @param first First replication
+     * @param replications Number of replications
+     * @param mean Mean of the arrival time
+     * @return Arrival times
+     */
+    public static List<Double> expected(int first, int replications, double mean) {
+        UniformStream reference = new UniformStream(SEED);
+        List<Double> values = new ArrayList<>();
+        for (int i = first; i < first + replications; i++) {
+            reference.selectSubstream(i);
+            values.add(reference.nextExponential(mean));
+        }
+        return values;
+    }
+
+    private void planArrival(SimulationParameters parameters) {
+        double mean = parameters instanceof Parameters ? ((Parameters) parameters).mean : 1.0;
+        plan(new Arrival(), stream.nextExponential(mean));
+    }
+
+    @Override
+    public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+        storage.registerStream("arrivals", stream);
+        planArrival(parameters);
+    }
+
+    @Override
+    public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        super.reset(parameters, statistics, randoms);
+        planArrival(parameters);
+    }
+
+    @Override
+    public void cleanUp() {
+    }
+}
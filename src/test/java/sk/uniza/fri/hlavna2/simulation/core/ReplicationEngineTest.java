@@ -0,0 +1,162 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.exception.ReplicationsStoppedException;
+import sk.uniza.fri.hlavna2.simulation.core.listeners.SimulationProgressListenerAdapter;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ReplicationEngineTest {
+
+    /**
+     * Model planning its only event in init and relying on the default reset
+     */
+    private static class InitOnly extends EventSimulationEngine {
+
+        private int executed;
+
+        InitOnly() {
+            super(100);
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            plan(new Event(0, this) {
+                @Override
+                protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                    executed++;
+                }
+            }, 1);
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    @Test
+    public void everyReplicationUsesItsSubstream() {
+        ExponentialModel.Samples samples = new ExponentialModel.Samples();
+        ReplicationEngine solver = ReplicationEngine.getSolver(new ExponentialModel(), null, samples);
+        solver.solve(5);
+        assertEquals(ExponentialModel.expected(0, 5, 1.0), samples.getValues());
+    }
+
+    @Test
+    public void rangeDoesNotDependOnPreviousReplications() {
+        ReplicationEngine solver = ReplicationEngine.getSolver(new ExponentialModel(), null, new ExponentialModel.Samples());
+        ExponentialModel.Samples partial = new ExponentialModel.Samples();
+        solver.solve(3, 2, partial);
+        assertEquals(ExponentialModel.expected(3, 2, 1.0), partial.getValues());
+
+        ExponentialModel.Samples next = new ExponentialModel.Samples();
+        solver.solve(7, 1, next);
+        assertEquals(ExponentialModel.expected(7, 1, 1.0), next.getValues());
+    }
+
+    @Test
+    public void firstReplicationIsNotReset() {
+        InitOnly model = new InitOnly();
+        ReplicationEngine solver = ReplicationEngine.getSolver(model, null);
+        solver.solve(1);
+        assertEquals(1, model.executed);
+    }
+
+    @Test
+    public void firstReplicationMatchesItsResetRun() {
+        ReplicationEngine solver = ReplicationEngine.getSolver(new ExponentialModel(), null, new ExponentialModel.Samples());
+        ExponentialModel.Samples first = new ExponentialModel.Samples();
+        solver.solve(0, 1, first);
+        ExponentialModel.Samples other = new ExponentialModel.Samples();
+        solver.solve(1, 1, other);
+        ExponentialModel.Samples again = new ExponentialModel.Samples();
+        solver.solve(0, 1, again);
+        assertEquals(first.getValues(), again.getValues());
+        assertEquals(ExponentialModel.expected(0, 1, 1.0), again.getValues());
+    }
+
+    @Test
+    public void antitheticPairUsesComplementaryNumbers() {
+        ExponentialModel.Samples samples = new ExponentialModel.Samples();
+        ReplicationEngine solver = ReplicationEngine.getSolver(new ExponentialModel(), null, samples);
+        solver.solveAntithetic(3);
+        assertEquals(6, samples.getValues().size());
+        List<Double> expected = ExponentialModel.expected(0, 3, 1.0);
+        for (int pair = 0; pair < 3; pair++) {
+            double first = samples.getValues().get(2 * pair);
+            double second = samples.getValues().get(2 * pair + 1);
+            assertEquals(expected.get(pair), first);
+            assertEquals(1.0, Math.exp(-first) + Math.exp(-second), 1e-12);
+        }
+    }
+
+    @Test
+    public void listenersReceiveNumberOfFinishedReplications() {
+        ExponentialModel.Samples samples = new ExponentialModel.Samples();
+        ReplicationEngine solver = ReplicationEngine.getSolver(new ExponentialModel(), null, samples);
+        List<Integer> numbers = new ArrayList<>();
+        solver.addProgressListener(new SimulationProgressListenerAdapter() {
+            @Override
+            public void replicationEnded(int number, Statistics statistics) {
+                numbers.add(number);
+                assertEquals(number, statistics.getIterationsRunned());
+            }
+        });
+        solver.solve(3);
+        assertEquals(List.of(1, 2, 3), numbers);
+        assertEquals(3, samples.getIterationsRunned());
+    }
+
+    @Test
+    public void antitheticListenersReceiveNumberOfFinishedReplications() {
+        ReplicationEngine solver = ReplicationEngine.getSolver(new ExponentialModel(), null, new ExponentialModel.Samples());
+        List<Integer> numbers = new ArrayList<>();
+        solver.addProgressListener(new SimulationProgressListenerAdapter() {
+            @Override
+            public void replicationEnded(int number, Statistics statistics) {
+                numbers.add(number);
+            }
+        });
+        solver.solveAntithetic(2);
+        assertEquals(List.of(1, 2, 3, 4), numbers);
+    }
+
+    @Test
+    public void stoppedSolverRejectsNextSolve() {
+        ReplicationEngine solver = ReplicationEngine.getSolver(new ExponentialModel(), null, new ExponentialModel.Samples());
+        solver.solve(1);
+        assertThrows(ReplicationsStoppedException.class, () -> solver.solve(1));
+    }
+}
@@ -0,0 +1,191 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.distributed;
+
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.net.Socket;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.ExponentialModel;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.exception.WorkersUnavailableException;
+import sk.uniza.fri.hlavna2.simulation.core.listeners.SimulationProgressListener;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class DistributedCoordinatorTest {
+
+    /**
+     * Worker which takes one task and drops the connection once released
+     */
+    private static class FailingWorker extends Thread {
+
+        private final int port;
+        private final CountDownLatch taken = new CountDownLatch(1);
+        private final CountDownLatch release;
+
+        FailingWorker(int port, CountDownLatch release) {
+            this.port = port;
+            this.release = release;
+        }
+
+        @Override
+        public void run() {
+            try (Socket socket = new Socket("localhost", port)) {
+                ObjectOutputStream output = new ObjectOutputStream(socket.getOutputStream());
+                output.flush();
+                ObjectInputStream input = new ObjectInputStream(socket.getInputStream());
+                input.readObject();
+                taken.countDown();
+                release.await();
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        }
+    }
+
+    private static Thread startWorker(DistributedCoordinator coordinator) {
+        DistributedWorker worker = new DistributedWorker(new ExponentialModel(), null, ExponentialModel.Samples::new);
+        Thread thread = new Thread(() -> {
+            try {
+                worker.run("localhost", coordinator.getPort());
+            } catch (Exception ex) {
+                throw new IllegalStateException(ex);
+            }
+        });
+        thread.start();
+        return thread;
+    }
+
+    @Test
+    public void workersReproduceLocalReplications() throws Exception {
+        ExponentialModel.Samples samples = new ExponentialModel.Samples();
+        DistributedCoordinator coordinator = new DistributedCoordinator(0, samples);
+        List<Thread> workers = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            workers.add(startWorker(coordinator));
+        }
+        try {
+            coordinator.solve(10, 3);
+        } finally {
+            coordinator.close();
+        }
+        for (Thread worker : workers) {
+            worker.join(5000);
+        }
+
+        List<Double> expected = new ArrayList<>(ExponentialModel.expected(0, 10, 1.0));
+        List<Double> values = new ArrayList<>(samples.getValues());
+        Collections.sort(expected);
+        Collections.sort(values);
+        assertEquals(expected, values);
+        assertEquals(10, samples.getIterationsRunned());
+    }
+
+    @Test
+    public void rejectsNonPositiveTaskSize() throws Exception {
+        DistributedCoordinator coordinator = new DistributedCoordinator(0, new ExponentialModel.Samples());
+        try {
+            assertThrows(IllegalArgumentException.class, () -> coordinator.solve(10, 0));
+            assertThrows(IllegalArgumentException.class, () -> coordinator.solve(-1, 2));
+        } finally {
+            coordinator.close();
+        }
+    }
+
+    @Test
+    public void taskOfFailedWorkerIsSolvedByOtherWorker() throws Exception {
+        ExponentialModel.Samples samples = new ExponentialModel.Samples();
+        DistributedCoordinator coordinator = new DistributedCoordinator(0, samples);
+        CountDownLatch merged = new CountDownLatch(1);
+        coordinator.addProgressListener(new SimulationProgressListener() {
+            @Override
+            public void replicationEnded(int number, Statistics statistics) {
+                merged.countDown();
+            }
+
+            @Override
+            public void simulationEnded(Statistics statistics) {
+            }
+        });
+        FailingWorker failing = new FailingWorker(coordinator.getPort(), merged);
+        failing.start();
+        Thread helper = new Thread(() -> {
+            try {
+                failing.taken.await();
+                startWorker(coordinator).join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        });
+        helper.start();
+        try {
+            coordinator.solve(6, 1, 10000);
+        } finally {
+            coordinator.close();
+        }
+        helper.join(5000);
+
+        List<Double> values = new ArrayList<>(samples.getValues());
+        Collections.sort(values);
+        List<Double> expected = new ArrayList<>(ExponentialModel.expected(0, 6, 1.0));
+        Collections.sort(expected);
+        assertEquals(expected, values);
+    }
+
+    @Test
+    public void solveFailsWhenAllWorkersFail() throws Exception {
+        DistributedCoordinator coordinator = new DistributedCoordinator(0, new ExponentialModel.Samples());
+        FailingWorker failing = new FailingWorker(coordinator.getPort(), new CountDownLatch(0));
+        failing.start();
+        try {
+            assertThrows(WorkersUnavailableException.class, () -> coordinator.solve(4, 1));
+        } finally {
+            coordinator.close();
+        }
+        failing.join(5000);
+    }
+
+    @Test
+    public void solveFailsWhenResultsDoNotArriveInTime() throws Exception {
+        DistributedCoordinator coordinator = new DistributedCoordinator(0, new ExponentialModel.Samples());
+        try {
+            long start = System.nanoTime();
+            assertThrows(WorkersUnavailableException.class, () -> coordinator.solve(4, 1, 200));
+            assertTrue(TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start) >= 200);
+        } finally {
+            coordinator.close();
+        }
+    }
+}
@@ -0,0 +1,98 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.distributed;
+
+import java.io.ByteArrayInputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.InvalidClassException;
+import java.io.ObjectInputStream;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.ExponentialModel;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.utils.LogHistogram;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ReplicationFilterTest {
+
+    /**
+     * Class outside of the allowed ones
+     */
+    private static class Payload implements Serializable {
+
+        private static final long serialVersionUID = 1L;
+    }
+
+    /**
+     * Statistics referencing the payload
+     */
+    private static class Smuggling extends Statistics {
+
+        private static final long serialVersionUID = 1L;
+        private final Object payload = new Payload();
+    }
+
+    /**
+     * Statistics with histogram of the library
+     */
+    private static class Histogram extends Statistics {
+
+        private static final long serialVersionUID = 1L;
+        private final LogHistogram histogram = new LogHistogram(1, 1000, 2);
+    }
+
+    private static Object transfer(Object object) throws IOException, ClassNotFoundException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        try (ObjectOutputStream output = new ObjectOutputStream(bytes)) {
+            output.writeObject(object);
+        }
+        try (ObjectInputStream input = new ObjectInputStream(new ByteArrayInputStream(bytes.toByteArray()))) {
+            input.setObjectInputFilter(new ReplicationFilter());
+            return input.readObject();
+        }
+    }
+
+    @Test
+    public void tasksAndStatisticsAreAccepted() throws Exception {
+        ExponentialModel.Samples samples = new ExponentialModel.Samples();
+        samples.getValues().add(1.5);
+        ReplicationResult result = (ReplicationResult) transfer(new ReplicationResult(new ReplicationTask(3, 2), samples));
+        assertEquals(3, result.getTask().getFirstReplication());
+        assertEquals(samples.getValues(), ((ExponentialModel.Samples) result.getStatistics()).getValues());
+        transfer(new ReplicationResult(new ReplicationTask(0, 1), new Histogram()));
+    }
+
+    @Test
+    public void otherClassesAreRejected() {
+        assertThrows(InvalidClassException.class, () -> transfer(new Payload()));
+        assertThrows(InvalidClassException.class, () -> transfer(new ReplicationResult(new ReplicationTask(0, 1), new Smuggling())));
+    }
+}
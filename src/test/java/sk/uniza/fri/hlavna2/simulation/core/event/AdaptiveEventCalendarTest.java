@@ -0,0 +1,167 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.PriorityQueue;
+import java.util.Set;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+import sk.uniza.fri.hlavna2.simulation.core.utils.UniformStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class AdaptiveEventCalendarTest {
+
+    private static class Marker extends Event {
+
+        private final long number;
+
+        Marker(double time, long number) {
+            this.time = time;
+            this.number = number;
+        }
+
+        @Override
+        protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+        }
+    }
+
+    /**
+     * Runs hold model against reference queue ordered by time and order of planning
+     */
+    private static class Checker {
+
+        private final AdaptiveEventCalendar calendar = new AdaptiveEventCalendar();
+        private final PriorityQueue<Marker> reference = new PriorityQueue<>(
+                Comparator.comparingDouble(Marker::getTime).thenComparingLong(marker -> marker.number));
+        private final Set<CalendarStructure> visited = EnumSet.noneOf(CalendarStructure.class);
+        private final UniformStream stream = new UniformStream(7);
+        private long planned;
+        private double now;
+
+        void plan() {
+            double time = now + Math.floor(stream.nextExponential(10.0) * 4) / 4;
+            Marker marker = new Marker(time, planned++);
+            calendar.planEvent(marker);
+            reference.add(marker);
+            visited.add(calendar.getActiveStructure());
+        }
+
+        void poll() {
+            Marker expected = reference.poll();
+            assertSame(expected, calendar.peekEvent());
+            assertSame(expected, calendar.nextEvent());
+            now = expected.getTime();
+            visited.add(calendar.getActiveStructure());
+        }
+    }
+
+    @Test
+    public void orderMatchesReferenceWhileStructureMigrates() {
+        Checker checker = new Checker();
+        while (checker.calendar.size() < 20_000) {
+            checker.plan();
+            checker.plan();
+            checker.poll();
+        }
+        assertEquals(CalendarStructure.CALENDAR_QUEUE, checker.calendar.getActiveStructure());
+        for (int i = 0; i < 50_000; i++) {
+            checker.plan();
+            checker.poll();
+        }
+        while (checker.calendar.size() > 1) {
+            checker.poll();
+            checker.poll();
+            checker.plan();
+        }
+        checker.poll();
+        assertTrue(checker.calendar.isEmpty());
+        assertNull(checker.calendar.nextEvent());
+        assertEquals(EnumSet.allOf(CalendarStructure.class), checker.visited);
+        assertEquals(CalendarStructure.SORTED_ARRAY, checker.calendar.getActiveStructure());
+        assertTrue(checker.calendar.getMigrations() >= 4);
+    }
+
+    @Test
+    public void equalTimesAreReturnedInOrderOfPlanningInEveryStructure() {
+        AdaptiveEventCalendar calendar = new AdaptiveEventCalendar();
+        UniformStream stream = new UniformStream(3);
+        for (int i = 0; i < 20_000; i++) {
+            calendar.planEvent(new Marker(stream.nextExponential(100.0), -1));
+        }
+        Set<CalendarStructure> visited = EnumSet.noneOf(CalendarStructure.class);
+        for (int size : new int[]{19_000, 1_000, 20}) {
+            while (calendar.size() > size) {
+                calendar.nextEvent();
+            }
+            visited.add(calendar.getActiveStructure());
+            double time = calendar.peekEvent().getTime();
+            List<Marker> ties = new ArrayList<>();
+            for (int i = 0; i < 100; i++) {
+                Marker marker = new Marker(time, i);
+                ties.add(marker);
+                calendar.planEvent(marker);
+            }
+            calendar.nextEvent();
+            for (Marker marker : ties) {
+                assertSame(marker, calendar.nextEvent(), calendar.getActiveStructure().toString());
+            }
+        }
+        assertEquals(EnumSet.allOf(CalendarStructure.class), visited);
+    }
+
+    @Test
+    public void toArrayAndClearKeepStructure() {
+        AdaptiveEventCalendar calendar = new AdaptiveEventCalendar();
+        for (int i = 0; i < 200; i++) {
+            calendar.planEvent(new Marker(200 - i, i));
+        }
+        for (int i = 0; i < 200; i++) {
+            calendar.planEvent(new Marker(200 + i, 200 + i));
+        }
+        CalendarStructure structure = calendar.getActiveStructure();
+        assertEquals(CalendarStructure.BINARY_HEAP, structure);
+        assertEquals(400, calendar.toArray().length);
+        assertEquals(400, calendar.size());
+        calendar.clear();
+        assertTrue(calendar.isEmpty());
+        assertEquals(structure, calendar.getActiveStructure());
+        calendar.planEvent(new Marker(5, 0));
+        calendar.planEvent(new Marker(5, 1));
+        assertEquals(0, ((Marker) calendar.nextEvent()).number);
+        assertEquals(1, ((Marker) calendar.nextEvent()).number);
+    }
+}
@@ -0,0 +1,171 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class BatchExecutionTest {
+
+    private static class Model extends EventSimulationEngine {
+
+        private final List<String> log = Collections.synchronizedList(new ArrayList<>());
+        private final List<Double> times = Collections.synchronizedList(new ArrayList<>());
+        private double stopAt = Double.NaN;
+
+        Model(double maxTime) {
+            super(maxTime);
+        }
+
+        class Step extends Event {
+
+            private final String name;
+            private final int remaining;
+
+            Step(String name, int remaining) {
+                super(0, Model.this);
+                this.name = name;
+                this.remaining = remaining;
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                log.add(name + "@" + getCurrentTime());
+                times.add(getCurrentTime());
+                if (getCurrentTime() == stopAt) {
+                    stop();
+                }
+                if (remaining > 0) {
+                    plan(new Step(name, remaining - 1), getCurrentTime() + 0.25);
+                }
+            }
+        }
+
+        class Parallel extends Step implements IndependentEvent {
+
+            Parallel(String name, int remaining) {
+                super(name, remaining);
+            }
+        }
+
+        void start(boolean independent) {
+            for (int i = 0; i < 4; i++) {
+                String name = "e" + i;
+                plan(independent ? new Parallel(name, 3) : new Step(name, 3), independent ? 0.0 : i * 0.1);
+            }
+            plan(new Step("late", 0), 0.9);
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    private static List<String> run(Model model) {
+        model.simulate(null, new Statistics(), null);
+        return model.log;
+    }
+
+    private static Model sequential(double maxTime) {
+        Model model = new Model(maxTime);
+        model.start(false);
+        return model;
+    }
+
+    private static Model batched(double maxTime, double window) {
+        Model model = new Model(maxTime);
+        model.enableBatchExecution(window);
+        model.start(false);
+        return model;
+    }
+
+    @Test
+    public void eventsPlannedIntoWindowKeepOrder() {
+        Model model = batched(100, 1.0);
+        assertEquals(run(sequential(100)), run(model));
+        List<Double> times = model.times;
+        for (int i = 1; i < times.size(); i++) {
+            assertTrue(times.get(i) >= times.get(i - 1), "time moved back: " + times);
+        }
+    }
+
+    @Test
+    public void maxTimeIsCheckedInsideBatch() {
+        assertEquals(run(sequential(0.6)), run(batched(0.6, 1.0)));
+    }
+
+    @Test
+    public void stopInsideBatchReturnsRemainingEvents() {
+        Model model = batched(100, 1.0);
+        model.stopAt = 0.25;
+        List<String> log = run(model);
+        assertEquals(0.25, model.getCurrentTime());
+        assertEquals(log.size(), log.indexOf("e0@0.25") + 1);
+
+        Model reference = sequential(100);
+        reference.stopAt = 0.25;
+        run(reference);
+        assertFalse(model.getTimeline().isEmpty());
+
+        model.stopAt = Double.NaN;
+        reference.stopAt = Double.NaN;
+        assertEquals(run(reference), run(model));
+    }
+
+    @Test
+    public void independentEventsInParallelMatchSequentialRun() {
+        Model parallel = new Model(100);
+        parallel.enableBatchExecution(0, new ForkJoinPool(2));
+        parallel.start(true);
+        List<String> executed = new ArrayList<>(run(parallel));
+
+        Model sequential = new Model(100);
+        sequential.start(true);
+        List<String> expected = new ArrayList<>(run(sequential));
+        Collections.sort(expected);
+        Collections.sort(executed);
+        assertEquals(expected, executed);
+        List<Double> times = parallel.times;
+        for (int i = 1; i < times.size(); i++) {
+            assertTrue(times.get(i) >= times.get(i - 1), "time moved back: " + times);
+        }
+    }
+}
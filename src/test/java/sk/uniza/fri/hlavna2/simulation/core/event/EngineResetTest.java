@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.commons.randomness.generators.RandomGenerator;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.utils.ObjectPool;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class EngineResetTest {
+
+    private static class Model extends EventSimulationEngine {
+
+        private final ObjectPool<Object> pool = new ObjectPool<>(Object::new);
+        private final List<Double> executed = new ArrayList<>();
+
+        Model(EventCalendar calendar) {
+            super(10, calendar);
+            registerPool(pool);
+        }
+
+        class Arrival extends Event {
+
+            Arrival() {
+                super(0, Model.this);
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                executed.add(getCurrentTime());
+                pool.acquire();
+                plan(this, getCurrentTime() + 1);
+            }
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            plan(new Arrival(), 0.5);
+        }
+
+        @Override
+        public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+            super.reset(parameters, statistics, randoms);
+            executed.clear();
+            plan(new Arrival(), 0.5);
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    /**
+     * Calendar implementing only the methods required before reset was introduced
+     */
+    private static class MinimalCalendar implements EventCalendar {
+
+        private final List<Event> events = new ArrayList<>();
+
+        @Override
+        public void planEvent(Event event) {
+            events.add(event);
+            Collections.sort(events);
+        }
+
+        @Override
+        public Event nextEvent() {
+            return events.remove(0);
+        }
+
+        @Override
+        public boolean isEmpty() {
+            return events.isEmpty();
+        }
+    }
+
+    @Test
+    public void resetReturnsEngineToInitialState() {
+        Model model = new Model(new DefaultEventCalendar());
+        model.init(null, new Statistics(), null);
+        model.plan(model.registerHandler((payload, parameters, statistics, randoms) -> { }), 0, 7.0);
+        model.simulate(null, new Statistics(), null);
+        List<Double> first = new ArrayList<>(model.executed);
+        assertEquals(first.size(), model.pool.getAcquired());
+
+        model.reset(null, new Statistics(), null);
+        assertEquals(0.0, model.getCurrentTime());
+        assertEquals(0, model.pool.getAcquired());
+        assertEquals(0, model.getPlannedPrimitiveEvents());
+        assertEquals(1, model.snapshot().getEvents().size());
+
+        model.simulate(null, new Statistics(), null);
+        assertEquals(first, model.executed);
+        assertEquals(first.size(), model.pool.getSize());
+    }
+
+    @Test
+    public void calendarWithoutOptionalMethodsCanBeReset() {
+        Model model = new Model(new MinimalCalendar());
+        model.init(null, new Statistics(), null);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(1, model.snapshot().getEvents().size());
+
+        model.reset(null, new Statistics(), null);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(11, model.executed.size());
+        assertThrows(UnsupportedOperationException.class, () -> new MinimalCalendar().peekEvent());
+    }
+
+    @Test
+    public void randomStorageWithoutSubstreamsHasDefaults() {
+        RandomStorage storage = new RandomStorage() {
+            @Override
+            public RandomGenerator deregisterRandomGenerator(String key) {
+                return null;
+            }
+
+            @Override
+            public RandomGenerator getRandom(String key) {
+                return null;
+            }
+
+            @Override
+            public void registerRandomGenerator(String key, RandomGenerator random) {
+            }
+        };
+        assertEquals(0, storage.getSubstream());
+        assertFalse(storage.isAntithetic());
+        assertNull(storage.getStream("stream"));
+        assertThrows(UnsupportedOperationException.class, () -> storage.registerStream("stream", null));
+    }
+}
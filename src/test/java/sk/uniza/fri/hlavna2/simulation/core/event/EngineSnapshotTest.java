@@ -0,0 +1,159 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.ExponentialModel;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotSame;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class EngineSnapshotTest {
+
+    private static class Model extends EventSimulationEngine {
+
+        private final CountDownLatch paused = new CountDownLatch(1);
+        private boolean pauseAtNine;
+
+        Model() {
+            super(20);
+        }
+
+        /**
+         * Records its time and plans itself again after the given period
+         */
+        class Tick extends Event {
+
+            private final double period;
+
+            Tick(double period) {
+                super(0, Model.this);
+                this.period = period;
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                ((ExponentialModel.Samples) statistics).getValues().add(getCurrentTime());
+                if (pauseAtNine && period == 3 && getCurrentTime() == 9) {
+                    setPaused(true);
+                    paused.countDown();
+                }
+                plan(this, getCurrentTime() + period);
+            }
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            plan(new Tick(3), 0);
+            plan(new Tick(5), 1.5);
+            plan(new Tick(7), 2.25);
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    private static List<Double> times(EngineSnapshot snapshot) {
+        List<Double> times = new ArrayList<>();
+        for (int i = 0; i < snapshot.getPlannedEvents(); i++) {
+            times.add(snapshot.getEventTime(i));
+        }
+        return times;
+    }
+
+    @Test
+    public void snapshotOrdersCalendarWithoutDrainingIt() {
+        Model model = new Model();
+        model.init(null, new Statistics(), null);
+        EngineSnapshot snapshot = model.snapshot();
+        assertEquals(List.of(0.0, 1.5, 2.25), times(snapshot));
+        assertEquals(0.0, snapshot.getCurrentTime());
+        assertNull(snapshot.getStatistics());
+        assertSame(snapshot, model.snapshot());
+
+        ExponentialModel.Samples statistics = new ExponentialModel.Samples();
+        model.simulate(null, statistics, null);
+        assertEquals(List.of(0.0, 1.5, 2.25, 3.0, 6.0, 6.5, 9.0, 9.25, 11.5, 12.0, 15.0, 16.25, 16.5, 18.0, 21.0),
+                statistics.getValues());
+        EngineSnapshot finished = model.snapshot();
+        assertNotSame(snapshot, finished);
+        assertEquals(List.of(21.5, 23.25, 24.0), times(finished));
+        assertEquals(3, finished.getEvents().size());
+        assertEquals(finished.getEventTime(0), finished.getEvents().get(0).getTime());
+        assertThrows(UnsupportedOperationException.class, () -> finished.getEvents().clear());
+    }
+
+    @Test
+    public void snapshotIsNotChangedByLaterEvents() {
+        Model model = new Model();
+        model.init(null, new Statistics(), null);
+        ExponentialModel.Samples statistics = new ExponentialModel.Samples();
+        model.simulate(null, statistics, null);
+        EngineSnapshot snapshot = model.snapshot();
+        model.plan(model.new Tick(1), 22);
+        statistics.getValues().add(22.0);
+
+        assertEquals(List.of(21.5, 23.25, 24.0), times(snapshot));
+        assertEquals(15, ((ExponentialModel.Samples) snapshot.getStatistics()).getValues().size());
+        assertNotSame(snapshot, model.snapshot());
+        assertEquals(List.of(21.5, 22.0, 23.25, 24.0), times(model.snapshot()));
+    }
+
+    @Test
+    public void pausedEngineCanBeInspectedFromOtherThread() throws InterruptedException {
+        Model model = new Model();
+        model.pauseAtNine = true;
+        model.init(null, new Statistics(), null);
+        ExponentialModel.Samples statistics = new ExponentialModel.Samples();
+        Thread simulation = new Thread(() -> model.simulate(null, statistics, null));
+        simulation.start();
+        assertTrue(model.paused.await(5, TimeUnit.SECONDS));
+
+        EngineSnapshot snapshot = model.snapshot();
+        assertEquals(9.0, snapshot.getCurrentTime());
+        assertEquals(List.of(9.25, 11.5, 12.0), times(snapshot));
+        assertEquals(7, ((ExponentialModel.Samples) snapshot.getStatistics()).getValues().size());
+        assertTrue(simulation.isAlive());
+
+        model.setPaused(false);
+        simulation.join(5000);
+        assertEquals(15, statistics.getValues().size());
+        assertEquals(9.0, snapshot.getCurrentTime());
+    }
+}
@@ -0,0 +1,182 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.ExponentialModel;
+import sk.uniza.fri.hlavna2.simulation.core.ReplicationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.exception.PastTimeException;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class LockstepSimulationEngineTest {
+
+    /**
+     * Lanes with single exponentially distributed arrival, comparable with {@link ExponentialModel}
+     */
+    private static class Arrivals extends LockstepSimulationEngine {
+
+        private final double[] arrivals;
+        private int arrival;
+
+        Arrivals(int lanes) {
+            super(lanes, 100, ExponentialModel.SEED);
+            arrivals = new double[lanes];
+            arrival = registerHandler((lane, payload, parameters, random) -> arrivals[lane] = getCurrentTime(lane));
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            reset(parameters, statistics, storage);
+        }
+
+        @Override
+        public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+            super.reset(parameters, statistics, randoms);
+            for (int lane = 0; lane < getLanes(); lane++) {
+                plan(lane, arrival, 0, getStream(lane).nextExponential(1.0));
+            }
+        }
+
+        @Override
+        protected void collect(int lane, Statistics statistics) {
+            ((ExponentialModel.Samples) statistics).getValues().add(arrivals[lane]);
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    /**
+     * Every lane ticks with its own period
+     */
+    private static class Ticks extends LockstepSimulationEngine {
+
+        private final List<List<Double>> ticks = new ArrayList<>();
+        private int tick;
+
+        Ticks(int lanes) {
+            super(lanes, 5, 1);
+            tick = registerHandler((lane, payload, parameters, random) -> {
+                ticks.get(lane).add(getCurrentTime(lane));
+                plan(lane, tick, payload, getCurrentTime(lane) + payload);
+            });
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            reset(parameters, statistics, storage);
+        }
+
+        @Override
+        public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+            super.reset(parameters, statistics, randoms);
+            ticks.clear();
+            for (int lane = 0; lane < getLanes(); lane++) {
+                ticks.add(new ArrayList<>());
+                plan(lane, tick, lane + 1, 0);
+            }
+        }
+
+        @Override
+        protected void collect(int lane, Statistics statistics) {
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    @Test
+    public void lanesReproduceSingleReplications() {
+        ExponentialModel.Samples lanes = new ExponentialModel.Samples();
+        ReplicationEngine.getSolver(new Arrivals(4), null, lanes).solve(12);
+        ExponentialModel.Samples single = new ExponentialModel.Samples();
+        ReplicationEngine.getSolver(new ExponentialModel(), null, single).solve(12);
+        assertEquals(single.getValues(), lanes.getValues());
+        assertEquals(ExponentialModel.expected(0, 12, 1.0), lanes.getValues());
+    }
+
+    @Test
+    public void replicationCountIsRoundedUpToLanes() {
+        ExponentialModel.Samples samples = new ExponentialModel.Samples();
+        ReplicationEngine.getSolver(new Arrivals(4), null, samples).solve(6);
+        assertEquals(ExponentialModel.expected(0, 8, 1.0), samples.getValues());
+
+        ExponentialModel.Samples partial = new ExponentialModel.Samples();
+        ReplicationEngine.getSolver(new Arrivals(4), null, new ExponentialModel.Samples()).solve(8, 4, partial);
+        assertEquals(ExponentialModel.expected(8, 4, 1.0), partial.getValues());
+    }
+
+    @Test
+    public void antitheticRunMirrorsLanes() {
+        ExponentialModel.Samples samples = new ExponentialModel.Samples();
+        ReplicationEngine.getSolver(new Arrivals(2), null, samples).solveAntithetic(2);
+        List<Double> values = samples.getValues();
+        assertEquals(4, values.size());
+        assertEquals(ExponentialModel.expected(0, 2, 1.0), values.subList(0, 2));
+        for (int lane = 0; lane < 2; lane++) {
+            assertEquals(1.0, Math.exp(-values.get(lane)) + Math.exp(-values.get(2 + lane)), 1e-12);
+        }
+    }
+
+    @Test
+    public void everyLaneHasItsOwnClock() {
+        Ticks ticks = new Ticks(3);
+        ticks.init(null, new Statistics(), null);
+        ticks.reset(null, new Statistics(), null);
+        ticks.simulate(null, new Statistics(), null);
+        assertEquals(List.of(0.0, 1.0, 2.0, 3.0, 4.0, 5.0), ticks.ticks.get(0));
+        assertEquals(List.of(0.0, 2.0, 4.0, 6.0), ticks.ticks.get(1));
+        assertEquals(List.of(0.0, 3.0, 6.0), ticks.ticks.get(2));
+        assertEquals(6.0, ticks.getCurrentTime(1));
+        assertThrows(PastTimeException.class,
+                () -> ticks.plan(1, ticks.tick, 1, 5));
+        assertThrows(IllegalArgumentException.class, () -> ticks.plan(1, 7, 1, 10));
+    }
+
+    @Test
+    public void interruptBeforeSimulateIsNotLost() {
+        Ticks ticks = new Ticks(2);
+        ticks.init(null, new Statistics(), null);
+        ticks.interrupt();
+        ticks.reset(null, new Statistics(), null);
+        ticks.simulate(null, new Statistics(), null);
+        assertEquals(List.of(), ticks.ticks.get(0));
+
+        ticks.clearInterrupt();
+        ticks.simulate(null, new Statistics(), null);
+        assertEquals(List.of(0.0, 1.0, 2.0, 3.0, 4.0, 5.0), ticks.ticks.get(0));
+    }
+}
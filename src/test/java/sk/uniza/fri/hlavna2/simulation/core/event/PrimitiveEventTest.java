@@ -0,0 +1,145 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.listeners.EventListener;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class PrimitiveEventTest {
+
+    private static class Model extends EventSimulationEngine {
+
+        private final List<String> log = new ArrayList<>();
+        private final int handler;
+
+        Model(boolean handlers) {
+            super(100);
+            handler = handlers ? registerHandler((payload, parameters, statistics, randoms) -> log.add(getCurrentTime() + " p" + payload)) : -1;
+        }
+
+        class Marker extends Event {
+
+            private final String name;
+
+            Marker(String name) {
+                super(0, Model.this);
+                this.name = name;
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                log.add(getCurrentTime() + " " + name);
+            }
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            plan(new Marker("a"), 1);
+            plan(handler, 7, 1);
+            plan(handler, 8, 0.5);
+            plan(new Marker("b"), 2);
+            plan(handler, 9, 3);
+        }
+
+        void copy(Model source) {
+            copyStateFrom(source, event -> new Marker(((Marker) event).name));
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    @Test
+    public void primitiveEventsShareTimelineWithObjects() {
+        Model model = new Model(true);
+        model.init(null, new Statistics(), null);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(List.of("0.5 p8", "1.0 a", "1.0 p7", "2.0 b", "3.0 p9"), model.log);
+    }
+
+    @Test
+    public void listenersAreNotifiedAboutPrimitiveEvents() {
+        Model model = new Model(true);
+        List<String> notified = new ArrayList<>();
+        model.addEventListener(new EventListener() {
+            @Override
+            public void onEvent(Event event, EventSimulationEngine engine) {
+                notified.add(engine.getCurrentTime() + " " + ((Model.Marker) event).name);
+            }
+
+            @Override
+            public void onPrimitiveEvent(int handlerId, long payload, EventSimulationEngine engine) {
+                notified.add(engine.getCurrentTime() + " p" + payload + " by " + handlerId);
+            }
+        });
+        model.init(null, new Statistics(), null);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(List.of("0.5 p8 by 0", "1.0 a", "1.0 p7 by 0", "2.0 b", "3.0 p9 by 0"), notified);
+    }
+
+    @Test
+    public void snapshotContainsPrimitiveEvents() {
+        Model model = new Model(true);
+        model.init(null, new Statistics(), null);
+        EngineSnapshot snapshot = model.snapshot();
+        assertEquals(2, snapshot.getPlannedEvents());
+        assertEquals(3, snapshot.getPlannedPrimitiveEvents());
+        assertEquals(0.5, snapshot.getPrimitiveEventTime(0));
+        assertEquals(1.0, snapshot.getPrimitiveEventTime(1));
+        assertEquals(3.0, snapshot.getPrimitiveEventTime(2));
+    }
+
+    @Test
+    public void copyRunsPrimitiveEventsByItsOwnHandlers() {
+        Model source = new Model(true);
+        source.init(null, new Statistics(), null);
+        Model copy = new Model(true);
+        copy.copy(source);
+        copy.simulate(null, new Statistics(), null);
+        assertEquals(List.of("0.5 p8", "1.0 a", "1.0 p7", "2.0 b", "3.0 p9"), copy.log);
+        assertEquals(List.of(), source.log);
+        assertEquals(3, source.getPlannedPrimitiveEvents());
+    }
+
+    @Test
+    public void copyWithoutHandlersIsRejected() {
+        Model source = new Model(true);
+        source.init(null, new Statistics(), null);
+        Model copy = new Model(false);
+        assertThrows(IllegalStateException.class, () -> copy.copy(source));
+        assertThrows(IllegalArgumentException.class, () -> copy.plan(0, 1, 1));
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.TimeUnit;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class RealTimePacingTest {
+
+    private static class Model extends EventSimulationEngine {
+
+        private int executed;
+
+        Model(double maxTime) {
+            super(maxTime);
+        }
+
+        class Tick extends Event {
+
+            Tick() {
+                super(0, Model.this);
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                executed++;
+                plan(this, getCurrentTime() + 0.1);
+            }
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    @Test
+    public void pacesSimulationByWallClock() {
+        Model model = new Model(1);
+        model.plan(model.new Tick(), 0);
+        model.synchronizeSpeed(0.1, 10.0);
+        long start = System.nanoTime();
+        model.simulate(null, new Statistics(), null);
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        assertTrue(elapsed >= 80, "simulation was not paced: " + elapsed + " ms");
+        assertTrue(model.executed >= 10);
+    }
+
+    @Test
+    public void engineIsNotHeldWhileWaitingForWallClock() throws Exception {
+        Model model = new Model(3);
+        model.plan(model.new Tick(), 0);
+        model.synchronizeSpeed(1.0, 1.0);
+        CompletableFuture<Void> simulation = CompletableFuture.runAsync(() -> model.simulate(null, new Statistics(), null));
+        Thread.sleep(300);
+        long start = System.nanoTime();
+        synchronized (model) {
+            assertTrue(model.executed > 0);
+        }
+        long elapsed = TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - start);
+        model.stop();
+        simulation.get(5, TimeUnit.SECONDS);
+        assertTrue(elapsed < 200, "monitor waited for pacing: " + elapsed + " ms");
+    }
+
+    @Test
+    public void defaultSynchronizationEventDoesNotWait() {
+        Model model = new Model(10);
+        SynchronizationEvent event = new SynchronizationEvent();
+        event.engine = model;
+        model.plan(event, 1);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(1.0, model.getCurrentTime());
+    }
+}
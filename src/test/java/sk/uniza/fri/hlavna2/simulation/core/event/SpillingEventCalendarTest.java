@@ -0,0 +1,215 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.event;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.IntStream;
+import java.util.stream.Stream;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class SpillingEventCalendarTest {
+
+    private static final int EVENTS = 100;
+    private static final int RECORD = Double.BYTES + Long.BYTES + Integer.BYTES;
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Engine logging numbers of executed marks
+     */
+    private static class Marks extends EventSimulationEngine {
+
+        private final SpillingEventCalendar calendar;
+        private final List<Integer> log = new ArrayList<>();
+
+        Marks(SpillingEventCalendar calendar) {
+            super(1000, calendar);
+            this.calendar = calendar;
+        }
+
+        class Mark extends Event {
+
+            private final int number;
+
+            Mark(int number) {
+                super(0, Marks.this);
+                this.number = number;
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                log.add(number);
+            }
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    private static class MarkCodec implements EventCodec {
+
+        private Marks owner;
+
+        @Override
+        public int getMaxSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Event event, ByteBuffer buffer) {
+            buffer.putInt(((Marks.Mark) event).number);
+        }
+
+        @Override
+        public Event decode(ByteBuffer buffer) {
+            return owner.new Mark(buffer.getInt());
+        }
+    }
+
+    private Marks create(int spillSize, long maxRunBytes) throws IOException {
+        MarkCodec codec = new MarkCodec();
+        Marks engine = new Marks(new SpillingEventCalendar(codec, directory, 1, spillSize, maxRunBytes));
+        codec.owner = engine;
+        return engine;
+    }
+
+    /**
+     * Every time is planned twice, numbers are in order of planning
+     */
+    private static double time(int number) {
+        return (number * 7) % (EVENTS / 2);
+    }
+
+    private static void planAll(Marks engine) {
+        for (int number = 0; number < EVENTS; number++) {
+            engine.plan(engine.new Mark(number), time(number));
+        }
+    }
+
+    private static List<Integer> expected() {
+        return IntStream.range(0, EVENTS).boxed()
+                .sorted(Comparator.comparingDouble(SpillingEventCalendarTest::time))
+                .toList();
+    }
+
+    private long runFiles() throws IOException {
+        try (Stream<Path> files = Files.list(directory)) {
+            return files.filter(file -> file.getFileName().toString().matches("run-.*\\.bin")).count();
+        }
+    }
+
+    @Test
+    public void spilledEventsReturnInTimeAndPlanningOrder() throws IOException {
+        Marks engine = create(8, Integer.MAX_VALUE);
+        planAll(engine);
+        assertEquals(12, engine.calendar.getRuns());
+        assertEquals(2 + 2, engine.calendar.getInMemory());
+        engine.simulate(null, new Statistics(), null);
+        assertEquals(expected(), engine.log);
+        assertTrue(engine.calendar.isEmpty());
+        assertEquals(0, engine.calendar.getRuns());
+    }
+
+    @Test
+    public void largeSpillIsWrittenToSeveralRuns() throws IOException {
+        Marks engine = create(EVENTS - 2, 7 * RECORD);
+        planAll(engine);
+        assertEquals(14, engine.calendar.getRuns());
+        assertEquals(14, runFiles());
+        engine.simulate(null, new Statistics(), null);
+        assertEquals(expected(), engine.log);
+    }
+
+    @Test
+    public void existingFilesAreNotOverwritten() throws IOException {
+        Path foreign = directory.resolve("run-0.bin");
+        Files.write(foreign, new byte[]{1, 2, 3});
+        Marks engine = create(8, Integer.MAX_VALUE);
+        planAll(engine);
+        assertArrayEquals(new byte[]{1, 2, 3}, Files.readAllBytes(foreign));
+        assertEquals(engine.calendar.getRuns() + 1, runFiles());
+        engine.simulate(null, new Statistics(), null);
+        assertEquals(expected(), engine.log);
+    }
+
+    @Test
+    public void copyDecodesSpilledEvents() throws IOException {
+        Marks engine = create(8, Integer.MAX_VALUE);
+        planAll(engine);
+        Event[] events = engine.calendar.toArray();
+        assertEquals(EVENTS, events.length);
+        boolean[] seen = new boolean[EVENTS];
+        for (Event event : events) {
+            int number = ((Marks.Mark) event).number;
+            assertEquals(time(number), event.getTime());
+            assertEquals(number, event.sequence - events[0].sequence + ((Marks.Mark) events[0]).number);
+            seen[number] = true;
+        }
+        for (int number = 0; number < EVENTS; number++) {
+            assertTrue(seen[number], "missing event " + number);
+        }
+    }
+
+    @Test
+    public void consumedRunFilesAreDeletedWhenReleased() throws IOException, InterruptedException {
+        Marks engine = create(8, Integer.MAX_VALUE);
+        planAll(engine);
+        engine.calendar.clear();
+        assertTrue(engine.calendar.isEmpty());
+        for (int attempt = 0; attempt < 100 && runFiles() > 0; attempt++) {
+            System.gc();
+            Thread.sleep(50);
+        }
+        assertEquals(0, runFiles());
+    }
+
+    @Test
+    public void rejectsRunSmallerThanEvent() {
+        assertThrows(IllegalArgumentException.class, () -> create(8, RECORD - 1));
+    }
+}
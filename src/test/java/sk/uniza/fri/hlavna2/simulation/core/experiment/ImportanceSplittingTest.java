@@ -0,0 +1,271 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Function;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.event.AdaptiveEventCalendar;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventCalendar;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventCodec;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.event.SpillingEventCalendar;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+import sk.uniza.fri.hlavna2.simulation.core.utils.UniformStream;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ImportanceSplittingTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Symmetric random walk absorbed at zero, starting at one
+     */
+    private static class Walk extends EventSimulationEngine implements Splittable<Walk> {
+
+        private UniformStream stream;
+        private int position;
+
+        Walk() {
+            super(Double.POSITIVE_INFINITY);
+        }
+
+        class Step extends Event {
+
+            Step() {
+                super(0, Walk.this);
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                position += stream.nextDouble() < 0.5 ? 1 : -1;
+                if (position > 0) {
+                    plan(new Step(), getCurrentTime() + 1);
+                }
+            }
+        }
+
+        @Override
+        public Walk split() {
+            Walk copy = new Walk();
+            copy.stream = stream;
+            copy.position = position;
+            copy.copyStateFrom(this, event -> copy.new Step());
+            return copy;
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            stream = new UniformStream(11);
+            storage.registerStream("walk", stream);
+        }
+
+        @Override
+        public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+            super.reset(parameters, statistics, randoms);
+            position = 1;
+            plan(new Step(), 1);
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    /**
+     * Events planned to the same time, which record their number
+     */
+    private static class Ties extends EventSimulationEngine implements Splittable<Ties> {
+
+        private final Function<EventCodec, EventCalendar> calendars;
+        private final List<Integer> log = new ArrayList<>();
+
+        Ties(Function<EventCodec, EventCalendar> calendars) {
+            this(calendars, new MarkCodec());
+        }
+
+        private Ties(Function<EventCodec, EventCalendar> calendars, MarkCodec codec) {
+            super(100, calendars.apply(codec));
+            this.calendars = calendars;
+            codec.owner = this;
+        }
+
+        class Mark extends Event {
+
+            private final int number;
+
+            Mark(int number) {
+                super(0, Ties.this);
+                this.number = number;
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                log.add(number);
+            }
+        }
+
+        @Override
+        public Ties split() {
+            Ties copy = new Ties(calendars);
+            copy.copyStateFrom(this, event -> copy.new Mark(((Mark) event).number));
+            return copy;
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            for (int i = 0; i < 10; i++) {
+                plan(new Mark(i), 5);
+            }
+            plan(new Mark(-1), 2);
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    private static class MarkCodec implements EventCodec {
+
+        private Ties owner;
+
+        @Override
+        public int getMaxSize() {
+            return Integer.BYTES;
+        }
+
+        @Override
+        public void encode(Event event, ByteBuffer buffer) {
+            buffer.putInt(((Ties.Mark) event).number);
+        }
+
+        @Override
+        public Event decode(ByteBuffer buffer) {
+            return owner.new Mark(buffer.getInt());
+        }
+    }
+
+    private static void assertCopyKeepsOrder(Function<EventCodec, EventCalendar> calendars) {
+        Ties original = new Ties(calendars);
+        original.init(null, new Statistics(), null);
+        Ties copy = original.split();
+        copy.simulate(null, new Statistics(), null);
+        assertEquals(List.of(-1, 0, 1, 2, 3, 4, 5, 6, 7, 8, 9), copy.log);
+        Ties second = copy.split();
+        assertEquals(0, second.snapshot().getPlannedEvents());
+    }
+
+    @Test
+    public void gamblersRuinProbabilityIsEstimated() {
+        ImportanceSplitting<Walk> splitting = new ImportanceSplitting<>(Walk::new, null, new Statistics(),
+                engine -> engine.position, 2, 3, 4);
+        SplittingResult result = splitting.run(2000, 5);
+        assertEquals(0.25, result.getProbability(), 0.02);
+        assertEquals(0.5, result.getStageProbability(0), 0.03);
+        assertEquals(2.0 / 3.0, result.getStageProbability(1), 0.03);
+        assertEquals(0.75, result.getStageProbability(2), 0.03);
+    }
+
+    @Test
+    public void copyKeepsOrderOfEqualTimeEventsInAdaptiveCalendar() {
+        assertCopyKeepsOrder(codec -> new AdaptiveEventCalendar());
+    }
+
+    @Test
+    public void copyKeepsOrderOfEqualTimeEventsInSpillingCalendar() {
+        assertCopyKeepsOrder(codec -> {
+            try {
+                return new SpillingEventCalendar(codec, directory, 1, 4);
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+    }
+
+    /**
+     * Counter increased by primitive event every time unit
+     */
+    private static class Steps extends EventSimulationEngine implements Splittable<Steps> {
+
+        private int step;
+        private int count;
+
+        Steps() {
+            super(100);
+            step = registerHandler((payload, parameters, statistics, randoms) -> {
+                count++;
+                plan(step, 0, getCurrentTime() + 1);
+            });
+        }
+
+        @Override
+        public Steps split() {
+            Steps copy = new Steps();
+            copy.count = count;
+            copy.copyStateFrom(this, event -> event);
+            return copy;
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            plan(step, 0, 1);
+        }
+
+        @Override
+        public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+            super.reset(parameters, statistics, randoms);
+            count = 0;
+            plan(step, 0, 1);
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    @Test
+    public void levelsCrossedByPrimitiveEventsAreDetected() {
+        ImportanceSplitting<Steps> splitting = new ImportanceSplitting<>(Steps::new, null, new Statistics(),
+                engine -> engine.count, 3, 6);
+        SplittingResult result = splitting.run(4, 2);
+        assertEquals(1.0, result.getProbability());
+        assertEquals(1.0, result.getStageProbability(0));
+        assertEquals(1.0, result.getStageProbability(1));
+        assertEquals(16, result.getTrajectories());
+    }
+}
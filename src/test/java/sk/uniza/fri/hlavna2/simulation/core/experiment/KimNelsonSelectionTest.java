@@ -0,0 +1,73 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.ExponentialModel;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class KimNelsonSelectionTest {
+
+    private static final List<SimulationParameters> ALTERNATIVES = List.of(
+            new ExponentialModel.Parameters(3), new ExponentialModel.Parameters(1), new ExponentialModel.Parameters(6));
+
+    private static KimNelsonSelection selection(boolean minimize) {
+        return new KimNelsonSelection(ExponentialModel::new, ExponentialModel.Samples::new,
+                statistics -> ((ExponentialModel.Samples) statistics).getMean(), minimize);
+    }
+
+    @Test
+    public void selectsAlternativeWithLowestMean() {
+        SelectionResult result = selection(true).select(ALTERNATIVES, 0.5, 0.05, 10, 500, new ForkJoinPool(2));
+        assertEquals(1, result.getBest());
+        assertEquals(List.of(1), result.getSurvivors());
+        assertTrue(result.getTotalReplications() < 3 * 500);
+        assertTrue(result.getReplications(1) >= 10);
+        assertEquals(ExponentialModel.expected(0, result.getReplications(1), 1).stream().mapToDouble(Double::doubleValue).average().getAsDouble(),
+                result.getMean(1), 1e-9);
+    }
+
+    @Test
+    public void selectsAlternativeWithHighestMean() {
+        SelectionResult result = selection(false).select(ALTERNATIVES, 0.5, 0.05, 10, 500);
+        assertEquals(2, result.getBest());
+    }
+
+    @Test
+    public void rejectsInvalidArguments() {
+        KimNelsonSelection selection = selection(true);
+        assertThrows(IllegalArgumentException.class, () -> selection.select(List.of(), 0.5, 0.05, 10, 100));
+        assertThrows(IllegalArgumentException.class, () -> selection.select(ALTERNATIVES, 0.5, 0.05, 1, 100));
+        assertThrows(IllegalArgumentException.class, () -> selection.select(ALTERNATIVES, 0.5, 0.05, 10, 5));
+    }
+}
@@ -0,0 +1,125 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.experiment;
+
+import java.io.StringWriter;
+import java.util.List;
+import java.util.concurrent.ForkJoinPool;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.ExponentialModel;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ScenarioSweepTest {
+
+    private static ScenarioSweep sweep() {
+        ScenarioSweep sweep = new ScenarioSweep(ExponentialModel::new, ExponentialModel.Samples::new);
+        sweep.addColumn("arrival", statistics -> ((ExponentialModel.Samples) statistics).getMean());
+        return sweep;
+    }
+
+    private static List<SimulationParameters> scenarios() {
+        return ScenarioSweep.scenarios(new FullFactorialDesign(new double[]{1, 2}), point -> new ExponentialModel.Parameters(point[0]));
+    }
+
+    @Test
+    public void replicationsDoNotDependOnTasks() {
+        SweepResults results = sweep().run(scenarios(), 7, 3, new ForkJoinPool(2));
+        assertEquals(2, results.getScenarios());
+        for (int scenario = 0; scenario < 2; scenario++) {
+            List<Double> expected = ExponentialModel.expected(0, 7, scenario + 1);
+            for (int replication = 0; replication < 7; replication++) {
+                assertEquals(expected.get(replication), results.getValue(0, scenario, replication));
+            }
+            assertEquals(7, ((ExponentialModel.Samples) results.getStatistics(scenario)).getValues().size());
+        }
+    }
+
+    @Test
+    public void independentScenariosUseDifferentSubstreams() {
+        ScenarioSweep sweep = sweep();
+        sweep.setCommonRandomNumbers(false);
+        SweepResults results = sweep.run(scenarios(), 4, 4);
+        assertEquals(ExponentialModel.expected(4, 1, 2).get(0), results.getValue(0, 1, 0));
+    }
+
+    @Test
+    public void writesOneRowPerReplication() throws Exception {
+        StringWriter writer = new StringWriter();
+        sweep().run(scenarios(), 2, 1).writeCsv(writer);
+        String[] lines = writer.toString().split("\n");
+        assertEquals("scenario,replication,arrival", lines[0]);
+        assertEquals(5, lines.length);
+        assertTrue(lines[4].startsWith("1,1,"));
+    }
+
+    @Test
+    public void quotesColumnNamesWithSeparators() throws Exception {
+        ScenarioSweep sweep = sweep();
+        sweep.addColumn("mean, \"fast\"", statistics -> 0);
+        sweep.addColumn("line\nbreak", statistics -> 0);
+        StringWriter writer = new StringWriter();
+        sweep.run(scenarios(), 1, 1).writeCsv(writer);
+        assertTrue(writer.toString().startsWith("scenario,replication,arrival,\"mean, \"\"fast\"\"\",\"line\nbreak\"\n"));
+    }
+
+    @Test
+    public void rejectsInvalidTaskSize() {
+        assertThrows(IllegalArgumentException.class, () -> sweep().run(scenarios(), 4, 0));
+        assertThrows(IllegalArgumentException.class, () -> sweep().run(scenarios(), 4, -1));
+        assertThrows(IllegalArgumentException.class, () -> sweep().run(scenarios(), 0, 2));
+    }
+
+    @Test
+    public void fullFactorialDesignCombinesAllLevels() {
+        List<double[]> points = new FullFactorialDesign(new double[]{1, 2}, new double[]{10, 20, 30}).getPoints();
+        assertEquals(6, points.size());
+        assertArrayEquals(new double[]{1, 10}, points.get(0));
+        assertArrayEquals(new double[]{2, 30}, points.get(5));
+    }
+
+    @Test
+    public void latinHypercubeHitsEveryStratumOnce() {
+        int samples = 8;
+        List<double[]> points = new LatinHypercubeDesign(samples, new double[]{0, 10}, new double[]{1, 20}, 7).getPoints();
+        assertEquals(samples, points.size());
+        for (int factor = 0; factor < 2; factor++) {
+            boolean[] hit = new boolean[samples];
+            for (double[] point : points) {
+                double position = factor == 0 ? point[0] : (point[1] - 10) / 10;
+                int stratum = (int) (position * samples);
+                assertTrue(!hit[stratum], "stratum hit twice");
+                hit[stratum] = true;
+            }
+        }
+        assertArrayEquals(points.get(3), new LatinHypercubeDesign(samples, new double[]{0, 10}, new double[]{1, 20}, 7).getPoints().get(3));
+    }
+}
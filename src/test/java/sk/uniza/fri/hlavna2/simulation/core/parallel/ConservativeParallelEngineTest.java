@@ -0,0 +1,179 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.exception.LookaheadViolationException;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ConservativeParallelEngineTest {
+
+    private static class Node extends LogicalProcess {
+
+        private final List<Double> executed = new ArrayList<>();
+        private final double sendDelay;
+        private Node peer;
+
+        Node(double lookahead, double sendDelay) {
+            super(lookahead);
+            this.sendDelay = sendDelay;
+        }
+
+        class Local extends Event {
+
+            Local() {
+                super(0, Node.this);
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                executed.add(getCurrentTime());
+                plan(new Local(), getCurrentTime() + 0.7);
+                peer.receive(Node.this, getCurrentTime() + sendDelay);
+            }
+        }
+
+        class Remote extends Event {
+
+            Remote() {
+                super(0, Node.this);
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                executed.add(-getCurrentTime());
+            }
+        }
+
+        void receive(Node sender, double time) {
+            sender.send(this, new Remote(), time);
+        }
+    }
+
+    private static List<List<Double>> run(int parallelism, double sendDelay) {
+        ConservativeParallelEngine engine = new ConservativeParallelEngine(20, parallelism);
+        Node a = new Node(1, sendDelay);
+        Node b = new Node(1, sendDelay);
+        a.peer = b;
+        b.peer = a;
+        engine.addLogicalProcess(a);
+        engine.addLogicalProcess(b);
+        a.plan(a.new Local(), 0);
+        b.plan(b.new Local(), 0.3);
+        engine.simulate(null, new Statistics(), null);
+        return List.of(a.executed, b.executed);
+    }
+
+    @Test
+    public void executesEventsOfEveryProcessInTimeOrder() {
+        for (List<Double> executed : run(2, 1.5)) {
+            double last = 0;
+            for (double time : executed) {
+                assertTrue(Math.abs(time) >= last, "events out of order: " + executed);
+                last = Math.abs(time);
+                assertTrue(last < 20);
+            }
+        }
+    }
+
+    @Test
+    public void resultDoesNotDependOnParallelism() {
+        assertEquals(run(1, 1.5), run(2, 1.5));
+        assertEquals(run(2, 1.5), run(2, 1.5));
+    }
+
+    @Test
+    public void deliversMessagesAtTheirTime() {
+        List<List<Double>> executed = run(2, 1.5);
+        long received = executed.get(1).stream().filter(t -> t < 0).count();
+        long sent = executed.get(0).stream().filter(t -> t >= 0 && t + 1.5 < 20).count();
+        assertEquals(sent, received);
+        assertTrue(executed.get(1).contains(-1.5));
+    }
+
+    @Test
+    public void rejectsMessageInsideLookahead() {
+        assertThrows(LookaheadViolationException.class, () -> run(2, 0.5));
+    }
+
+    @Test
+    public void rejectsNonPositiveLookahead() {
+        assertThrows(IllegalArgumentException.class, () -> new Node(0, 1));
+    }
+
+    @Test
+    public void runsPrimitiveEventsInTimeOrder() {
+        ConservativeParallelEngine engine = new ConservativeParallelEngine(5, 2);
+        Node a = new Node(1, 1.5);
+        Node b = new Node(1, 1.5);
+        a.peer = b;
+        b.peer = a;
+        engine.addLogicalProcess(a);
+        engine.addLogicalProcess(b);
+        int handler = a.registerHandler(
+                (payload, parameters, statistics, randoms) -> a.executed.add(a.getCurrentTime()));
+        a.plan(a.new Local(), 0);
+        b.plan(b.new Local(), 0.3);
+        a.plan(handler, 0, 2.5);
+        engine.simulate(null, new Statistics(), null);
+        assertTrue(a.executed.contains(2.5));
+        double last = 0;
+        for (double time : a.executed) {
+            assertTrue(Math.abs(time) >= last, "events out of order: " + a.executed);
+            last = Math.abs(time);
+        }
+    }
+
+    @Test
+    public void interruptBeforeSimulateIsNotLost() {
+        ConservativeParallelEngine engine = new ConservativeParallelEngine(20, 2);
+        Node a = new Node(1, 1.5);
+        Node b = new Node(1, 1.5);
+        a.peer = b;
+        b.peer = a;
+        engine.addLogicalProcess(a);
+        engine.addLogicalProcess(b);
+        a.plan(a.new Local(), 0);
+        engine.interrupt();
+        engine.simulate(null, new Statistics(), null);
+        assertTrue(a.executed.isEmpty());
+
+        engine.clearInterrupt();
+        engine.simulate(null, new Statistics(), null);
+        assertFalse(a.executed.isEmpty());
+    }
+}
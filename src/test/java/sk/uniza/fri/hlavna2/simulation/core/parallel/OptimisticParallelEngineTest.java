@@ -0,0 +1,206 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.parallel;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class OptimisticParallelEngineTest {
+
+    private static final double MAX_TIME = 10;
+    private static final double PRIMITIVE = 1000;
+
+    private static class Node extends OptimisticLogicalProcess {
+
+        private final List<Double> log = new ArrayList<>();
+        private final double offset;
+        private final double replyDelay;
+        private Node peer;
+
+        Node(double offset, double replyDelay) {
+            this.offset = offset;
+            this.replyDelay = replyDelay;
+        }
+
+        void record(double time) {
+            saveState(() -> log.remove(log.size() - 1));
+            log.add(time);
+        }
+
+        class Local extends Event {
+
+            Local() {
+                super(0, Node.this);
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                record(getCurrentTime());
+                if (getCurrentTime() + 1 < MAX_TIME) {
+                    plan(new Local(), getCurrentTime() + 1);
+                }
+                if (getCurrentTime() + replyDelay < MAX_TIME) {
+                    send(peer, peer.new Remote(), getCurrentTime() + replyDelay);
+                }
+            }
+        }
+
+        class Remote extends Event {
+
+            Remote() {
+                super(0, Node.this);
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                record(-getCurrentTime());
+            }
+        }
+    }
+
+    private static List<Double> expected(double firstLocal, double peerFirstLocal, double peerDelay) {
+        List<Double> expected = new ArrayList<>();
+        for (double t = firstLocal; t < MAX_TIME; t++) {
+            expected.add(t);
+        }
+        for (double t = peerFirstLocal; t + peerDelay < MAX_TIME; t++) {
+            expected.add(-(t + peerDelay));
+        }
+        expected.sort((a, b) -> Double.compare(Math.abs(a), Math.abs(b)));
+        return expected;
+    }
+
+    @Test
+    public void rollbackRestoresSequentialResult() {
+        OptimisticParallelEngine engine = new OptimisticParallelEngine(MAX_TIME, 100, 2);
+        Node a = new Node(0.5, 0.25);
+        Node b = new Node(1, 0.1);
+        a.peer = b;
+        b.peer = a;
+        engine.addLogicalProcess(a);
+        engine.addLogicalProcess(b);
+        a.plan(a.new Local(), 0.5);
+        b.plan(b.new Local(), 1);
+        engine.simulate(null, new Statistics(), null);
+
+        assertEquals(expected(0.5, 1, 0.1), a.log);
+        assertEquals(expected(1, 0.5, 0.25), b.log);
+        assertTrue(engine.getRollbacks() > 0);
+        assertTrue(engine.getAntiMessages() > 0);
+        assertTrue(engine.getRollbackRate() > 0 && engine.getRollbackRate() < 1);
+        assertEquals(engine.getProcessedEvents() - engine.getRolledBackEvents(), a.log.size() + b.log.size());
+    }
+
+    @Test
+    public void narrowWindowAvoidsRollbacks() {
+        OptimisticParallelEngine engine = new OptimisticParallelEngine(MAX_TIME, 0.05, 2);
+        Node a = new Node(0.5, 0.25);
+        Node b = new Node(1, 0.1);
+        a.peer = b;
+        b.peer = a;
+        engine.addLogicalProcess(a);
+        engine.addLogicalProcess(b);
+        a.plan(a.new Local(), 0.5);
+        b.plan(b.new Local(), 1);
+        engine.simulate(null, new Statistics(), null);
+
+        assertEquals(expected(0.5, 1, 0.1), a.log);
+        assertEquals(expected(1, 0.5, 0.25), b.log);
+        assertEquals(0, engine.getRollbacks());
+        assertTrue(engine.getGlobalVirtualTime() >= MAX_TIME);
+    }
+
+    @Test
+    public void rejectsNonPositiveWindow() {
+        assertThrows(IllegalArgumentException.class, () -> new OptimisticParallelEngine(MAX_TIME, 0));
+    }
+
+    @Test
+    public void rollbackRestoresPrimitiveEvents() {
+        OptimisticParallelEngine engine = new OptimisticParallelEngine(MAX_TIME, 100, 2);
+        Node a = new Node(0.5, 0.25);
+        Node b = new Node(1, 0.1);
+        a.peer = b;
+        b.peer = a;
+        engine.addLogicalProcess(a);
+        engine.addLogicalProcess(b);
+        int[] handler = new int[1];
+        handler[0] = b.registerHandler((payload, parameters, statistics, randoms) -> {
+            b.record(PRIMITIVE + b.getCurrentTime());
+            if (b.getCurrentTime() + 1 < MAX_TIME) {
+                b.plan(handler[0], payload, b.getCurrentTime() + 1);
+            }
+        });
+        a.plan(a.new Local(), 0.5);
+        b.plan(b.new Local(), 1);
+        b.plan(handler[0], 0, 0.3);
+        engine.simulate(null, new Statistics(), null);
+
+        List<Double> primitives = new ArrayList<>();
+        for (double t = 0.3; t < MAX_TIME; t++) {
+            primitives.add(PRIMITIVE + t);
+        }
+        assertEquals(primitives, b.log.stream().filter(t -> t >= PRIMITIVE).toList());
+        assertEquals(expected(1, 0.5, 0.25), b.log.stream().filter(t -> t < PRIMITIVE).toList());
+        double last = 0;
+        for (double time : b.log) {
+            double current = time >= PRIMITIVE ? time - PRIMITIVE : Math.abs(time);
+            assertTrue(current >= last, "events out of order: " + b.log);
+            last = current;
+        }
+        assertTrue(engine.getRollbacks() > 0);
+    }
+
+    @Test
+    public void interruptBeforeSimulateIsNotLost() {
+        OptimisticParallelEngine engine = new OptimisticParallelEngine(MAX_TIME, 100, 2);
+        Node a = new Node(0.5, 0.25);
+        Node b = new Node(1, 0.1);
+        a.peer = b;
+        b.peer = a;
+        engine.addLogicalProcess(a);
+        engine.addLogicalProcess(b);
+        a.plan(a.new Local(), 0.5);
+        b.plan(b.new Local(), 1);
+        engine.interrupt();
+        engine.simulate(null, new Statistics(), null);
+        assertEquals(List.of(), a.log);
+
+        engine.clearInterrupt();
+        engine.simulate(null, new Statistics(), null);
+        assertEquals(expected(0.5, 1, 0.1), a.log);
+    }
+}
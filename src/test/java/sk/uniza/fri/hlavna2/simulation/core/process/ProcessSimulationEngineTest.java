@@ -0,0 +1,257 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.process;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ProcessSimulationEngineTest {
+
+    private static class Model extends ProcessSimulationEngine {
+
+        private final List<String> log = new ArrayList<>();
+
+        Model() {
+            super(100);
+        }
+
+        void record(String entry) {
+            log.add(getCurrentTime() + " " + entry);
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+        }
+
+        boolean isCalendarEmpty() {
+            return getTimeline().isEmpty();
+        }
+    }
+
+    private static class Customer extends SimProcess {
+
+        private final Model model;
+        private final Resource server;
+        private final String name;
+
+        Customer(Model model, Resource server, String name) {
+            super(model);
+            this.model = model;
+            this.server = server;
+            this.name = name;
+        }
+
+        @Override
+        protected void run() {
+            request(server);
+            model.record(name + " served");
+            hold(2);
+            release(server);
+            model.record(name + " left");
+        }
+    }
+
+    private static class Sleeper extends SimProcess {
+
+        private final Model model;
+
+        Sleeper(Model model) {
+            super(model);
+            this.model = model;
+        }
+
+        @Override
+        protected void run() {
+            passivate();
+            model.record("woken");
+        }
+    }
+
+    @Test
+    public void resourceServesWaitingProcessesInOrder() {
+        Model model = new Model();
+        Resource server = model.createResource(1);
+        model.activate(new Customer(model, server, "a"), 0);
+        model.activate(new Customer(model, server, "b"), 1);
+        model.activate(new Customer(model, server, "c"), 1.5);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(List.of("0.0 a served", "2.0 a left", "2.0 b served", "4.0 b left", "4.0 c served", "6.0 c left"),
+                model.log);
+        assertEquals(1, server.getAvailable());
+        assertEquals(0, model.getActiveProcesses());
+    }
+
+    @Test
+    public void signalResumesAllWaitingProcesses() {
+        Model model = new Model();
+        Signal signal = model.createSignal();
+        for (String name : List.of("a", "b")) {
+            model.activate(new SimProcess(model) {
+                @Override
+                protected void run() {
+                    waitFor(signal);
+                    model.record(name);
+                }
+            }, 0);
+        }
+        model.activate(new SimProcess(model) {
+            @Override
+            protected void run() {
+                hold(3);
+                signal.raise();
+            }
+        }, 0);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(List.of("3.0 a", "3.0 b"), model.log);
+        assertEquals(0, signal.getWaiting());
+    }
+
+    @Test
+    public void passiveProcessIsActivatedOnce() {
+        Model model = new Model();
+        Sleeper sleeper = new Sleeper(model);
+        model.activate(sleeper, 1);
+        assertThrows(IllegalStateException.class, () -> model.activate(sleeper, 2));
+        model.activate(new SimProcess(model) {
+            @Override
+            protected void run() {
+                hold(5);
+                assertTrue(sleeper.isPassive());
+                model.activate(sleeper, getCurrentTime());
+                model.record("activated");
+            }
+        }, 0);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(List.of("5.0 activated", "5.0 woken"), model.log);
+        assertThrows(IllegalStateException.class, () -> model.activate(sleeper, 10));
+    }
+
+    @Test
+    public void blockedProcessCannotBeActivated() {
+        Model model = new Model();
+        Resource server = model.createResource(1);
+        Customer first = new Customer(model, server, "a");
+        Customer second = new Customer(model, server, "b");
+        model.activate(first, 0);
+        model.activate(second, 0.5);
+        model.activate(new SimProcess(model) {
+            @Override
+            protected void run() {
+                hold(1);
+                assertThrows(IllegalStateException.class, () -> model.activate(first, getCurrentTime()));
+                assertThrows(IllegalStateException.class, () -> model.activate(second, getCurrentTime()));
+            }
+        }, 0);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(4, model.log.size());
+    }
+
+    @Test
+    public void terminatedProcessCompletesBeforeResetReturns() {
+        Model model = new Model();
+        Resource server = model.createResource(1);
+        for (String name : List.of("a", "b")) {
+            model.activate(new SimProcess(model) {
+                @Override
+                protected void run() {
+                    request(server);
+                    try {
+                        passivate();
+                    } finally {
+                        release(server);
+                        model.record(name + " released");
+                    }
+                }
+            }, 0);
+        }
+        model.simulate(null, new Statistics(), null);
+        assertEquals(1, server.getQueueLength());
+
+        model.reset(null, new Statistics(), null);
+        assertEquals(List.of("0.0 a released"), model.log);
+        assertTrue(model.isCalendarEmpty());
+        assertEquals(0, server.getQueueLength());
+        assertEquals(1, server.getAvailable());
+        assertEquals(0, model.getActiveProcesses());
+    }
+
+    @Test
+    public void resetTerminatesProcessesEvenWhenTheyCatchRuntimeExceptions() {
+        Model model = new Model();
+        Resource server = model.createResource(1);
+        Signal never = model.createSignal();
+        boolean[] ended = new boolean[1];
+        boolean[] swallowed = new boolean[1];
+        SimProcess stubborn = new SimProcess(model) {
+            @Override
+            protected void run() {
+                try {
+                    request(server);
+                    waitFor(never);
+                } catch (RuntimeException ex) {
+                    swallowed[0] = true;
+                } finally {
+                    ended[0] = true;
+                }
+            }
+        };
+        Customer waiting = new Customer(model, server, "b");
+        Sleeper planned = new Sleeper(model);
+        model.activate(stubborn, 0);
+        model.activate(waiting, 1);
+        model.activate(planned, 1000);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(3, model.getActiveProcesses());
+        assertEquals(1, server.getQueueLength());
+        Sleeper unstarted = new Sleeper(model);
+        model.activate(unstarted, 2000);
+        assertEquals(4, model.getActiveProcesses());
+
+        model.reset(null, new Statistics(), null);
+        assertTrue(ended[0]);
+        assertFalse(swallowed[0]);
+        assertEquals(0, model.getActiveProcesses());
+        assertEquals(0, server.getQueueLength());
+        assertEquals(1, server.getAvailable());
+        assertThrows(IllegalStateException.class, () -> model.activate(stubborn, 0));
+        assertThrows(IllegalStateException.class, () -> model.activate(planned, 0));
+        assertThrows(IllegalStateException.class, () -> model.activate(unstarted, 0));
+
+        model.activate(new Customer(model, server, "c"), 0);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(List.of("0.0 c served", "2.0 c left"), model.log.subList(model.log.size() - 2, model.log.size()));
+    }
+}
@@ -0,0 +1,136 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.profiling;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.util.List;
+import jdk.jfr.Recording;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sk.uniza.fri.hlavna2.simulation.core.ExponentialModel;
+import sk.uniza.fri.hlavna2.simulation.core.ReplicationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.event.DefaultEventCalendar;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.listeners.EventListener;
+import sk.uniza.fri.hlavna2.simulation.core.results.ReplicationCache;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ProfileSummaryTest {
+
+    @TempDir
+    Path directory;
+
+    private static class Counter implements EventListener {
+
+        private int events;
+
+        @Override
+        public void onEvent(Event event, EventSimulationEngine engine) {
+            events++;
+        }
+    }
+
+    private ProfileSummary record(boolean profiling) throws IOException {
+        Path file = directory.resolve("profile.jfr");
+        ReplicationCache cache = new ReplicationCache(directory.resolve("cache"), Long.MAX_VALUE);
+        try (Recording recording = new Recording()) {
+            for (String name : List.of(EventExecutionRecord.NAME, CalendarOperationRecord.NAME, ListenerDispatchRecord.NAME,
+                    ReplicationRecord.NAME)) {
+                recording.enable(name).withThreshold(Duration.ZERO);
+            }
+            recording.start();
+            for (int solve = 0; solve < 2; solve++) {
+                ExponentialModel engine = new ExponentialModel();
+                engine.setProfiling(profiling);
+                engine.addEventListener(new Counter());
+                ReplicationEngine solver = ReplicationEngine.getSolver(engine, null, new ExponentialModel.Samples());
+                solver.setProfiling(profiling);
+                solver.setCache(cache, "v1", ExponentialModel.Samples::new);
+                solver.solve(5);
+            }
+            recording.stop();
+            recording.dump(file);
+        }
+        return ProfileSummary.summarize(file);
+    }
+
+    private static ProfileSummary.Entry find(List<ProfileSummary.Entry> entries, String name) {
+        return entries.stream().filter(entry -> entry.getName().equals(name)).findFirst().orElseThrow();
+    }
+
+    @Test
+    public void recordingIsAggregatedByType() throws IOException {
+        ProfileSummary summary = record(true);
+
+        assertEquals(1, summary.getEvents().size());
+        ProfileSummary.Entry arrivals = summary.getEvents().get(0);
+        assertEquals(ExponentialModel.class.getName() + "$Arrival", arrivals.getName());
+        assertEquals(5, arrivals.getCount());
+        assertTrue(arrivals.getTotal() >= arrivals.getMax());
+
+        String calendar = DefaultEventCalendar.class.getName();
+        // arrival planned by init of both engines and by reset of every simulated replication except the first one
+        assertEquals(2 + 4, find(summary.getCalendarOperations(), calendar + "." + CalendarOperationRecord.PLAN).getCount());
+        assertEquals(5, find(summary.getCalendarOperations(), calendar + "." + CalendarOperationRecord.NEXT).getCount());
+        List<ProfileSummary.Entry> operations = summary.getCalendarOperations();
+        for (int i = 1; i < operations.size(); i++) {
+            assertTrue(operations.get(i - 1).getTotal() >= operations.get(i).getTotal());
+        }
+
+        assertEquals(5, find(summary.getListeners(), Counter.class.getName()).getCount());
+        assertEquals(10, summary.getReplications().getCount());
+        assertEquals(5, summary.getReplications().getCached());
+    }
+
+    @Test
+    public void printContainsHotLists() throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        record(true).print(new PrintStream(bytes, true, StandardCharsets.UTF_8));
+        String printed = bytes.toString(StandardCharsets.UTF_8);
+        assertTrue(printed.contains("Events"));
+        assertTrue(printed.contains(ExponentialModel.class.getName() + "$Arrival"));
+        assertTrue(printed.contains("Listeners"));
+        assertTrue(printed.contains("10 replications (5 cached)"));
+    }
+
+    @Test
+    public void disabledProfilingRecordsNothing() throws IOException {
+        ProfileSummary summary = record(false);
+        assertTrue(summary.getEvents().isEmpty());
+        assertTrue(summary.getCalendarOperations().isEmpty());
+        assertTrue(summary.getListeners().isEmpty());
+        assertEquals(0, summary.getReplications().getCount());
+    }
+}
@@ -0,0 +1,219 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.queue;
+
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+import sk.uniza.fri.hlavna2.simulation.core.event.Event;
+import sk.uniza.fri.hlavna2.simulation.core.event.EventSimulationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.utils.RandomStorage;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class FacilityTest {
+
+    /**
+     * Single server queue with deterministic arrivals and service times of two
+     */
+    private static class Model extends EventSimulationEngine {
+
+        private final Facility<String> facility;
+        private final List<String> departures = new ArrayList<>();
+
+        Model(int servers) {
+            super(100);
+            facility = new Facility<>(this, servers);
+            registerFacility(facility);
+        }
+
+        class Arrival extends Event {
+
+            private final String name;
+
+            Arrival(String name) {
+                super(0, Model.this);
+                this.name = name;
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                int server = facility.seize(name);
+                if (server != Facility.QUEUED) {
+                    plan(new Departure(server), getCurrentTime() + 2);
+                }
+            }
+        }
+
+        class Departure extends Event {
+
+            private final int server;
+
+            Departure(int server) {
+                super(0, Model.this);
+                this.server = server;
+            }
+
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                departures.add(getCurrentTime() + " " + facility.getInService(server));
+                if (facility.release(server) != Facility.QUEUED) {
+                    plan(new Departure(server), getCurrentTime() + 2);
+                }
+            }
+        }
+
+        @Override
+        public void init(SimulationParameters parameters, Statistics statistics, RandomStorage storage) {
+            plan(new Arrival("a"), 0);
+            plan(new Arrival("b"), 0.5);
+            plan(new Arrival("c"), 1);
+        }
+
+        @Override
+        public void reset(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+            super.reset(parameters, statistics, randoms);
+            departures.clear();
+        }
+
+        @Override
+        public void cleanUp() {
+        }
+    }
+
+    @Test
+    public void statisticsFollowQueueLengthAndBusyServers() {
+        Model model = new Model(1);
+        model.init(null, new Statistics(), null);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(List.of("2.0 a", "4.0 b", "6.0 c"), model.departures);
+        assertEquals(0.75, model.facility.getQueueLengthStatistic().getAverage(6), 1e-12);
+        assertEquals(1.0, model.facility.getBusyServersStatistic().getAverage(6), 1e-12);
+        assertEquals(2.0, model.facility.getQueueLengthStatistic().getMax());
+    }
+
+    @Test
+    public void serversWorkInParallel() {
+        Model model = new Model(2);
+        model.init(null, new Statistics(), null);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(List.of("2.0 a", "2.5 b", "4.0 c"), model.departures);
+        assertEquals(0.25, model.facility.getQueueLengthStatistic().getAverage(4), 1e-12);
+    }
+
+    @Test
+    public void registeredFacilityIsResetWithEngine() {
+        Model model = new Model(1);
+        model.init(null, new Statistics(), null);
+        model.plan(model.new Arrival("d"), 1);
+        model.plan(new Event(0, model) {
+            @Override
+            protected void execute(SimulationParameters parameters, Statistics statistics, RandomStorage randoms) {
+                model.stop();
+            }
+        }, 2.5);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(1, model.facility.getBusy());
+        assertEquals(2, model.facility.getQueueLength());
+
+        model.reset(null, new Statistics(), null);
+        assertEquals(0, model.facility.getBusy());
+        assertEquals(0, model.facility.getQueueLength());
+        assertEquals(0.0, model.facility.getQueueLengthStatistic().getMax());
+        model.init(null, new Statistics(), null);
+        model.simulate(null, new Statistics(), null);
+        assertEquals(List.of("2.0 a", "4.0 b", "6.0 c"), model.departures);
+        assertEquals(0.75, model.facility.getAverageQueueLength(), 1e-12);
+    }
+
+    @Test
+    public void priorityQueueServesHigherPriorityFirstThenInArrivalOrder() {
+        Model model = new Model(1);
+        Facility<String> facility = new Facility<>(model, 1, QueueDiscipline.PRIORITY);
+        assertEquals(0, facility.seize("a", 0));
+        assertEquals(Facility.QUEUED, facility.seize("b", 1));
+        assertEquals(Facility.QUEUED, facility.seize("c", 5));
+        assertEquals(Facility.QUEUED, facility.seize("d", 5));
+        assertEquals(Facility.QUEUED, facility.seize("e", 10));
+        List<String> served = new ArrayList<>();
+        while (facility.release(0) != Facility.QUEUED) {
+            served.add(facility.getLastServed());
+        }
+        assertEquals(List.of("e", "c", "d", "b"), served);
+        assertNull(facility.getLastServed());
+        assertEquals(0, facility.getBusy());
+    }
+
+    @Test
+    public void preemptedEntityReturnsToFrontOfItsPriority() {
+        Model model = new Model(1);
+        Facility<String> facility = new Facility<>(model, 1, QueueDiscipline.PREEMPTIVE);
+        List<String> preempted = new ArrayList<>();
+        facility.setPreemptionListener((entity, server) -> preempted.add(entity + " " + server));
+        assertEquals(0, facility.seize("a", 1));
+        assertEquals(Facility.QUEUED, facility.seize("b", 1));
+        assertEquals(0, facility.seize("c", 3));
+        assertEquals(Facility.QUEUED, facility.seize("d", 2));
+        assertEquals(Facility.QUEUED, facility.seize("e", 3));
+        assertEquals(List.of("a 0"), preempted);
+        assertEquals("c", facility.getInService(0));
+        List<String> served = new ArrayList<>();
+        while (facility.release(0) != Facility.QUEUED) {
+            served.add(facility.getLastServed());
+        }
+        assertEquals(List.of("e", "d", "a", "b"), served);
+    }
+
+    @Test
+    public void ringQueueKeepsOrderWhileGrowing() {
+        RingQueue<Integer> queue = new RingQueue<>(2);
+        List<Integer> polled = new ArrayList<>();
+        for (int i = 0; i < 40; i++) {
+            queue.add(i);
+            if (i % 3 == 0) {
+                polled.add(queue.poll());
+            }
+        }
+        queue.addFirst(-1);
+        while (queue.size() > 0) {
+            polled.add(queue.poll());
+        }
+        List<Integer> expected = new ArrayList<>();
+        for (int i = 0; i < 14; i++) {
+            expected.add(i);
+        }
+        expected.add(-1);
+        for (int i = 14; i < 40; i++) {
+            expected.add(i);
+        }
+        assertEquals(expected, polled);
+        assertNull(queue.poll());
+    }
+}
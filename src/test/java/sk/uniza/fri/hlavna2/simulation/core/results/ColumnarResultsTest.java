@@ -0,0 +1,152 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.results;
+
+import java.io.IOException;
+import java.io.StringWriter;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sk.uniza.fri.hlavna2.simulation.core.ExponentialModel;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ColumnarResultsTest {
+
+    @TempDir
+    Path directory;
+
+    private static Statistics sample(double value) {
+        ExponentialModel.Samples samples = new ExponentialModel.Samples();
+        samples.getValues().add(value);
+        return samples;
+    }
+
+    private static ColumnarResultsWriter writer(Path file, int rowGroupSize, long flushInterval) throws IOException {
+        ColumnarResultsWriter writer = new ColumnarResultsWriter(file, rowGroupSize, flushInterval);
+        writer.addColumn("mean", statistics -> ((ExponentialModel.Samples) statistics).getMean());
+        writer.addColumn("double", statistics -> 2 * ((ExponentialModel.Samples) statistics).getMean());
+        return writer;
+    }
+
+    private static List<Integer> readReplications(Path file) throws IOException {
+        List<Integer> replications = new ArrayList<>();
+        try (ColumnarResultsReader reader = new ColumnarResultsReader(file)) {
+            while (reader.nextRowGroup()) {
+                for (int row = 0; row < reader.getRows(); row++) {
+                    replications.add(reader.getReplication(row));
+                    assertEquals(reader.getReplication(row) + 0.5, reader.getValue(0, row));
+                    assertEquals(2 * reader.getReplication(row) + 1.0, reader.getValue(1, row));
+                }
+            }
+        }
+        return replications;
+    }
+
+    @Test
+    public void rowsAreReadBackInGroups() throws IOException {
+        Path file = directory.resolve("results.bin");
+        try (ColumnarResultsWriter writer = writer(file, 4, Long.MAX_VALUE)) {
+            for (int i = 0; i < 10; i++) {
+                writer.replicationEnded(i, sample(i + 0.5));
+            }
+        }
+        List<Integer> sizes = new ArrayList<>();
+        try (ColumnarResultsReader reader = new ColumnarResultsReader(file)) {
+            assertEquals(List.of("mean", "double"), reader.getColumns());
+            while (reader.nextRowGroup()) {
+                sizes.add(reader.getRows());
+            }
+        }
+        assertEquals(List.of(4, 4, 2), sizes);
+        assertEquals(List.of(0, 1, 2, 3, 4, 5, 6, 7, 8, 9), readReplications(file));
+    }
+
+    @Test
+    public void periodicFlushWritesPartialGroup() throws IOException {
+        Path file = directory.resolve("results.bin");
+        try (ColumnarResultsWriter writer = writer(file, 100, 0)) {
+            for (int i = 0; i < 3; i++) {
+                writer.replicationEnded(i, sample(i + 0.5));
+                List<Integer> expected = new ArrayList<>();
+                for (int j = 0; j <= i; j++) {
+                    expected.add(j);
+                }
+                assertEquals(expected, readReplications(file));
+            }
+        }
+    }
+
+    @Test
+    public void incompleteGroupAtEndIsIgnored() throws IOException {
+        Path file = directory.resolve("results.bin");
+        try (ColumnarResultsWriter writer = writer(file, 4, Long.MAX_VALUE)) {
+            for (int i = 0; i < 8; i++) {
+                writer.replicationEnded(i, sample(i + 0.5));
+            }
+        }
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(channel.size() - 1);
+        }
+        assertEquals(List.of(0, 1, 2, 3), readReplications(file));
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.WRITE)) {
+            channel.truncate(6);
+        }
+        try (ColumnarResultsReader reader = new ColumnarResultsReader(file)) {
+            assertEquals(List.of(), reader.getColumns());
+            assertFalse(reader.nextRowGroup());
+        }
+    }
+
+    @Test
+    public void rejectsEmptyRowGroups() {
+        Path file = directory.resolve("results.bin");
+        assertThrows(IllegalArgumentException.class, () -> new ColumnarResultsWriter(file, 0, Long.MAX_VALUE));
+        assertThrows(IllegalArgumentException.class, () -> new ColumnarResultsWriter(file, -1, Long.MAX_VALUE));
+    }
+
+    @Test
+    public void csvExportEscapesColumnNames() throws IOException {
+        Path file = directory.resolve("results.bin");
+        try (ColumnarResultsWriter writer = new ColumnarResultsWriter(file, 4, Long.MAX_VALUE)) {
+            writer.addColumn("waiting, mean", statistics -> 1.5);
+            writer.addColumn("say \"hi\"", statistics -> 2.5);
+            writer.addColumn("plain", statistics -> 3.5);
+            writer.replicationEnded(7, sample(0));
+        }
+        StringWriter csv = new StringWriter();
+        ColumnarResultsReader.exportCsv(file, csv);
+        assertEquals("replication,\"waiting, mean\",\"say \"\"hi\"\"\",plain\n7,1.5,2.5,3.5\n", csv.toString());
+    }
+}
@@ -0,0 +1,166 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.results;
+
+import java.io.IOException;
+import java.io.ObjectOutputStream;
+import java.io.Serializable;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import sk.uniza.fri.hlavna2.simulation.core.ExponentialModel;
+import sk.uniza.fri.hlavna2.simulation.core.ReplicationEngine;
+import sk.uniza.fri.hlavna2.simulation.core.SimulationParameters;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ReplicationCacheTest {
+
+    @TempDir
+    Path directory;
+
+    /**
+     * Parameters counting how many times they were serialized
+     */
+    private static class CountedParameters implements SimulationParameters, Serializable {
+
+        private static final long serialVersionUID = 1L;
+        private static int serialized;
+
+        private void writeObject(ObjectOutputStream out) throws IOException {
+            serialized++;
+            out.defaultWriteObject();
+        }
+    }
+
+    private static class KeyedParameters implements CacheableParameters {
+
+        private final String key;
+
+        KeyedParameters(String key) {
+            this.key = key;
+        }
+
+        @Override
+        public String getCacheKey() {
+            return key;
+        }
+    }
+
+    private ExponentialModel.Samples solve(ReplicationCache cache, SimulationParameters parameters, int replications) {
+        ExponentialModel.Samples samples = new ExponentialModel.Samples();
+        ReplicationEngine solver = ReplicationEngine.getSolver(new ExponentialModel(), parameters, samples);
+        solver.setCache(cache, "v1", ExponentialModel.Samples::new);
+        solver.solve(replications);
+        return samples;
+    }
+
+    @Test
+    public void storedReplicationsAreServedFromCache() throws IOException {
+        ReplicationCache cache = new ReplicationCache(directory, Long.MAX_VALUE);
+        ExponentialModel.Parameters parameters = new ExponentialModel.Parameters(2.0);
+        ExponentialModel.Samples first = solve(cache, parameters, 5);
+        assertEquals(ExponentialModel.expected(0, 5, 2.0), first.getValues());
+        assertEquals(0, cache.getHits());
+        assertEquals(5, cache.getMisses());
+        assertEquals(5, cache.getEntries());
+
+        ReplicationCache reopened = new ReplicationCache(directory, Long.MAX_VALUE);
+        ExponentialModel.Samples second = solve(reopened, new ExponentialModel.Parameters(2.0), 5);
+        assertEquals(first.getValues(), second.getValues());
+        assertEquals(5, reopened.getHits());
+        assertEquals(0, reopened.getMisses());
+
+        solve(reopened, new ExponentialModel.Parameters(3.0), 5);
+        assertEquals(10, reopened.getEntries());
+    }
+
+    @Test
+    public void parametersAreSerializedOncePerSolve() throws IOException {
+        ReplicationCache cache = new ReplicationCache(directory, Long.MAX_VALUE);
+        CountedParameters.serialized = 0;
+        solve(cache, new CountedParameters(), 20);
+        assertEquals(1, CountedParameters.serialized);
+        assertEquals(20, cache.getEntries());
+    }
+
+    @Test
+    public void cacheableParametersAreIdentifiedByTheirKey() throws IOException {
+        assertEquals(ReplicationCache.parametersKey(new KeyedParameters("a")), ReplicationCache.parametersKey(new KeyedParameters("a")));
+        assertNotEquals(ReplicationCache.parametersKey(new KeyedParameters("a")), ReplicationCache.parametersKey(new KeyedParameters("b")));
+        ReplicationCache cache = new ReplicationCache(directory, Long.MAX_VALUE);
+        solve(cache, new KeyedParameters("a"), 3);
+        solve(cache, new KeyedParameters("a"), 3);
+        assertEquals(3, cache.getHits());
+        assertThrows(IllegalArgumentException.class, () -> ReplicationCache.parametersKey(new SimulationParameters() { }));
+    }
+
+    @Test
+    public void leftoverTemporaryFilesAreDeletedOnOpen() throws IOException {
+        Path leftover = directory.resolve("abc.tmp");
+        Files.write(leftover, new byte[]{1, 2, 3});
+        ReplicationCache cache = new ReplicationCache(directory, Long.MAX_VALUE);
+        assertFalse(Files.exists(leftover));
+        assertEquals(0, cache.getEntries());
+    }
+
+    @Test
+    public void leastRecentlyUsedEntriesAreEvicted() throws IOException {
+        ReplicationCache cache = new ReplicationCache(directory, Long.MAX_VALUE);
+        for (int i = 0; i < 3; i++) {
+            ExponentialModel.Samples samples = new ExponentialModel.Samples();
+            samples.getValues().add((double) i);
+            cache.put("k" + i, samples);
+            Files.setLastModifiedTime(directory.resolve("k" + i + ".stat"), FileTime.fromMillis(1000L * (i + 1)));
+        }
+        long entry = cache.getBytes() / 3;
+        Files.setLastModifiedTime(directory.resolve("k0.stat"), FileTime.fromMillis(10_000));
+
+        ReplicationCache reopened = new ReplicationCache(directory, 2 * entry);
+        assertEquals(2, reopened.getEntries());
+        assertNull(reopened.get("k1"));
+        assertEquals(0.0, ((ExponentialModel.Samples) reopened.get("k0")).getValues().get(0));
+        assertEquals(2.0, ((ExponentialModel.Samples) reopened.get("k2")).getValues().get(0));
+    }
+
+    @Test
+    public void unreadableEntryIsRemoved() throws IOException {
+        ReplicationCache cache = new ReplicationCache(directory, Long.MAX_VALUE);
+        cache.put("broken", new ExponentialModel.Samples());
+        Files.write(directory.resolve("broken.stat"), new byte[]{1, 2, 3});
+        assertNull(cache.get("broken"));
+        assertEquals(0, cache.getEntries());
+        assertTrue(Files.notExists(directory.resolve("broken.stat")));
+    }
+}
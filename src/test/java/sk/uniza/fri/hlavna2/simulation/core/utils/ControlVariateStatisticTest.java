@@ -0,0 +1,80 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class ControlVariateStatisticTest {
+
+    @Test
+    public void exactLinearControlRemovesAllVariance() {
+        ControlVariateStatistic statistic = new ControlVariateStatistic(0.5);
+        UniformStream stream = new UniformStream(3);
+        for (int i = 0; i < 50; i++) {
+            double control = stream.nextDouble();
+            statistic.add(10 + 2 * control, control);
+        }
+        assertArrayEquals(new double[]{2.0}, statistic.getCoefficients(), 1e-9);
+        assertEquals(11.0, statistic.getMean(), 1e-9);
+        assertEquals(0.0, statistic.getHalfWidth(0.95), 1e-6);
+    }
+
+    @Test
+    public void correlatedControlNarrowsInterval() {
+        ControlVariateStatistic statistic = new ControlVariateStatistic(1.0);
+        RunningStatistic plain = new RunningStatistic();
+        UniformStream stream = new UniformStream(4);
+        for (int i = 0; i < 2000; i++) {
+            double control = stream.nextExponential(1.0);
+            double value = 3 * control + stream.nextUniform(-0.5, 0.5);
+            statistic.add(value, control);
+            plain.add(value);
+        }
+        assertEquals(2000, statistic.getCount());
+        assertEquals(plain.getMean(), statistic.getUncontrolledMean(), 1e-9);
+        assertEquals(3.0, statistic.getMean(), 3 * statistic.getHalfWidth(0.95));
+        assertTrue(statistic.getHalfWidth(0.95) < plain.getHalfWidth(0.95) / 5);
+    }
+
+    @Test
+    public void supportsSeveralControls() {
+        ControlVariateStatistic statistic = new ControlVariateStatistic(0.5, 0.5);
+        UniformStream stream = new UniformStream(8);
+        double[] controls = new double[2];
+        for (int i = 0; i < 100; i++) {
+            controls[0] = stream.nextDouble();
+            controls[1] = stream.nextDouble();
+            statistic.add(1 + controls[0] - 4 * controls[1], controls);
+        }
+        assertArrayEquals(new double[]{1.0, -4.0}, statistic.getCoefficients(), 1e-9);
+        assertEquals(-0.5, statistic.getMean(), 1e-9);
+    }
+}
@@ -0,0 +1,140 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+import org.junit.jupiter.api.Test;
+import sk.uniza.fri.hlavna2.simulation.core.ExponentialModel;
+import sk.uniza.fri.hlavna2.simulation.core.Statistics;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class EntityStoreTest {
+
+    private final EntityStore store = new EntityStore(3);
+    private final int arrival = store.addDoubleAttribute("arrival");
+    private final int parent = store.addIntAttribute("parent");
+    private final int served = store.addLongAttribute("served");
+
+    @Test
+    public void attributesSurviveGrowthAcrossSegments() {
+        for (int i = 0; i < 10; i++) {
+            int id = store.allocate();
+            assertEquals(i, id);
+            store.setDouble(id, arrival, i + 0.5);
+            store.setInt(id, parent, i - 1);
+            store.setLong(id, served, Long.MAX_VALUE - i);
+        }
+        for (int id = 0; id < 10; id++) {
+            assertEquals(id + 0.5, store.getDouble(id, arrival));
+            assertEquals(id - 1, store.getInt(id, parent));
+            assertEquals(Long.MAX_VALUE - id, store.getLong(id, served));
+        }
+        assertEquals(10, store.size());
+        assertEquals(10, store.getIdBound());
+        assertEquals(3L * 4 * (Double.BYTES + Integer.BYTES + Long.BYTES), store.getAllocatedBytes());
+        assertEquals("parent", store.getAttributeName(parent));
+    }
+
+    @Test
+    public void freedIdIsReusedWithZeroAttributes() {
+        int first = store.allocate();
+        int second = store.allocate();
+        store.setDouble(first, arrival, 3.0);
+        store.setInt(first, parent, second);
+        store.setLong(first, served, 7);
+        store.free(first);
+        assertFalse(store.isAlive(first));
+        assertTrue(store.isAlive(second));
+        assertEquals(1, store.size());
+
+        assertEquals(first, store.allocate());
+        assertEquals(0.0, store.getDouble(first, arrival));
+        assertEquals(0, store.getInt(first, parent));
+        assertEquals(0L, store.getLong(first, served));
+        assertEquals(2, store.getIdBound());
+    }
+
+    @Test
+    public void iterationVisitsOnlyLiveEntities() {
+        for (int i = 0; i < 6; i++) {
+            store.setInt(store.allocate(), parent, i);
+        }
+        store.free(1);
+        store.free(4);
+        int sum = 0;
+        int count = 0;
+        for (int id = 0; id < store.getIdBound(); id++) {
+            if (store.isAlive(id)) {
+                sum += store.getInt(id, parent);
+                count++;
+            }
+        }
+        assertEquals(4, count);
+        assertEquals(0 + 2 + 3 + 5, sum);
+        assertFalse(store.isAlive(-1));
+        assertFalse(store.isAlive(6));
+    }
+
+    @Test
+    public void clearKeepsSegments() {
+        for (int i = 0; i < 5; i++) {
+            store.allocate();
+        }
+        store.free(2);
+        long allocated = store.getAllocatedBytes();
+        store.clear();
+        assertEquals(0, store.size());
+        assertEquals(0, store.getIdBound());
+        assertFalse(store.isAlive(0));
+        assertEquals(0, store.allocate());
+        assertEquals(1, store.allocate());
+        assertEquals(allocated, store.getAllocatedBytes());
+    }
+
+    @Test
+    public void rejectsInvalidUse() {
+        int id = store.allocate();
+        assertThrows(IllegalStateException.class, () -> store.addDoubleAttribute("late"));
+        store.free(id);
+        assertThrows(IllegalArgumentException.class, () -> store.free(id));
+        assertThrows(IllegalArgumentException.class, () -> store.free(5));
+    }
+
+    @Test
+    public void registeredStoreIsClearedOnReset() {
+        ExponentialModel engine = new ExponentialModel();
+        engine.registerEntityStore(store);
+        store.allocate();
+        store.allocate();
+        engine.reset(null, new Statistics(), null);
+        assertEquals(0, store.size());
+        assertEquals(0, store.allocate());
+    }
+}
@@ -0,0 +1,109 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+import java.util.Arrays;
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class LogHistogramTest {
+
+    @Test
+    public void quantilesHaveBoundedRelativeError() {
+        LogHistogram histogram = new LogHistogram(1e-3, 1e6, 7);
+        UniformStream stream = new UniformStream(1);
+        double[] values = new double[100_000];
+        for (int i = 0; i < values.length; i++) {
+            values[i] = stream.nextExponential(10.0);
+            histogram.record(values[i]);
+        }
+        Arrays.sort(values);
+        for (double quantile : new double[]{0.01, 0.5, 0.9, 0.99, 0.999}) {
+            double exact = values[(int) Math.ceil(quantile * values.length) - 1];
+            assertEquals(exact, histogram.getQuantile(quantile), exact * Math.pow(2, -8));
+        }
+        assertEquals(values[0], histogram.getQuantile(0), values[0] * Math.pow(2, -8));
+        assertEquals(values[values.length - 1], histogram.getQuantile(1), values[values.length - 1] * Math.pow(2, -8));
+        assertEquals(values.length, histogram.getCount());
+    }
+
+    @Test
+    public void valuesOutsideRangeAreClampedToMinAndMax() {
+        LogHistogram histogram = new LogHistogram(1, 100, 4);
+        histogram.record(0.25);
+        histogram.record(10);
+        histogram.record(1000);
+        assertEquals(0.25, histogram.getQuantile(0.1));
+        assertEquals(1000, histogram.getQuantile(1));
+        assertEquals(0.25, histogram.getMin());
+        assertEquals(1000, histogram.getMax());
+        assertEquals(1010.25 / 3, histogram.getMean(), 1e-12);
+    }
+
+    @Test
+    public void mergeEqualsSingleHistogram() {
+        LogHistogram all = new LogHistogram(1e-3, 1e3, 5);
+        LogHistogram left = new LogHistogram(1e-3, 1e3, 5);
+        LogHistogram right = new LogHistogram(1e-3, 1e3, 5);
+        UniformStream stream = new UniformStream(2);
+        for (int i = 0; i < 1000; i++) {
+            double value = stream.nextExponential(1.0);
+            all.record(value);
+            (i % 3 == 0 ? left : right).record(value);
+        }
+        LogHistogram merged = new LogHistogram(left);
+        merged.merge(right);
+        for (double quantile : new double[]{0.1, 0.5, 0.95}) {
+            assertEquals(all.getQuantile(quantile), merged.getQuantile(quantile));
+        }
+        assertEquals(all.getCount(), merged.getCount());
+        assertThrows(IllegalArgumentException.class, () -> merged.merge(new LogHistogram(1e-3, 1e3, 6)));
+    }
+
+    @Test
+    public void rejectsNaN() {
+        LogHistogram histogram = new LogHistogram(1, 100, 4);
+        histogram.record(5);
+        assertThrows(IllegalArgumentException.class, () -> histogram.record(Double.NaN));
+        assertEquals(1, histogram.getCount());
+        assertEquals(5.0, histogram.getMean());
+    }
+
+    @Test
+    public void resetForgetsValues() {
+        LogHistogram histogram = new LogHistogram(1, 100, 4);
+        histogram.record(5);
+        histogram.reset();
+        assertEquals(0, histogram.getCount());
+        assertTrue(Double.isNaN(histogram.getQuantile(0.5)));
+        assertThrows(IllegalArgumentException.class, () -> new LogHistogram(0, 100, 4));
+        assertThrows(IllegalArgumentException.class, () -> new LogHistogram(1, 100, 21));
+    }
+}
@@ -0,0 +1,74 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class RunningStatisticTest {
+
+    @Test
+    public void computesMeanAndVariance() {
+        RunningStatistic statistic = new RunningStatistic();
+        for (double value : new double[]{2, 4, 4, 4, 5, 5, 7, 9}) {
+            statistic.add(value);
+        }
+        assertEquals(8, statistic.getCount());
+        assertEquals(5.0, statistic.getMean(), 1e-12);
+        assertEquals(32.0 / 7, statistic.getVariance(), 1e-12);
+    }
+
+    @Test
+    public void mergeEqualsSingleStatistic() {
+        RunningStatistic all = new RunningStatistic();
+        RunningStatistic left = new RunningStatistic();
+        RunningStatistic right = new RunningStatistic();
+        for (int i = 0; i < 100; i++) {
+            double value = Math.sin(i) * 10 + i;
+            all.add(value);
+            (i < 30 ? left : right).add(value);
+        }
+        left.merge(right);
+        left.merge(new RunningStatistic());
+        assertEquals(all.getCount(), left.getCount());
+        assertEquals(all.getMean(), left.getMean(), 1e-9);
+        assertEquals(all.getVariance(), left.getVariance(), 1e-9);
+    }
+
+    @Test
+    public void usesStudentQuantiles() {
+        assertEquals(1.959964, RunningStatistic.normalQuantile(0.975), 1e-5);
+        assertEquals(2.262157, RunningStatistic.studentQuantile(0.975, 9), 2e-3);
+        assertEquals(12.7062, RunningStatistic.studentQuantile(0.975, 1), 1e-3);
+        RunningStatistic single = new RunningStatistic();
+        single.add(1);
+        assertTrue(Double.isNaN(single.getHalfWidth(0.95)));
+        assertTrue(Double.isNaN(single.getVariance()));
+    }
+}
@@ -0,0 +1,81 @@
+/*
+ * The MIT License
+ *
+ * Copyright 2017 Martin Hlavňa <mato.hlavna@gmail.com>.
+ *
+ * Permission is hereby granted, free of charge, to any person obtaining a copy
+ * of this software and associated documentation files (the "Software"), to deal
+ * in the Software without restriction, including without limitation the rights
+ * to use, copy, modify, merge, publish, distribute, sublicense, and/or sell
+ * copies of the Software, and to permit persons to whom the Software is
+ * furnished to do so, subject to the following conditions:
+ *
+ * The above copyright notice and this permission notice shall be included in
+ * all copies or substantial portions of the Software.
+ *
+ * THE SOFTWARE IS PROVIDED "AS IS", WITHOUT WARRANTY OF ANY KIND, EXPRESS OR
+ * IMPLIED, INCLUDING BUT NOT LIMITED TO THE WARRANTIES OF MERCHANTABILITY,
+ * FITNESS FOR A PARTICULAR PURPOSE AND NONINFRINGEMENT. IN NO EVENT SHALL THE
+ * AUTHORS OR COPYRIGHT HOLDERS BE LIABLE FOR ANY CLAIM, DAMAGES OR OTHER
+ * LIABILITY, WHETHER IN AN ACTION OF CONTRACT, TORT OR OTHERWISE, ARISING FROM,
+ * OUT OF OR IN CONNECTION WITH THE SOFTWARE OR THE USE OR OTHER DEALINGS IN
+ * THE SOFTWARE.
+ */
+package sk.uniza.fri.hlavna2.simulation.core.utils;
+
+import org.junit.jupiter.api.Test;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+/**
+ * @author Martin Hlavňa {@literal <mato.hlavna@gmail.com>}
+ */
+public class UniformStreamTest {
+
+    @Test
+    public void extremeBitsStayInsideOpenInterval() {
+        for (long bits : new long[]{0L, -1L, Long.MIN_VALUE, Long.MAX_VALUE}) {
+            for (boolean antithetic : new boolean[]{false, true}) {
+                double u = UniformStream.toUnit(bits, antithetic);
+                assertTrue(u > 0 && u < 1, "out of (0, 1): " + u);
+                assertTrue(Double.isFinite(-Math.log(1.0 - u)));
+            }
+            assertEquals(1.0, UniformStream.toUnit(bits, false) + UniformStream.toUnit(bits, true));
+        }
+    }
+
+    @Test
+    public void antitheticStreamReturnsComplements() {
+        UniformStream stream = new UniformStream(5);
+        UniformStream complement = new UniformStream(5);
+        complement.setAntithetic(true);
+        for (int i = 0; i < 1000; i++) {
+            assertEquals(1.0, stream.nextDouble() + complement.nextDouble());
+        }
+    }
+
+    @Test
+    public void substreamRestartsSequence() {
+        UniformStream stream = new UniformStream(5);
+        stream.selectSubstream(3);
+        double first = stream.nextDouble();
+        stream.nextDouble();
+        stream.selectSubstream(4);
+        assertNotEquals(first, stream.nextDouble());
+        stream.selectSubstream(3);
+        assertEquals(first, stream.nextDouble());
+    }
+
+    @Test
+    public void exponentialHasRequestedMean() {
+        UniformStream stream = new UniformStream(11);
+        RunningStatistic statistic = new RunningStatistic();
+        for (int i = 0; i < 200_000; i++) {
+            statistic.add(stream.nextExponential(2.0));
+        }
+        assertEquals(2.0, statistic.getMean(), 0.03);
+        assertEquals(4.0, statistic.getVariance(), 0.15);
+    }
+}